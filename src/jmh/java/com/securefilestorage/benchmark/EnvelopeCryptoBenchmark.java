@@ -0,0 +1,130 @@
+package com.securefilestorage.benchmark;
+
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.crypto.DecryptingInputStream;
+import com.securefilestorage.crypto.EncryptingOutputStream;
+import com.securefilestorage.crypto.EnvelopeHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of chunked envelope encryption and decryption for different chunk sizes and
+ * caller buffer sizes.
+ * <p>
+ * Each invocation encrypts or decrypts one {@code payloadBytes} object in memory, written or read
+ * in pieces of {@code bufferSize} bytes: 16 KB is what {@code InputStream.transferTo} uses on the
+ * upload path, 1 MB a large servlet buffer. The payload and the data key come from a fixed seed.
+ * Run with {@code -PjmhIncludes=EnvelopeCryptoBenchmark}; scores are objects per second, so
+ * multiply by {@code payloadBytes} for bytes per second.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvelopeCryptoBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"16384", "65536", "1048576"})
+    public int chunkSize;
+
+    @Param({"16384", "1048576"})
+    public int bufferSize;
+
+    @Param({"8388608"})
+    public int payloadBytes;
+
+    private byte[] payload;
+
+    private byte[] encrypted;
+
+    private byte[] buffer;
+
+    private DataKey dataKey;
+
+    private EnvelopeHeader header;
+
+    private int headerLength;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(SEED);
+        payload = new byte[payloadBytes];
+        random.nextBytes(payload);
+        byte[] material = new byte[32];
+        random.nextBytes(material);
+        byte[] wrappedKey = new byte[184];
+        random.nextBytes(wrappedKey);
+        dataKey = new DataKey(material, wrappedKey);
+        header = EnvelopeHeader.create(chunkSize, wrappedKey, new SecureRandom());
+        buffer = new byte[bufferSize];
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payloadBytes + payloadBytes / chunkSize * 16 + 1024);
+        try (EncryptingOutputStream encrypting = new EncryptingOutputStream(out, dataKey, header)) {
+            encrypting.write(payload);
+        }
+        encrypted = out.toByteArray();
+        headerLength = header.getEncoded().length;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataKey.destroy();
+    }
+
+    /**
+     * Encrypts the payload, written in {@code bufferSize} pieces.
+     */
+    @Benchmark
+    public long encrypt() throws IOException {
+        // Header and chunks are discarded so that only the cipher path is measured.
+        EncryptingOutputStream encrypting = new EncryptingOutputStream(OutputStream.nullOutputStream(), dataKey, header);
+        for (int off = 0; off < payloadBytes; off += bufferSize) {
+            encrypting.write(payload, off, Math.min(bufferSize, payloadBytes - off));
+        }
+        encrypting.close();
+        return encrypting.getPlaintextBytes();
+    }
+
+    /**
+     * Authenticates and decrypts the object, read in {@code bufferSize} pieces.
+     */
+    @Benchmark
+    public long decrypt() throws IOException {
+        InputStream chunks = new ByteArrayInputStream(encrypted, headerLength, encrypted.length - headerLength);
+        long total = 0;
+        try (DecryptingInputStream decrypting = new DecryptingInputStream(chunks, dataKey, header)) {
+            int n;
+            while ((n = decrypting.read(buffer, 0, bufferSize)) != -1) {
+                total += n;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,116 @@
+package com.securefilestorage.benchmark;
+
+import com.securefilestorage.config.JwtAuthenticationFilter;
+import com.securefilestorage.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of bearer token authentication: the previous per-call parser against the
+ * shared parser, with and without the verified-token cache, and the whole
+ * {@link JwtAuthenticationFilter} for a request carrying a repeat token. Token generation,
+ * as done on login, is measured as well.
+ * <p>
+ * Run with {@code -PjmhIncludes=JwtFilterBenchmark}; scores are microseconds per request.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    /** HS512 needs a key of at least 64 bytes */
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private JwtUtil jwtUtil;
+
+    private JwtAuthenticationFilter filter;
+
+    private String token;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3_600_000L, cacheEnabled, 10_000L, new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(jwtUtil);
+        token = jwtUtil.generateToken("benchmark-user");
+        request = new MockHttpServletRequest("GET", "/api/files/list");
+        request.addHeader("Authorization", "Bearer " + token);
+        request.setRemoteAddr("10.0.0.1");
+        response = new MockHttpServletResponse();
+    }
+
+    /**
+     * Validation as it was done before: a new parser and key per call.
+     */
+    @Benchmark
+    public String perCallParser() {
+        try {
+            return Jwts.parserBuilder()
+                    .setSigningKey(SECRET.getBytes())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody()
+                    .getSubject();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Object filter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+            // OncePerRequestFilter marks the request as filtered; reset it for the next invocation.
+            request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.securefilestorage.benchmark;
+
+import com.securefilestorage.model.FileMetadata;
+import com.securefilestorage.repository.FileMetadataRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Insert rate of file metadata rows through {@link FileMetadataRepository} with the persistence setup of the
+ * application: the {@link FileMetadata} entity with its pooled sequence ({@code allocationSize = 50}), the
+ * Hibernate settings under {@code spring.jpa} of {@code application.yml} ({@code batch_size}, {@code order_inserts})
+ * and a Hikari pool with {@code reWriteBatchedInserts}, as built by {@code DataSourceConfig}.
+ * <p>
+ * {@code idAllocation=single} measures the mapping before pooling for comparison: the same rows through
+ * {@link SingleIdFileMetadata}, whose ids come one {@code nextval} per row from a sequence with increment 1.
+ * <p>
+ * Needs the PostgreSQL from {@code docker/postgres/docker-compose.yml}; override the connection with
+ * {@code -Dbench.jdbc.url}, {@code -Dbench.jdbc.user} and {@code -Dbench.jdbc.password}. The Flyway migrations
+ * run into a schema of their own that is dropped afterwards. Scores are rows per second.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MetadataInsertBenchmark {
+
+    /** Rows inserted per benchmark invocation, as when ingesting a batch of files */
+    private static final int ROWS = 1000;
+
+    /** Schema holding the migrated tables for the duration of the run */
+    private static final String SCHEMA = "bench_metadata";
+
+    /** Prefix of the Hibernate settings in application.yml */
+    private static final String JPA_PROPERTIES = "spring.jpa.properties.";
+
+    private HikariDataSource dataSource;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    /**
+     * How row ids are allocated: {@code pooled} as {@link FileMetadata} does, {@code single} one per row.
+     */
+    @Param({"pooled", "single"})
+    private String idAllocation;
+
+    /** Repository of the measured entity */
+    private JpaRepository<Object, Long> repository;
+
+    /** Creates the measured entity for a row number */
+    private LongFunction<Object> rowFactory;
+
+    private TransactionTemplate transactionTemplate;
+
+    private long rowCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5435/secure_db");
+        String user = System.getProperty("bench.jdbc.user", "admin");
+        String password = System.getProperty("bench.jdbc.password", "securepassword");
+        // The pool connects into the schema, so it has to exist before the first connection.
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+        }
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(user);
+        dataSource.setPassword(password);
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        dataSource.setSchema(SCHEMA);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        if ("single".equals(idAllocation)) {
+            execute("CREATE SEQUENCE " + SingleIdFileMetadata.SEQUENCE + " START WITH 10000 INCREMENT BY 1");
+        }
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan(FileMetadata.class.getPackageName(),
+                SingleIdFileMetadata.class.getPackageName());
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaProperties(applicationJpaProperties());
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        JpaRepositoryFactory repositoryFactory =
+                new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        if ("single".equals(idAllocation)) {
+            repository = untyped(repositoryFactory.getRepository(SingleIdFileMetadataRepository.class));
+            rowFactory = MetadataInsertBenchmark::newSingleIdRow;
+        } else {
+            repository = untyped(repositoryFactory.getRepository(FileMetadataRepository.class));
+            rowFactory = MetadataInsertBenchmark::newRow;
+        }
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        execute("DELETE FROM file_metadata");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        entityManagerFactoryBean.destroy();
+        execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        dataSource.close();
+    }
+
+    /**
+     * One {@code saveAll} of a batch in one transaction, as the batch upload stores its metadata.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveAll() {
+        List<Object> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(rowFactory.apply(rowCounter++));
+        }
+        transactionTemplate.executeWithoutResult(status -> repository.saveAll(rows));
+    }
+
+    /**
+     * One {@code save} and transaction per row, as single uploads store their metadata.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void savePerFile() {
+        for (int i = 0; i < ROWS; i++) {
+            Object row = rowFactory.apply(rowCounter++);
+            transactionTemplate.executeWithoutResult(status -> repository.save(row));
+        }
+    }
+
+    private static FileMetadata newRow(long row) {
+        return FileMetadata.builder()
+                .fileName("file-" + row + ".bin")
+                .bucketName("secure-file-storage-s3-bucket")
+                .fileSize(1024L * (row % 4096))
+                .s3Key("bench-" + row + "_file-" + row + ".bin")
+                .uploadedBy("bench")
+                .uploadedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static SingleIdFileMetadata newSingleIdRow(long row) {
+        return new SingleIdFileMetadata("file-" + row + ".bin", "secure-file-storage-s3-bucket",
+                1024L * (row % 4096), "bench-" + row + "_file-" + row + ".bin", "bench", LocalDateTime.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JpaRepository<Object, Long> untyped(JpaRepository<?, Long> repository) {
+        return (JpaRepository<Object, Long>) repository;
+    }
+
+    /**
+     * Hibernate settings of the application, read from application.yml so the benchmark follows changes to them.
+     * {@code show-sql} is left out to keep statement logging out of the measurement.
+     */
+    private static Properties applicationJpaProperties() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        Properties application = yaml.getObject();
+        Properties properties = new Properties();
+        if (application == null) {
+            return properties;
+        }
+        application.stringPropertyNames().stream()
+                .filter(name -> name.startsWith(JPA_PROPERTIES))
+                .forEach(name -> properties.setProperty(
+                        name.substring(JPA_PROPERTIES.length()), application.getProperty(name)));
+        String ddlAuto = application.getProperty("spring.jpa.hibernate.ddl-auto");
+        if (ddlAuto != null) {
+            properties.setProperty("hibernate.hbm2ddl.auto", ddlAuto);
+        }
+        return properties;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * The columns of {@link FileMetadata} set on upload, with the id mapping before pooling:
+     * {@code allocationSize = 1} on a sequence with increment 1, so every row costs a {@code nextval}.
+     */
+    @Entity
+    @Table(name = "file_metadata")
+    public static class SingleIdFileMetadata {
+
+        /** Sequence created for the {@code single} runs */
+        static final String SEQUENCE = "bench_single_id";
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "BENCH_SINGLE_ID")
+        @SequenceGenerator(name = "BENCH_SINGLE_ID", sequenceName = SEQUENCE, allocationSize = 1)
+        @Column(name = "id", nullable = false)
+        private Long id;
+
+        @Column(name = "file_name", nullable = false)
+        private String fileName;
+
+        @Column(name = "bucket_name", nullable = false)
+        private String bucketName;
+
+        @Column(name = "file_size", nullable = false)
+        private Long fileSize;
+
+        @Column(name = "s3_key", nullable = false)
+        private String s3Key;
+
+        @Column(name = "uploaded_by")
+        private String uploadedBy;
+
+        @Column(name = "upload_date", nullable = false)
+        private LocalDateTime uploadedAt;
+
+        protected SingleIdFileMetadata() {
+        }
+
+        SingleIdFileMetadata(String fileName, String bucketName, Long fileSize, String s3Key, String uploadedBy,
+                             LocalDateTime uploadedAt) {
+            this.fileName = fileName;
+            this.bucketName = bucketName;
+            this.fileSize = fileSize;
+            this.s3Key = s3Key;
+            this.uploadedBy = uploadedBy;
+            this.uploadedAt = uploadedAt;
+        }
+    }
+
+    /**
+     * Repository of {@link SingleIdFileMetadata}.
+     */
+    public interface SingleIdFileMetadataRepository extends JpaRepository<SingleIdFileMetadata, Long> {
+    }
+}
@@ -0,0 +1,167 @@
+package com.securefilestorage.benchmark;
+
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.config.ConnectionLimitingDataSource;
+import com.securefilestorage.config.ExecutorConfig;
+import com.securefilestorage.config.StorageProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency percentiles of the blocking upload request path on Tomcat's default
+ * platform-thread pool versus virtual threads.
+ * <p>
+ * Each JMH thread is a client that sends one request at a time to the "server" executor and
+ * waits for the answer. The request runs on the components the application builds for the
+ * selected mode: the upload is handed to the batch upload executor of {@link ExecutorConfig},
+ * where it blocks for {@code awsMillis} (the synchronous S3/KMS calls), and the metadata row is
+ * inserted into an in-memory H2 database through a Hikari pool of {@code poolSize} connections,
+ * wrapped in {@link ConnectionLimitingDataSource} in virtual-thread mode as {@code DataSourceConfig}
+ * does. The connection is held for another {@code dbMicros} to stand in for the network round trip
+ * to PostgreSQL. Run with {@code -PjmhIncludes=RequestThreadingBenchmark}; the throughput run gives
+ * requests per second, the sample-time run gives p50/p99 latency.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(1000)
+public class RequestThreadingBenchmark {
+
+    /** Tomcat's default {@code server.tomcat.threads.max} */
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    /** {@code spring.datasource.hikari.connection-timeout} of application.yml */
+    private static final long CONNECTION_TIMEOUT_MS = 30_000;
+
+    private static final String INSERT = """
+            INSERT INTO bench_request (id, file_name, file_size, uploaded_by)
+            VALUES (?, ?, ?, ?)""";
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"20"})
+    public long awsMillis;
+
+    @Param({"200"})
+    public long dbMicros;
+
+    @Param({"10"})
+    public int poolSize;
+
+    private ExecutorService server;
+
+    private ExecutorService batchUploadExecutor;
+
+    private HikariDataSource pool;
+
+    private DataSource dataSource;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        boolean virtual = "virtual".equals(threads);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", String.valueOf(virtual));
+        batchUploadExecutor = new ExecutorConfig(new AwsProperties(), new StorageProperties(), environment)
+                .batchUploadExecutor();
+
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:bench_request;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(poolSize);
+        pool.setConnectionTimeout(CONNECTION_TIMEOUT_MS);
+        dataSource = virtual ? new ConnectionLimitingDataSource(pool, poolSize, CONNECTION_TIMEOUT_MS) : pool;
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS bench_request
+                    (
+                        id          BIGINT       NOT NULL PRIMARY KEY,
+                        file_name   VARCHAR(255) NOT NULL,
+                        file_size   BIGINT       NOT NULL,
+                        uploaded_by VARCHAR(255)
+                    )""");
+        }
+
+        server = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE bench_request");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws SQLException {
+        server.shutdownNow();
+        batchUploadExecutor.shutdownNow();
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE bench_request");
+        }
+        pool.close();
+    }
+
+    @Benchmark
+    public Object request() throws InterruptedException, ExecutionException {
+        return server.submit(this::handle).get();
+    }
+
+    private Object handle() throws InterruptedException, ExecutionException, SQLException {
+        long id = ids.incrementAndGet();
+        batchUploadExecutor.submit(() -> {
+            Thread.sleep(awsMillis);
+            return id;
+        }).get();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            insert.setLong(1, id);
+            insert.setString(2, "file-" + id + ".bin");
+            insert.setLong(3, 1024L * (id % 4096));
+            insert.setString(4, "bench");
+            insert.executeUpdate();
+            Thread.sleep(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(dbMicros)));
+        }
+        return Boolean.TRUE;
+    }
+}
@@ -0,0 +1,93 @@
+package com.securefilestorage.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securefilestorage.config.JacksonConfig;
+import com.securefilestorage.controller.UserController;
+import com.securefilestorage.dto.UserResponseDto;
+import com.securefilestorage.model.User;
+import com.securefilestorage.repository.UserRepository;
+import com.securefilestorage.security.CredentialCache;
+import com.securefilestorage.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@code GET /api/users/{login}} response path without the database: the controller's
+ * entity-to-DTO mapping, and the mapping followed by JSON serialization with the application's
+ * {@link ObjectMapper}.
+ * <p>
+ * The repository is an in-memory stub returning one fixed user. Run with
+ * {@code -PjmhIncludes=UserMappingBenchmark}; scores are nanoseconds per request.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private static final String LOGIN = "benchmark-user";
+
+    private UserController userController;
+
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setLogin(LOGIN);
+        user.setEmail("benchmark-user@example.com");
+        user.setName("Benchmark User");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z2/sx4y6ZJ7V2iFLP6L7aWqK");
+        user.setCreatedAt(ZonedDateTime.of(2025, 2, 20, 12, 0, 0, 0, ZoneOffset.UTC));
+
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if ("findByLogin".equals(method.getName())) {
+                        return LOGIN.equals(args[0]) ? Optional.of(user) : Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        CredentialCache credentialCache = new CredentialCache(false, Duration.ofSeconds(60), Duration.ofMinutes(5),
+                1, new SimpleMeterRegistry());
+        userController = new UserController(new UserService(userRepository, new BCryptPasswordEncoder(), credentialCache));
+        objectMapper = new JacksonConfig().objectMapper();
+    }
+
+    @Benchmark
+    public ResponseEntity<UserResponseDto> mapToDto() {
+        return userController.getUserByUsername(LOGIN);
+    }
+
+    @Benchmark
+    public String mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(userController.getUserByUsername(LOGIN).getBody());
+    }
+}
@@ -0,0 +1,135 @@
+package com.securefilestorage.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securefilestorage.config.AwsProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * In-process stand-ins for S3, KMS, SSM and Secrets Manager, registered as primary beans so that
+ * the application uses them in place of the real clients from {@code AwsConfig}. The real clients
+ * are still created but never called.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Configuration
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class FakeAwsConfig {
+
+    /** Key id handed out by the fake Parameter Store; the fake KMS accepts any key id */
+    static final String KMS_KEY_ID = "alias/load-test";
+
+    @Bean(destroyMethod = "close")
+    public FakeS3Store fakeS3Store(LoadTestProperties properties) throws IOException {
+        String storageDir = properties.getFakes().getStorageDir();
+        return new FakeS3Store(storageDir == null ? null : Path.of(storageDir));
+    }
+
+    @Bean
+    @Primary
+    public S3Client fakeS3Client(FakeS3Store store, LoadTestProperties properties) {
+        return new FakeS3Client(store, properties.getFakes().getS3Latency());
+    }
+
+    @Bean
+    @Primary
+    public S3AsyncClient fakeS3AsyncClient(FakeS3Store store, LoadTestProperties properties) {
+        return new FakeS3AsyncClient(store, properties.getFakes().getS3Latency());
+    }
+
+    @Bean
+    @Primary
+    public KmsClient fakeKmsClient(LoadTestProperties properties) {
+        return new FakeKmsClient(properties.getFakes().getKmsLatency());
+    }
+
+    @Bean
+    @Primary
+    public SsmClient fakeSsmClient() {
+        return new SsmClient() {
+
+            @Override
+            public GetParameterResponse getParameter(GetParameterRequest getParameterRequest) {
+                return GetParameterResponse.builder()
+                        .parameter(Parameter.builder().name(getParameterRequest.name()).value(KMS_KEY_ID).build())
+                        .build();
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Serves the database secret from {@code loadtest.db} and dummy AWS credentials.
+     */
+    @Bean
+    @Primary
+    public SecretsManagerClient fakeSecretsManagerClient(LoadTestProperties properties, AwsProperties awsProperties)
+            throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        LoadTestProperties.Db db = properties.getDb();
+        Map<String, String> secrets = Map.of(
+                awsProperties.getS3().getDbSecretName(), objectMapper.writeValueAsString(Map.of(
+                        "host", db.getHost(),
+                        "port", db.getPort(),
+                        "dbname", db.getDbname(),
+                        "username", db.getUsername(),
+                        "password", db.getPassword())),
+                awsProperties.getS3().getAwsSecretName(), objectMapper.writeValueAsString(Map.of(
+                        "AWS_ACCESS_KEY_ID", "load-test",
+                        "AWS_SECRET_ACCESS_KEY", "load-test")));
+        return new SecretsManagerClient() {
+
+            @Override
+            public GetSecretValueResponse getSecretValue(GetSecretValueRequest getSecretValueRequest) {
+                String secret = secrets.get(getSecretValueRequest.secretId());
+                if (secret == null) {
+                    throw ResourceNotFoundException.builder()
+                            .statusCode(400)
+                            .message("Secrets Manager can't find the specified secret.")
+                            .build();
+                }
+                return GetSecretValueResponse.builder()
+                        .name(getSecretValueRequest.secretId())
+                        .secretString(secret)
+                        .build();
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.securefilestorage.loadtest;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DataKeySpec;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyResponse;
+import software.amazon.awssdk.services.kms.model.InvalidCiphertextException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * KMS client that wraps data keys with AES-GCM under a master key generated per process.
+ * Implements {@code GenerateDataKey} and {@code Decrypt}; all other operations fail with
+ * {@link UnsupportedOperationException}. Keys wrapped by one run cannot be unwrapped by the next.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class FakeKmsClient implements KmsClient {
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey masterKey;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Duration latency;
+
+    public FakeKmsClient(Duration latency) {
+        this.latency = latency;
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256, random);
+            this.masterKey = generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available.", e);
+        }
+    }
+
+    @Override
+    public GenerateDataKeyResponse generateDataKey(GenerateDataKeyRequest generateDataKeyRequest) {
+        SimulatedLatency.pause(latency);
+        int length = generateDataKeyRequest.keySpec() == DataKeySpec.AES_128 ? 16 : 32;
+        byte[] plaintext = new byte[length];
+        random.nextBytes(plaintext);
+        try {
+            return GenerateDataKeyResponse.builder()
+                    .keyId(generateDataKeyRequest.keyId())
+                    .plaintext(SdkBytes.fromByteArray(plaintext))
+                    .ciphertextBlob(SdkBytes.fromByteArray(wrap(plaintext)))
+                    .build();
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+        }
+    }
+
+    @Override
+    public DecryptResponse decrypt(DecryptRequest decryptRequest) {
+        SimulatedLatency.pause(latency);
+        byte[] plaintext = unwrap(decryptRequest.ciphertextBlob().asByteArray());
+        try {
+            return DecryptResponse.builder()
+                    .keyId(decryptRequest.keyId())
+                    .plaintext(SdkBytes.fromByteArray(plaintext))
+                    .build();
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+        }
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private byte[] wrap(byte[] plaintext) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(IV_LENGTH + sealed.length).put(iv).put(sealed).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to wrap a data key.", e);
+        }
+    }
+
+    private byte[] unwrap(byte[] blob) {
+        try {
+            if (blob.length <= IV_LENGTH) {
+                throw new AEADBadTagException("Ciphertext too short.");
+            }
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, blob, 0, IV_LENGTH));
+            return cipher.doFinal(blob, IV_LENGTH, blob.length - IV_LENGTH);
+        } catch (AEADBadTagException e) {
+            String message = "The ciphertext was not wrapped by this fake KMS instance.";
+            throw (InvalidCiphertextException) InvalidCiphertextException.builder()
+                    .statusCode(400)
+                    .message(message)
+                    .awsErrorDetails(AwsErrorDetails.builder().serviceName("KMS").errorCode("InvalidCiphertextException")
+                            .errorMessage(message).build())
+                    .build();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to unwrap a data key.", e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.securefilestorage.loadtest;
+
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous S3 client backed by a {@link FakeS3Store}. Implements the operations the application
+ * uses for multipart uploads and parallel ranged downloads; requests run on virtual threads, as
+ * the SDK would complete them on its event loop. All other operations fail with
+ * {@link UnsupportedOperationException}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class FakeS3AsyncClient implements S3AsyncClient {
+
+    private final FakeS3Store store;
+
+    private final Duration latency;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public FakeS3AsyncClient(FakeS3Store store, Duration latency) {
+        this.store = store;
+        this.latency = latency;
+    }
+
+    @Override
+    public CompletableFuture<PutObjectResponse> putObject(PutObjectRequest putObjectRequest,
+                                                          AsyncRequestBody requestBody) {
+        return async(() -> store.put(putObjectRequest.key(), requestBody))
+                .thenCompose(etag -> etag)
+                .thenApply(etag -> PutObjectResponse.builder().eTag(etag).build());
+    }
+
+    @Override
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUpload(
+            CreateMultipartUploadRequest createMultipartUploadRequest) {
+        return async(() -> CreateMultipartUploadResponse.builder()
+                .bucket(createMultipartUploadRequest.bucket())
+                .key(createMultipartUploadRequest.key())
+                .uploadId(store.createUpload())
+                .build());
+    }
+
+    @Override
+    public CompletableFuture<UploadPartResponse> uploadPart(UploadPartRequest uploadPartRequest,
+                                                            AsyncRequestBody requestBody) {
+        return async(() -> store.putPart(uploadPartRequest.uploadId(), uploadPartRequest.partNumber(), requestBody))
+                .thenCompose(etag -> etag)
+                .thenApply(etag -> UploadPartResponse.builder().eTag(etag).build());
+    }
+
+    @Override
+    public CompletableFuture<CompleteMultipartUploadResponse> completeMultipartUpload(
+            CompleteMultipartUploadRequest completeMultipartUploadRequest) {
+        return async(() -> CompleteMultipartUploadResponse.builder()
+                .bucket(completeMultipartUploadRequest.bucket())
+                .key(completeMultipartUploadRequest.key())
+                .eTag(store.completeUpload(completeMultipartUploadRequest.uploadId(),
+                        completeMultipartUploadRequest.key(),
+                        completeMultipartUploadRequest.multipartUpload().parts().stream()
+                                .map(CompletedPart::partNumber)
+                                .toList()))
+                .build());
+    }
+
+    @Override
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUpload(
+            AbortMultipartUploadRequest abortMultipartUploadRequest) {
+        return async(() -> {
+            store.abortUpload(abortMultipartUploadRequest.uploadId());
+            return AbortMultipartUploadResponse.builder().build();
+        });
+    }
+
+    /**
+     * Reads the (range of the) object before handing it to the transformer in one buffer;
+     * the application only fetches bounded windows this way.
+     */
+    @Override
+    public <ReturnT> CompletableFuture<ReturnT> getObject(GetObjectRequest getObjectRequest,
+                                                          AsyncResponseTransformer<GetObjectResponse, ReturnT> asyncResponseTransformer) {
+        return async(() -> {
+            FakeS3Store.StoredObject object = store.open(getObjectRequest.key(), getObjectRequest.range());
+            try (InputStream content = object.content()) {
+                return new LoadedObject(object.response(), content.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).thenCompose(loaded -> {
+            CompletableFuture<ReturnT> result = asyncResponseTransformer.prepare();
+            asyncResponseTransformer.onResponse(loaded.response());
+            asyncResponseTransformer.onStream(AsyncRequestBody.fromByteBufferUnsafe(ByteBuffer.wrap(loaded.content())));
+            return result;
+        });
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(() -> {
+            SimulatedLatency.pause(latency);
+            return request.get();
+        }, executor);
+    }
+
+    private record LoadedObject(GetObjectResponse response, byte[] content) {
+    }
+}
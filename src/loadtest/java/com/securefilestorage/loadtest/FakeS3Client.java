@@ -0,0 +1,99 @@
+package com.securefilestorage.loadtest;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synchronous S3 client backed by a {@link FakeS3Store}. Implements the operations the application
+ * uses for downloads, HEAD requests and deletes; all others fail with {@link UnsupportedOperationException}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class FakeS3Client implements S3Client {
+
+    private final FakeS3Store store;
+
+    private final Duration latency;
+
+    public FakeS3Client(FakeS3Store store, Duration latency) {
+        this.store = store;
+        this.latency = latency;
+    }
+
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest getObjectRequest,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+        SimulatedLatency.pause(latency);
+        FakeS3Store.StoredObject object = store.open(getObjectRequest.key(), getObjectRequest.range());
+        try {
+            return responseTransformer.transform(object.response(), AbortableInputStream.create(object.content()));
+        } catch (RuntimeException e) {
+            closeQuietly(object);
+            throw e;
+        } catch (Exception e) {
+            closeQuietly(object);
+            throw SdkClientException.create("Failed to transform the response of " + getObjectRequest.key(), e);
+        }
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest headObjectRequest) {
+        SimulatedLatency.pause(latency);
+        return store.head(headObjectRequest.key());
+    }
+
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest deleteObjectRequest) {
+        SimulatedLatency.pause(latency);
+        store.delete(deleteObjectRequest.key());
+        return DeleteObjectResponse.builder().build();
+    }
+
+    @Override
+    public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest deleteObjectsRequest) {
+        SimulatedLatency.pause(latency);
+        List<DeletedObject> deleted = new ArrayList<>();
+        for (ObjectIdentifier object : deleteObjectsRequest.delete().objects()) {
+            store.delete(object.key());
+            deleted.add(DeletedObject.builder().key(object.key()).build());
+        }
+        boolean quiet = Boolean.TRUE.equals(deleteObjectsRequest.delete().quiet());
+        return DeleteObjectsResponse.builder().deleted(quiet ? List.of() : deleted).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static void closeQuietly(FakeS3Store.StoredObject object) {
+        try {
+            object.content().close();
+        } catch (IOException ignored) {
+            // The transformer failure is what gets reported
+        }
+    }
+}
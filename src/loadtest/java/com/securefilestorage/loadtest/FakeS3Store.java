@@ -0,0 +1,364 @@
+package com.securefilestorage.loadtest;
+
+import com.securefilestorage.storage.BoundedInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Bucket of the fake S3 clients, kept on disk so that stored objects do not count against the
+ * application heap that the load harness measures.
+ * <p>
+ * Objects are written to a temporary file and renamed into place, so readers never see a partial
+ * object. Multipart uploads keep one file per part until they are completed or aborted.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+public class FakeS3Store implements Closeable {
+
+    private final Path root;
+
+    private final Path objects;
+
+    private final Path uploads;
+
+    private final boolean temporary;
+
+    /**
+     * Creates the store.
+     *
+     * @param root directory of the bucket, or {@code null} for a temporary directory that is deleted on close.
+     */
+    public FakeS3Store(Path root) throws IOException {
+        this.temporary = root == null;
+        this.root = temporary ? Files.createTempDirectory("fake-s3-") : root;
+        this.objects = Files.createDirectories(this.root.resolve("objects"));
+        this.uploads = Files.createDirectories(this.root.resolve("uploads"));
+        log.info("Fake S3 bucket stored in {}", this.root);
+    }
+
+    /**
+     * Stores an object from a request body.
+     *
+     * @param key  the object key.
+     * @param body the object content.
+     * @return the ETag once the object is stored.
+     */
+    public CompletableFuture<String> put(String key, Publisher<ByteBuffer> body) {
+        Path staging = uploads.resolve(UUID.randomUUID() + ".put");
+        return write(staging, body).thenApply(length -> {
+            moveIntoPlace(staging, key);
+            return etag(key);
+        });
+    }
+
+    /**
+     * Starts a multipart upload.
+     *
+     * @return the upload id.
+     */
+    public String createUpload() {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectory(uploads.resolve(uploadId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return uploadId;
+    }
+
+    /**
+     * Stores one part of a multipart upload.
+     *
+     * @param uploadId   the upload.
+     * @param partNumber the part number.
+     * @param body       the part content.
+     * @return the part ETag once the part is stored.
+     */
+    public CompletableFuture<String> putPart(String uploadId, int partNumber, Publisher<ByteBuffer> body) {
+        Path upload = upload(uploadId);
+        return write(upload.resolve(Integer.toString(partNumber)), body)
+                .thenApply(length -> "\"" + uploadId + "-" + partNumber + "\"");
+    }
+
+    /**
+     * Concatenates the listed parts into the object and removes the upload.
+     *
+     * @param uploadId    the upload.
+     * @param key         the object key.
+     * @param partNumbers the parts in object order.
+     * @return the object ETag.
+     */
+    public String completeUpload(String uploadId, String key, List<Integer> partNumbers) {
+        Path upload = upload(uploadId);
+        Path staging = uploads.resolve(uploadId + ".complete");
+        try (FileChannel target = FileChannel.open(staging, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (int partNumber : partNumbers) {
+                try (FileChannel part = FileChannel.open(upload.resolve(Integer.toString(partNumber)))) {
+                    long position = 0;
+                    long size = part.size();
+                    while (position < size) {
+                        position += part.transferTo(position, size - position, target);
+                    }
+                }
+            }
+        } catch (NoSuchFileException e) {
+            throw s3Error(S3Exception.builder(), 400, "InvalidPart", "Part not uploaded: " + e.getFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        moveIntoPlace(staging, key);
+        abortUpload(uploadId);
+        return etag(key);
+    }
+
+    /**
+     * Discards a multipart upload and its parts.
+     *
+     * @param uploadId the upload.
+     */
+    public void abortUpload(String uploadId) {
+        deleteRecursively(uploads.resolve(uploadId));
+    }
+
+    /**
+     * Opens an object or a byte range of it.
+     *
+     * @param key   the object key.
+     * @param range {@code bytes=first-last} or {@code bytes=first-}, or {@code null} for the whole object.
+     * @return the response headers with the content.
+     */
+    public StoredObject open(String key, String range) {
+        Path file = objects.resolve(fileName(key));
+        try {
+            long length = Files.size(file);
+            long first = 0;
+            long last = length - 1;
+            if (range != null) {
+                String[] bounds = range.substring("bytes=".length()).split("-", -1);
+                first = Long.parseLong(bounds[0]);
+                last = bounds[1].isEmpty() ? length - 1 : Math.min(Long.parseLong(bounds[1]), length - 1);
+                if (first >= length) {
+                    throw s3Error(S3Exception.builder(), 416, "InvalidRange", "The requested range is not satisfiable");
+                }
+            }
+            InputStream content = Files.newInputStream(file);
+            content.skipNBytes(first);
+            GetObjectResponse.Builder response = GetObjectResponse.builder()
+                    .contentLength(last - first + 1)
+                    .contentType("application/octet-stream")
+                    .eTag(etag(key));
+            if (range != null) {
+                response.contentRange("bytes " + first + "-" + last + "/" + length);
+            }
+            return new StoredObject(response.build(), new BoundedInputStream(content, last - first + 1));
+        } catch (NoSuchFileException e) {
+            throw s3Error(NoSuchKeyException.builder(), 404, "NoSuchKey", "The specified key does not exist.");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the headers of an object.
+     *
+     * @param key the object key.
+     * @return the length and ETag.
+     */
+    public HeadObjectResponse head(String key) {
+        Path file = objects.resolve(fileName(key));
+        try {
+            return HeadObjectResponse.builder()
+                    .contentLength(Files.size(file))
+                    .eTag(etag(key))
+                    .build();
+        } catch (NoSuchFileException e) {
+            throw s3Error(NoSuchKeyException.builder(), 404, "NoSuchKey", "The specified key does not exist.");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes an object; deleting a missing object succeeds, as in S3.
+     *
+     * @param key the object key.
+     */
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(objects.resolve(fileName(key)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (temporary) {
+            deleteRecursively(root);
+        }
+    }
+
+    private Path upload(String uploadId) {
+        Path upload = uploads.resolve(uploadId);
+        if (!Files.isDirectory(upload)) {
+            throw s3Error(NoSuchUploadException.builder(), 404, "NoSuchUpload", "The specified upload does not exist.");
+        }
+        return upload;
+    }
+
+    private void moveIntoPlace(Path staging, String key) {
+        try {
+            Files.move(staging, objects.resolve(fileName(key)),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String etag(String key) {
+        Path file = objects.resolve(fileName(key));
+        try {
+            return "\"" + Long.toHexString(Files.size(file)) + "-"
+                    + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Keys may contain characters that are not valid in file names.
+     */
+    private static String fileName(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Drains a request body into a file.
+     */
+    private static CompletableFuture<Long> write(Path target, Publisher<ByteBuffer> body) {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Long> written = new CompletableFuture<>();
+        body.subscribe(new Subscriber<>() {
+
+            private long length;
+
+            private IOException failure;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer buffer) {
+                if (failure != null) {
+                    return;
+                }
+                try {
+                    while (buffer.hasRemaining()) {
+                        length += channel.write(buffer);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                closeQuietly();
+                written.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                closeQuietly();
+                if (failure != null) {
+                    written.completeExceptionally(failure);
+                } else {
+                    written.complete(length);
+                }
+            }
+
+            private void closeQuietly() {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        });
+        return written;
+    }
+
+    private static S3Exception s3Error(S3Exception.Builder builder, int status, String code, String message) {
+        return (S3Exception) builder
+                .statusCode(status)
+                .message(message)
+                .awsErrorDetails(AwsErrorDetails.builder().serviceName("S3").errorCode(code).errorMessage(message).build())
+                .build();
+    }
+
+    private static void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}", file, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", directory, e);
+        }
+    }
+
+    /**
+     * An opened object: response headers and the (range of the) content.
+     *
+     * @param response the response headers.
+     * @param content  the content; the caller closes it.
+     */
+    public record StoredObject(GetObjectResponse response, InputStream content) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.securefilestorage.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap, allocation, GC and CPU usage of this JVM over the measured part of a load run.
+ * The harness client runs in the same JVM, so its share is included.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+final class JvmMonitor implements AutoCloseable {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(100);
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-test-heap-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong peakHeapUsed = new AtomicLong();
+
+    private Snapshot start;
+
+    /**
+     * Starts measuring; GC and allocation counters are taken relative to this point.
+     */
+    void start() {
+        peakHeapUsed.set(0);
+        start = snapshot();
+        sampler.scheduleAtFixedRate(() -> peakHeapUsed.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops measuring.
+     *
+     * @return usage since {@link #start()}.
+     */
+    Usage stop() {
+        sampler.shutdownNow();
+        Snapshot end = snapshot();
+        double seconds = (end.nanos() - start.nanos()) / 1e9;
+
+        Map<String, Collector> collectors = new LinkedHashMap<>();
+        end.collectors().forEach((name, counts) -> {
+            Collector before = start.collectors().getOrDefault(name, new Collector(0, 0));
+            collectors.put(name, new Collector(counts.collections() - before.collections(),
+                    counts.timeMillis() - before.timeMillis()));
+        });
+        long gcMillis = collectors.values().stream().mapToLong(Collector::timeMillis).sum();
+
+        // Usage after the last collection of each heap pool approximates the live set.
+        long liveAfterGc = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .map(MemoryPoolMXBean::getCollectionUsage)
+                .filter(usage -> usage != null)
+                .mapToLong(MemoryUsage::getUsed)
+                .sum();
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+
+        return new Usage(heap.getMax(), heap.getCommitted(), peakHeapUsed.get(), liveAfterGc,
+                (end.allocatedBytes() - start.allocatedBytes()) / seconds,
+                gcMillis / (seconds * 1000),
+                (end.cpuNanos() - start.cpuNanos()) / (seconds * 1e9 * os.getAvailableProcessors()),
+                collectors);
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+
+    private Snapshot snapshot() {
+        Map<String, Collector> collectors = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectors.put(gc.getName(), new Collector(gc.getCollectionCount(), gc.getCollectionTime()));
+        }
+        return new Snapshot(System.nanoTime(), threads.getTotalThreadAllocatedBytes(), os.getProcessCpuTime(),
+                collectors);
+    }
+
+    private record Snapshot(long nanos, long allocatedBytes, long cpuNanos, Map<String, Collector> collectors) {
+    }
+
+    /**
+     * Collections and accumulated collection time of one garbage collector.
+     *
+     * @param collections number of collections.
+     * @param timeMillis  accumulated collection time.
+     */
+    record Collector(long collections, long timeMillis) {
+    }
+
+    /**
+     * JVM usage over the measured interval.
+     *
+     * @param heapMaxBytes         maximum heap size.
+     * @param heapCommittedBytes   committed heap at the end.
+     * @param heapPeakUsedBytes    highest sampled heap use, garbage included.
+     * @param liveAfterGcBytes     heap in use after the last collection of each pool.
+     * @param allocationRate       bytes allocated per second by all threads.
+     * @param gcTimeFraction       share of wall-clock time spent in collections.
+     * @param cpuLoad              process CPU time over the available CPU time.
+     * @param collectors           collections and time per collector.
+     */
+    record Usage(long heapMaxBytes, long heapCommittedBytes, long heapPeakUsedBytes, long liveAfterGcBytes,
+                 double allocationRate, double gcTimeFraction, double cpuLoad, Map<String, Collector> collectors) {
+    }
+}
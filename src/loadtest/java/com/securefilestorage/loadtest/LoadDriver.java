@@ -0,0 +1,342 @@
+package com.securefilestorage.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop workload against the running application: {@code concurrency} clients each issue
+ * uploads, downloads and deletes back to back, chosen at random by the configured ratios.
+ * <p>
+ * Uploads draw their size from the weighted size classes and start with a unique prefix so that
+ * no two uploads have the same content. Downloads read back the whole file and fail if the length
+ * differs. Statistics recorded during the warm-up are discarded.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+public class LoadDriver {
+
+    /** Latencies up to ten minutes, in microseconds, with three significant digits */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final int UNIQUE_PREFIX = 16;
+
+    /**
+     * Request types of the workload.
+     */
+    public enum Operation {
+        UPLOAD, DOWNLOAD, DELETE
+    }
+
+    private final LoadTestProperties properties;
+
+    private final URI baseUri;
+
+    private final String authorization;
+
+    private final HttpClient httpClient;
+
+    private final List<SizeClass> sizeClasses;
+
+    private final int totalWeight;
+
+    private final byte[] payload;
+
+    private final StoredFiles files = new StoredFiles();
+
+    private final AtomicLong uploadCount = new AtomicLong();
+
+    private volatile Map<Operation, OperationStats> statistics = newStatistics();
+
+    /**
+     * Creates the driver.
+     *
+     * @param properties    workload settings.
+     * @param baseUri       address of the application.
+     * @param authorization {@code Authorization} header sent with every request.
+     */
+    public LoadDriver(LoadTestProperties properties, URI baseUri, String authorization) {
+        this.properties = properties;
+        this.baseUri = baseUri;
+        this.authorization = authorization;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.sizeClasses = SizeClass.parse(properties.getFileSizes());
+        this.totalWeight = sizeClasses.stream().mapToInt(SizeClass::weight).sum();
+        long largest = sizeClasses.stream().mapToLong(SizeClass::bytes).max().orElseThrow();
+        if (largest > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("File sizes above 2 GB are not supported: " + properties.getFileSizes());
+        }
+        this.payload = new byte[(int) largest];
+        new Random(42L).nextBytes(payload);
+    }
+
+    /**
+     * Uploads the seed files, runs the warm-up and the measured interval.
+     *
+     * @return the measured statistics with the JVM usage over the same interval.
+     */
+    public LoadReport run() throws InterruptedException {
+        int concurrency = properties.getConcurrency();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "load-test-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (JvmMonitor jvm = new JvmMonitor()) {
+            log.info("Uploading {} seed files.", properties.getSeedFiles());
+            for (int i = 0; i < properties.getSeedFiles(); i++) {
+                clients.execute(() -> execute(Operation.UPLOAD, ThreadLocalRandom.current()));
+            }
+
+            long warmupNanos = properties.getWarmup().toNanos();
+            long deadline = System.nanoTime() + warmupNanos + properties.getDuration().toNanos();
+            log.info("Running {} clients: {} warm-up, {} measured.", concurrency, properties.getWarmup(),
+                    properties.getDuration());
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(() -> work(deadline));
+            }
+
+            TimeUnit.NANOSECONDS.sleep(warmupNanos);
+            statistics = newStatistics();
+            jvm.start();
+            long measureStart = System.nanoTime();
+
+            clients.shutdown();
+            if (!clients.awaitTermination(properties.getDuration().toSeconds() + MAX_LATENCY_MICROS / 1_000_000,
+                    TimeUnit.SECONDS)) {
+                log.warn("Requests still running after the measured interval; reporting without them.");
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - measureStart);
+            return new LoadReport(properties, elapsed, statistics, jvm.stop());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void work(long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            double draw = random.nextDouble();
+            if (draw < properties.getDeleteRatio()) {
+                execute(Operation.DELETE, random);
+            } else if (draw < properties.getDeleteRatio() + properties.getReadRatio()) {
+                execute(Operation.DOWNLOAD, random);
+            } else {
+                execute(Operation.UPLOAD, random);
+            }
+        }
+    }
+
+    /**
+     * Runs one request and records its latency, or its failure. Reads and deletes fall back to
+     * an upload while no file is stored.
+     */
+    private void execute(Operation operation, Random random) {
+        StoredFile file = switch (operation) {
+            case DOWNLOAD -> files.pick(random);
+            case DELETE -> files.take(random);
+            case UPLOAD -> null;
+        };
+        if (file == null) {
+            operation = Operation.UPLOAD;
+        }
+        OperationStats stats = statistics.get(operation);
+        long start = System.nanoTime();
+        try {
+            long bytes = switch (operation) {
+                case UPLOAD -> upload(random);
+                case DOWNLOAD -> download(file);
+                case DELETE -> delete(file);
+            };
+            stats.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+                    MAX_LATENCY_MICROS));
+            stats.bytes.add(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            stats.errors.increment();
+            stats.lastError.set(e.toString());
+            log.debug("{} failed.", operation, e);
+        }
+    }
+
+    private long upload(Random random) throws IOException, InterruptedException {
+        long number = uploadCount.incrementAndGet();
+        int size = (int) pickSize(random);
+        int prefix = Math.min(UNIQUE_PREFIX, size);
+        byte[] unique = ByteBuffer.allocate(UNIQUE_PREFIX).putLong(number).putLong(random.nextLong()).array();
+        String boundary = "load-test-boundary-" + number;
+        String partHeader = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load-" + number + ".bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+
+        HttpResponse<String> response = httpClient.send(request("/api/files/upload")
+                        .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                        .POST(HttpRequest.BodyPublishers.concat(
+                                HttpRequest.BodyPublishers.ofString(partHeader),
+                                HttpRequest.BodyPublishers.ofByteArray(unique, 0, prefix),
+                                HttpRequest.BodyPublishers.ofByteArray(payload, 0, size - prefix),
+                                HttpRequest.BodyPublishers.ofString("\r\n--" + boundary + "--\r\n")))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        expectStatus(response, 201);
+        // "File uploaded successfully with name: <key>"
+        String body = response.body();
+        files.add(new StoredFile(body.substring(body.lastIndexOf(": ") + 2), size));
+        return size;
+    }
+
+    private long download(StoredFile file) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(request("/api/files/download/" + file.key()).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream content = response.body()) {
+            expectStatus(response, 200);
+            long length = content.transferTo(OutputStream.nullOutputStream());
+            if (length != file.size()) {
+                throw new IOException("Downloaded " + length + " of " + file.size() + " bytes of " + file.key());
+            }
+            return length;
+        }
+    }
+
+    private long delete(StoredFile file) throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(request("/api/files/delete/" + file.key()).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        expectStatus(response, 200);
+        return 0;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofMinutes(5));
+    }
+
+    private long pickSize(Random random) {
+        int draw = random.nextInt(totalWeight);
+        for (SizeClass sizeClass : sizeClasses) {
+            draw -= sizeClass.weight();
+            if (draw < 0) {
+                return sizeClass.bytes();
+            }
+        }
+        throw new IllegalStateException("No size class for draw " + draw);
+    }
+
+    private static void expectStatus(HttpResponse<?> response, int expected) throws IOException {
+        if (response.statusCode() != expected) {
+            throw new IOException(response.request().method() + " " + response.uri().getPath()
+                    + " returned HTTP " + response.statusCode());
+        }
+    }
+
+    private static Map<Operation, OperationStats> newStatistics() {
+        Map<Operation, OperationStats> statistics = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            statistics.put(operation, new OperationStats());
+        }
+        return statistics;
+    }
+
+    /**
+     * Latencies in microseconds, failures and transferred bytes of one request type.
+     */
+    public static final class OperationStats {
+
+        final Histogram latency = new ConcurrentHistogram(1, MAX_LATENCY_MICROS, 3);
+
+        final LongAdder errors = new LongAdder();
+
+        final LongAdder bytes = new LongAdder();
+
+        final AtomicReference<String> lastError = new AtomicReference<>();
+    }
+
+    /**
+     * An uploaded file size with its relative weight.
+     *
+     * @param bytes  file size.
+     * @param weight relative frequency.
+     */
+    record SizeClass(long bytes, int weight) {
+
+        /**
+         * Parses {@code size:weight} pairs such as {@code 64KB:60,1MB:30,16MB:10}.
+         */
+        static List<SizeClass> parse(String spec) {
+            List<SizeClass> sizeClasses = new ArrayList<>();
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split(":");
+                long bytes = DataSize.parse(parts[0].trim()).toBytes();
+                int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+                if (bytes <= 0 || weight <= 0) {
+                    throw new IllegalArgumentException("Invalid file size entry: " + entry);
+                }
+                sizeClasses.add(new SizeClass(bytes, weight));
+            }
+            if (sizeClasses.isEmpty()) {
+                throw new IllegalArgumentException("No file sizes configured.");
+            }
+            return sizeClasses;
+        }
+    }
+
+    private record StoredFile(String key, long size) {
+    }
+
+    /**
+     * Files uploaded and not yet deleted; a file taken for deletion is no longer picked for reads.
+     */
+    private static final class StoredFiles {
+
+        private final List<StoredFile> files = new ArrayList<>();
+
+        synchronized void add(StoredFile file) {
+            files.add(file);
+        }
+
+        synchronized StoredFile pick(Random random) {
+            return files.isEmpty() ? null : files.get(random.nextInt(files.size()));
+        }
+
+        synchronized StoredFile take(Random random) {
+            if (files.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(files.size());
+            StoredFile last = files.remove(files.size() - 1);
+            return index == files.size() ? last : files.set(index, last);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.securefilestorage.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of a load run: throughput, latency percentiles and errors per request type, and JVM
+ * heap, allocation, GC and CPU usage over the measured interval. Printed as a table and written
+ * as JSON.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final double MB = 1024 * 1024;
+
+    private final LoadTestProperties properties;
+
+    private final Duration elapsed;
+
+    private final Map<LoadDriver.Operation, LoadDriver.OperationStats> statistics;
+
+    private final JvmMonitor.Usage jvm;
+
+    LoadReport(LoadTestProperties properties, Duration elapsed,
+               Map<LoadDriver.Operation, LoadDriver.OperationStats> statistics, JvmMonitor.Usage jvm) {
+        this.properties = properties;
+        this.elapsed = elapsed;
+        this.statistics = statistics;
+        this.jvm = jvm;
+    }
+
+    /**
+     * Prints the report as a table.
+     *
+     * @param out the target.
+     */
+    public void print(PrintStream out) {
+        double seconds = seconds();
+        out.printf(Locale.ROOT, "%nLoad test: %d clients, %.1f s measured, read ratio %.2f, delete ratio %.2f, sizes %s%n",
+                properties.getConcurrency(), seconds, properties.getReadRatio(), properties.getDeleteRatio(),
+                properties.getFileSizes());
+        out.printf(Locale.ROOT, "%-9s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ops/s", "MB/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        statistics.forEach((operation, stats) -> {
+            Histogram latency = stats.latency;
+            out.printf(Locale.ROOT, "%-9s %9d %7d %9.1f %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name().toLowerCase(Locale.ROOT), latency.getTotalCount(), stats.errors.sum(),
+                    latency.getTotalCount() / seconds, stats.bytes.sum() / MB / seconds,
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                    millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()));
+            if (stats.lastError.get() != null) {
+                out.printf("          last error: %s%n", stats.lastError.get());
+            }
+        });
+        out.printf(Locale.ROOT, "Heap: max %.0f MB, committed %.0f MB, peak used %.0f MB, live after GC %.0f MB%n",
+                jvm.heapMaxBytes() / MB, jvm.heapCommittedBytes() / MB, jvm.heapPeakUsedBytes() / MB,
+                jvm.liveAfterGcBytes() / MB);
+        out.printf(Locale.ROOT, "Allocation %.0f MB/s, GC time %.2f%%, CPU %.1f%%%n",
+                jvm.allocationRate() / MB, jvm.gcTimeFraction() * 100, jvm.cpuLoad() * 100);
+        jvm.collectors().forEach((name, collector) -> out.printf("GC %s: %d collections, %d ms%n",
+                name, collector.collections(), collector.timeMillis()));
+    }
+
+    /**
+     * Writes the report as JSON, creating parent directories as needed.
+     *
+     * @param file the target.
+     */
+    public void write(Path file) throws IOException {
+        double seconds = seconds();
+        Map<String, Object> operations = new LinkedHashMap<>();
+        statistics.forEach((operation, stats) -> {
+            Histogram latency = stats.latency;
+            Map<String, Object> percentiles = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                percentiles.put("p" + String.valueOf(percentile).replace(".0", ""),
+                        millis(latency.getValueAtPercentile(percentile)));
+            }
+            percentiles.put("max", millis(latency.getMaxValue()));
+            percentiles.put("mean", latency.getMean() / 1000);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", latency.getTotalCount());
+            entry.put("errors", stats.errors.sum());
+            entry.put("opsPerSecond", latency.getTotalCount() / seconds);
+            entry.put("bytesPerSecond", stats.bytes.sum() / seconds);
+            entry.put("latencyMillis", percentiles);
+            entry.put("lastError", stats.lastError.get());
+            operations.put(operation.name().toLowerCase(Locale.ROOT), entry);
+        });
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("concurrency", properties.getConcurrency());
+        settings.put("warmupSeconds", properties.getWarmup().toSeconds());
+        settings.put("readRatio", properties.getReadRatio());
+        settings.put("deleteRatio", properties.getDeleteRatio());
+        settings.put("fileSizes", properties.getFileSizes());
+        settings.put("s3LatencyMillis", properties.getFakes().getS3Latency().toMillis());
+        settings.put("kmsLatencyMillis", properties.getFakes().getKmsLatency().toMillis());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("measuredSeconds", seconds);
+        report.put("operations", operations);
+        report.put("jvm", jvm);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private double seconds() {
+        return elapsed.toNanos() / 1e9;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
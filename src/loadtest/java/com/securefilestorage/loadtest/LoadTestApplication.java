@@ -0,0 +1,100 @@
+package com.securefilestorage.loadtest;
+
+import com.securefilestorage.SecureFileStorageApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * End-to-end load harness: boots the application on a random port with the AWS fakes from
+ * {@link FakeAwsConfig} and Postgres from {@code docker/postgres/docker-compose.yml}, runs the
+ * configured workload through the HTTP API and reports throughput, latency percentiles and JVM
+ * heap and GC usage.
+ * <p>
+ * Run with {@code ./gradlew loadTest}; settings are the {@code loadtest.*} properties of
+ * {@link LoadTestProperties}, e.g. {@code -Ploadtest.concurrency=32 -Ploadtest.read-ratio=0.9}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    /**
+     * Settings applied unless given as system properties. System properties take precedence over
+     * {@code application.yml}, which disables docker compose and logs every SQL statement.
+     */
+    private static final Map<String, String> OVERRIDES = new LinkedHashMap<>();
+
+    static {
+        OVERRIDES.put("server.port", "0");
+        OVERRIDES.put("spring.jpa.show-sql", "false");
+        OVERRIDES.put("logging.level.root", "WARN");
+        OVERRIDES.put("logging.level.com.securefilestorage.loadtest", "INFO");
+        OVERRIDES.put("spring.docker.compose.enabled", "${loadtest.docker-compose:true}");
+        OVERRIDES.put("spring.docker.compose.file", "docker/postgres/docker-compose.yml");
+        OVERRIDES.put("spring.docker.compose.lifecycle-management", "start-only");
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Command-line arguments, passed to the application
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        OVERRIDES.forEach((key, value) -> {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        });
+        if (System.getProperty("jwt.secret") == null) {
+            // HS512 needs a key of at least 64 bytes
+            byte[] secret = new byte[64];
+            new SecureRandom().nextBytes(secret);
+            System.setProperty("jwt.secret", Base64.getEncoder().encodeToString(secret));
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                SecureFileStorageApplication.class, FakeAwsConfig.class).run(args)) {
+            LoadTestProperties properties = context.getBean(LoadTestProperties.class);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI baseUri = URI.create("http://localhost:" + port);
+
+            LoadReport report = new LoadDriver(properties, baseUri, "Bearer " + login(baseUri)).run();
+            report.print(System.out);
+            Path reportFile = Path.of(properties.getReportFile());
+            report.write(reportFile);
+            log.info("Report written to {}", reportFile.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Obtains a token from the login endpoint.
+     */
+    private static String login(URI baseUri) throws IOException, InterruptedException {
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"password\"}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            return response.body();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.securefilestorage.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the load harness, bound from {@code loadtest.*} system properties
+ * ({@code ./gradlew loadTest -Ploadtest.concurrency=32}).
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    /**
+     * Measured run time after the warm-up.
+     */
+    private Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * Run time before measuring, to let JIT compilation, caches and pools settle.
+     */
+    private Duration warmup = Duration.ofSeconds(15);
+
+    /**
+     * Clients issuing requests back to back.
+     */
+    private int concurrency = 16;
+
+    /**
+     * Share of operations that download a stored file.
+     */
+    private double readRatio = 0.7;
+
+    /**
+     * Share of operations that delete a stored file; the rest are uploads.
+     */
+    private double deleteRatio = 0.05;
+
+    /**
+     * Uploaded file sizes with their relative weights, as {@code size:weight} pairs.
+     */
+    private String fileSizes = "64KB:60,1MB:30,16MB:10";
+
+    /**
+     * Files uploaded before the warm-up so that the first reads have something to fetch.
+     */
+    private int seedFiles = 32;
+
+    /**
+     * JSON report written after the run.
+     */
+    private String reportFile = "build/reports/loadtest/results.json";
+
+    /**
+     * Whether to start Postgres from {@code docker/postgres/docker-compose.yml}; disable when it already runs elsewhere.
+     */
+    private boolean dockerCompose = true;
+
+    private Fakes fakes = new Fakes();
+
+    private Db db = new Db();
+
+    @Getter
+    @Setter
+    public static class Fakes {
+
+        /**
+         * Added latency of every fake S3 request, to emulate the network round trip.
+         */
+        private Duration s3Latency = Duration.ZERO;
+
+        /**
+         * Added latency of every fake KMS request.
+         */
+        private Duration kmsLatency = Duration.ZERO;
+
+        /**
+         * Directory holding the fake bucket; a temporary directory, deleted on shutdown, if not set.
+         */
+        private String storageDir;
+
+    }
+
+    /**
+     * Database credentials returned by the fake Secrets Manager; the defaults match the docker compose setup.
+     */
+    @Getter
+    @Setter
+    public static class Db {
+
+        private String host = "localhost";
+
+        private String port = "5435";
+
+        private String dbname = "secure_db";
+
+        private String username = "admin";
+
+        private String password = "securepassword";
+
+    }
+}
@@ -0,0 +1,35 @@
+package com.securefilestorage.loadtest;
+
+import software.amazon.awssdk.core.exception.AbortedException;
+
+import java.time.Duration;
+
+/**
+ * Fixed delay added to every fake AWS request in place of the network round trip.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+final class SimulatedLatency {
+
+    private SimulatedLatency() {
+    }
+
+    /**
+     * Blocks the calling thread for {@code latency}; returns at once for zero.
+     *
+     * @param latency the delay.
+     */
+    static void pause(Duration latency) {
+        if (latency.isZero() || latency.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AbortedException.create("Interrupted during simulated request latency.", e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.securefilestorage.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Publishes the latency of every AWS API call as the Micrometer timer {@code aws.api.call},
+ * tagged with the service (e.g. {@code KMS}, {@code S3}), the operation (e.g. {@code GenerateDataKey},
+ * {@code UploadPart}, {@code GetObject}) and the outcome.
+ * <p>
+ * The outcome is {@code success} or the SDK's error type of the last attempt ({@code throttling},
+ * {@code server_error}, {@code configured_timeout}, {@code io}, {@code other}); {@code aws.api.retries}
+ * counts the retries. All tag values come from the SDK's fixed sets, so cardinality is bounded.
+ * For streaming GETs the timer ends when the response headers arrive.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class AwsApiCallMetricPublisher implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+
+    public AwsApiCallMetricPublisher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        String service = first(metricCollection.metricValues(CoreMetric.SERVICE_ID), "unknown");
+        String operation = first(metricCollection.metricValues(CoreMetric.OPERATION_NAME), "unknown");
+        Duration duration = first(metricCollection.metricValues(CoreMetric.API_CALL_DURATION), null);
+        if (duration == null) {
+            return;
+        }
+        Timer.builder("aws.api.call")
+                .description("Latency of AWS API calls including retries")
+                .tag("service", service)
+                .tag("operation", operation)
+                .tag("outcome", outcome(metricCollection))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(meterRegistry)
+                .record(duration);
+        int retries = first(metricCollection.metricValues(CoreMetric.RETRY_COUNT), 0);
+        if (retries > 0) {
+            meterRegistry.counter("aws.api.retries", "service", service, "operation", operation).increment(retries);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static String outcome(MetricCollection metricCollection) {
+        if (Boolean.TRUE.equals(first(metricCollection.metricValues(CoreMetric.API_CALL_SUCCESSFUL), false))) {
+            return "success";
+        }
+        String errorType = null;
+        for (MetricCollection attempt : metricCollection.children()) {
+            errorType = first(attempt.metricValues(CoreMetric.ERROR_TYPE), errorType);
+        }
+        // ServerError -> server_error
+        return errorType == null ? "other" : errorType.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+    private static <T> T first(List<T> values, T fallback) {
+        return values.isEmpty() ? fallback : values.get(0);
+    }
+}
@@ -6,13 +6,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.kms.KmsClient;
 import software.amazon.awssdk.services.ssm.SsmClient;
 
 /**
  * AWS clients configuration for S3, KMS, and Secrets Manager.
+ * HTTP connection pools are built by {@link AwsHttpClientFactory} from {@code aws.http}.
  *
  * @author Dzmitry Ivaniuta
  * @version 1.0
@@ -26,6 +29,9 @@ public class AwsConfig {
     /** AWS configuration properties */
     private final AwsProperties awsProperties;
 
+    /** Pooled HTTP clients shared by the AWS clients */
+    private final AwsHttpClientFactory httpClients;
+
     /**
      * Configures and provides an S3Client bean for interacting with Amazon S3.
      *
@@ -36,6 +42,29 @@ public class AwsConfig {
         return S3Client.builder()
                 .region(Region.of(awsProperties.getS3().getRegion()))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClient(httpClients.httpClient("s3"))
+                .overrideConfiguration(o -> o.addMetricPublisher(httpClients.metricPublisher("s3"))
+                        .addMetricPublisher(httpClients.apiCallMetricPublisher()))
+                .build();
+    }
+
+    /**
+     * Configures and provides an S3AsyncClient bean used to upload multipart parts concurrently.
+     * Retries apply to each request, i.e. to each part individually.
+     *
+     * @return a configured S3AsyncClient instance.
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        return S3AsyncClient.builder()
+                .region(Region.of(awsProperties.getS3().getRegion()))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClient(httpClients.asyncHttpClient())
+                .overrideConfiguration(o -> o.retryStrategy(AwsRetryStrategy.standardRetryStrategy().toBuilder()
+                                .maxAttempts(awsProperties.getUpload().getMaxAttempts())
+                                .build())
+                        .addMetricPublisher(httpClients.asyncMetricPublisher())
+                        .addMetricPublisher(httpClients.apiCallMetricPublisher()))
                 .build();
     }
 
@@ -50,6 +79,9 @@ public class AwsConfig {
         return KmsClient.builder()
                 .region(Region.of(awsProperties.getS3().getRegion()))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClient(httpClients.httpClient("kms"))
+                .overrideConfiguration(o -> o.addMetricPublisher(httpClients.metricPublisher("kms"))
+                        .addMetricPublisher(httpClients.apiCallMetricPublisher()))
                 .build();
     }
 
@@ -58,6 +90,9 @@ public class AwsConfig {
         return SsmClient.builder()
                 .region(Region.of(awsProperties.getS3().getRegion()))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClient(httpClients.httpClient("ssm"))
+                .overrideConfiguration(o -> o.addMetricPublisher(httpClients.metricPublisher("ssm"))
+                        .addMetricPublisher(httpClients.apiCallMetricPublisher()))
                 .build();
     }
 
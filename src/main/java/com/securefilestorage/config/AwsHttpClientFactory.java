@@ -0,0 +1,167 @@
+package com.securefilestorage.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the HTTP clients of the AWS SDK clients from {@code aws.http}.
+ * <p>
+ * Each named pool becomes one HTTP client instance, shared by every service mapped to it, so
+ * connections and TLS sessions are reused across those services. Clients passed to the SDK
+ * this way are not closed by it; they are closed here on shutdown.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+@Slf4j
+public class AwsHttpClientFactory {
+
+    /** Pool used by services without an explicit mapping */
+    public static final String DEFAULT_POOL = "default";
+
+    /** Pool name of the async S3 client in metrics */
+    private static final String ASYNC_POOL = "s3-async";
+
+    /** AWS configuration properties */
+    private final AwsProperties awsProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    /** HTTP client per pool name */
+    private final Map<String, SdkHttpClient> clients = new ConcurrentHashMap<>();
+
+    /** Metric publisher per pool name */
+    private final Map<String, HttpPoolMetricPublisher> publishers = new ConcurrentHashMap<>();
+
+    /** Latency of AWS API calls, shared by all clients */
+    private final AwsApiCallMetricPublisher apiCallMetricPublisher;
+
+    private SdkAsyncHttpClient asyncClient;
+
+    public AwsHttpClientFactory(final AwsProperties awsProperties, final MeterRegistry meterRegistry) {
+        this.awsProperties = awsProperties;
+        this.meterRegistry = meterRegistry;
+        this.apiCallMetricPublisher = new AwsApiCallMetricPublisher(meterRegistry);
+    }
+
+    /**
+     * HTTP client of the pool a service is mapped to.
+     *
+     * @param service service name, e.g. {@code s3} or {@code kms}.
+     * @return the shared HTTP client.
+     */
+    public SdkHttpClient httpClient(String service) {
+        return clients.computeIfAbsent(poolOf(service), this::buildClient);
+    }
+
+    /**
+     * Metric publisher of the pool a service is mapped to.
+     *
+     * @param service service name, e.g. {@code s3} or {@code kms}.
+     * @return the pool's metric publisher.
+     */
+    public MetricPublisher metricPublisher(String service) {
+        return publisher(poolOf(service));
+    }
+
+    /**
+     * Metric publisher timing the API calls of every client.
+     *
+     * @return the shared metric publisher.
+     */
+    public MetricPublisher apiCallMetricPublisher() {
+        return apiCallMetricPublisher;
+    }
+
+    /**
+     * Netty HTTP client of the async S3 client.
+     *
+     * @return the async HTTP client.
+     */
+    public synchronized SdkAsyncHttpClient asyncHttpClient() {
+        if (asyncClient == null) {
+            AwsProperties.AsyncHttp settings = awsProperties.getHttp().getAsync();
+            asyncClient = NettyNioAsyncHttpClient.builder()
+                    .maxConcurrency(settings.getMaxConcurrency())
+                    .maxPendingConnectionAcquires(settings.getMaxPendingConnectionAcquires())
+                    .connectionTimeout(settings.getConnectionTimeout())
+                    .readTimeout(settings.getReadTimeout())
+                    .writeTimeout(settings.getWriteTimeout())
+                    .connectionAcquisitionTimeout(settings.getConnectionAcquisitionTimeout())
+                    .connectionMaxIdleTime(settings.getConnectionMaxIdleTime())
+                    .tcpKeepAlive(settings.isTcpKeepAlive())
+                    .build();
+            log.info("Created async HTTP client with max concurrency {}.", settings.getMaxConcurrency());
+        }
+        return asyncClient;
+    }
+
+    /**
+     * Metric publisher of the async client's connections.
+     *
+     * @return the metric publisher.
+     */
+    public MetricPublisher asyncMetricPublisher() {
+        return publisher(ASYNC_POOL);
+    }
+
+    /**
+     * Closes all HTTP clients.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        clients.values().forEach(SdkHttpClient::close);
+        clients.clear();
+        if (asyncClient != null) {
+            asyncClient.close();
+            asyncClient = null;
+        }
+    }
+
+    private String poolOf(String service) {
+        return awsProperties.getHttp().getServices().getOrDefault(service, DEFAULT_POOL);
+    }
+
+    private HttpPoolMetricPublisher publisher(String pool) {
+        return publishers.computeIfAbsent(pool, name -> new HttpPoolMetricPublisher(meterRegistry, name));
+    }
+
+    private SdkHttpClient buildClient(String pool) {
+        AwsProperties.HttpPool settings = awsProperties.getHttp().getPools()
+                .getOrDefault(pool, new AwsProperties.HttpPool());
+        log.info("Creating {} HTTP client for pool {} with {} connections.",
+                settings.getClient(), pool, settings.getMaxConnections());
+        return switch (settings.getClient()) {
+            case APACHE -> {
+                ApacheHttpClient.Builder builder = ApacheHttpClient.builder()
+                        .maxConnections(settings.getMaxConnections())
+                        .connectionTimeout(settings.getConnectionTimeout())
+                        .socketTimeout(settings.getSocketTimeout())
+                        .connectionAcquisitionTimeout(settings.getConnectionAcquisitionTimeout())
+                        .connectionMaxIdleTime(settings.getConnectionMaxIdleTime())
+                        .tcpKeepAlive(settings.isTcpKeepAlive());
+                if (!settings.getConnectionTimeToLive().isZero()) {
+                    builder.connectionTimeToLive(settings.getConnectionTimeToLive());
+                }
+                yield builder.build();
+            }
+            case URL_CONNECTION -> UrlConnectionHttpClient.builder()
+                    .connectionTimeout(settings.getConnectionTimeout())
+                    .socketTimeout(settings.getSocketTimeout())
+                    .build();
+        };
+    }
+}
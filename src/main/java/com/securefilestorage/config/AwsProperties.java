@@ -4,6 +4,11 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Configuration class to map AWS-related properties from application.yml.
@@ -16,6 +21,14 @@ public class AwsProperties {
 
     private S3 s3 = new S3();
 
+    private Encryption encryption = new Encryption();
+
+    private Upload upload = new Upload();
+
+    private Download download = new Download();
+
+    private Http http = new Http();
+
     @Getter
     @Setter
     public static class S3 {
@@ -30,4 +43,306 @@ public class AwsProperties {
 
     }
 
+    /**
+     * HTTP client implementations usable by the synchronous AWS clients.
+     */
+    public enum HttpClientType {
+
+        /** Apache HttpClient with a connection pool; reports pool metrics */
+        APACHE,
+
+        /** JDK HttpURLConnection; no pool of its own and no pool metrics */
+        URL_CONNECTION
+    }
+
+    @Getter
+    @Setter
+    public static class Http {
+
+        /**
+         * Named connection pools. Services mapped to the same pool share one HTTP client.
+         */
+        private Map<String, HttpPool> pools = new LinkedHashMap<>();
+
+        /**
+         * Pool name per service ({@code s3}, {@code kms}, {@code ssm}, {@code secrets-manager});
+         * unmapped services use the pool named {@code default}.
+         */
+        private Map<String, String> services = new LinkedHashMap<>();
+
+        /**
+         * Netty client of the async S3 client used for multipart uploads and parallel downloads.
+         */
+        private AsyncHttp async = new AsyncHttp();
+
+    }
+
+    @Getter
+    @Setter
+    public static class HttpPool {
+
+        /**
+         * HTTP client implementation.
+         */
+        private HttpClientType client = HttpClientType.APACHE;
+
+        /**
+         * Maximum open connections of the pool.
+         */
+        private int maxConnections = 50;
+
+        /**
+         * Timeout for establishing a connection.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Timeout for reading from an established connection.
+         */
+        private Duration socketTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Maximum wait for a free pooled connection.
+         */
+        private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Idle time after which a pooled connection is closed.
+         */
+        private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+
+        /**
+         * Maximum lifetime of a pooled connection; zero keeps connections as long as they are usable.
+         */
+        private Duration connectionTimeToLive = Duration.ZERO;
+
+        /**
+         * Whether TCP keep-alive is enabled on pooled connections.
+         */
+        private boolean tcpKeepAlive = true;
+
+    }
+
+    @Getter
+    @Setter
+    public static class AsyncHttp {
+
+        /**
+         * Maximum concurrent requests, i.e. open connections for HTTP/1.1.
+         */
+        private int maxConcurrency = 64;
+
+        /**
+         * Maximum requests waiting for a connection before new requests fail.
+         */
+        private int maxPendingConnectionAcquires = 10_000;
+
+        /**
+         * Timeout for establishing a connection.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Timeout for reading from an established connection.
+         */
+        private Duration readTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Timeout for writing to an established connection.
+         */
+        private Duration writeTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Maximum wait for a free connection.
+         */
+        private Duration connectionAcquisitionTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Idle time after which a connection is closed.
+         */
+        private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+
+        /**
+         * Whether TCP keep-alive is enabled.
+         */
+        private boolean tcpKeepAlive = true;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Upload {
+
+        /**
+         * Size of one S3 multipart upload part.
+         */
+        private DataSize partSize = DataSize.ofMegabytes(8);
+
+        /**
+         * Maximum number of parts of one upload sent to S3 concurrently.
+         */
+        private int maxInFlightParts = 4;
+
+        /**
+         * Total memory for part buffers across all concurrent uploads; writers block when it is exhausted.
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(256);
+
+        /**
+         * Attempts per part (and per single-request upload) before the whole upload is aborted.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Files of one batch upload encrypted and uploaded concurrently, shared by all batch requests.
+         */
+        private int batchConcurrency = 8;
+
+        /**
+         * Batch upload tasks waiting for a worker; when full, the request thread runs the task itself.
+         */
+        private int batchQueueCapacity = 256;
+
+        /**
+         * Local directory where asynchronous uploads are spooled until a worker uploads them.
+         * Must be local to the node: a restarted node resumes the jobs whose spool it finds here.
+         */
+        private String spoolDirectory = System.getProperty("java.io.tmpdir") + "/secure-file-storage-spool";
+
+        /**
+         * Workers encrypting and uploading spooled files.
+         */
+        private int jobWorkers = 4;
+
+        /**
+         * Spooled jobs waiting for a worker; further asynchronous uploads are rejected with 503.
+         */
+        private int jobQueueCapacity = 1000;
+
+        /**
+         * Attempts of an asynchronous upload; a failed attempt re-queues the job, and the spool file
+         * is deleted only once the job completes or its last attempt fails.
+         */
+        private int jobMaxAttempts = 3;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Download {
+
+        /**
+         * Whether large downloads are fetched as several concurrent ranged GETs.
+         */
+        private boolean parallelEnabled = true;
+
+        /**
+         * Minimum number of bytes to fetch before a download is done in parallel.
+         */
+        private DataSize parallelThreshold = DataSize.ofMegabytes(64);
+
+        /**
+         * Bytes fetched by one ranged GET; rounded down to whole encryption chunks.
+         */
+        private DataSize windowSize = DataSize.ofMegabytes(8);
+
+        /**
+         * Maximum number of ranged GETs of one download in flight.
+         */
+        private int maxConcurrency = 4;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Encryption {
+
+        /**
+         * Plaintext bytes per AES-GCM chunk of the envelope format.
+         */
+        private int chunkSize = 64 * 1024;
+
+        private DataKeyCache dataKeyCache = new DataKeyCache();
+
+        private DecryptedKeyCache decryptedKeyCache = new DecryptedKeyCache();
+
+        private Compression compression = new Compression();
+
+    }
+
+    @Getter
+    @Setter
+    public static class Compression {
+
+        /**
+         * Whether content is compressed before it is encrypted when its first chunk compresses well.
+         */
+        private boolean enabled = false;
+
+        /**
+         * DEFLATE level, 1 (fastest) to 9 (smallest).
+         */
+        private int level = 1;
+
+        /**
+         * Smaller files are stored as is; so are files reaching {@code aws.download.parallel-threshold},
+         * which keeps their ranges readable without inflating everything before them.
+         */
+        private DataSize minSize = DataSize.ofKilobytes(4);
+
+        /**
+         * Highest compressed to original size ratio of the first chunk at which content is compressed;
+         * already compressed formats such as images, archives or video stay above it and are stored as is.
+         */
+        private double maxRatio = 0.9;
+
+    }
+
+    @Getter
+    @Setter
+    public static class DataKeyCache {
+
+        /**
+         * Whether uploads may share a KMS data key within the limits below.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum time a data key is used for new uploads after it was generated.
+         */
+        private Duration maxAge = Duration.ofMinutes(5);
+
+        /**
+         * Maximum number of files encrypted with one data key.
+         */
+        private long maxFiles = 1000;
+
+        /**
+         * Maximum number of plaintext bytes encrypted with one data key.
+         */
+        private DataSize maxBytes = DataSize.ofGigabytes(1);
+
+    }
+
+    @Getter
+    @Setter
+    public static class DecryptedKeyCache {
+
+        /**
+         * Whether unwrapped data keys are cached on the download path.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of unwrapped data keys kept in memory.
+         */
+        private long maxEntries = 1000;
+
+        /**
+         * Time after which an unwrapped data key is evicted and has to be decrypted by KMS again.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+    }
+
 }
@@ -15,11 +15,17 @@ public class AwsSecretsManagerConfig {
     /** AWS configuration properties */
     private final AwsProperties awsProperties;
 
+    /** Pooled HTTP clients shared by the AWS clients */
+    private final AwsHttpClientFactory httpClients;
+
     @Bean
     public SecretsManagerClient secretsManagerClient() {
         return SecretsManagerClient.builder()
                 .region(Region.of(awsProperties.getS3().getRegion()))
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClient(httpClients.httpClient("secrets-manager"))
+                .overrideConfiguration(o -> o.addMetricPublisher(httpClients.metricPublisher("secrets-manager"))
+                        .addMetricPublisher(httpClients.apiCallMetricPublisher()))
                 .build();
     }
 /*
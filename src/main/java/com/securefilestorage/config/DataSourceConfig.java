@@ -2,6 +2,7 @@ package com.securefilestorage.config;
 
 import com.securefilestorage.service.AwsSecretsManagerService;
 import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,6 +18,15 @@ public class DataSourceConfig {
 
     private final AwsSecretsManagerService secretsManagerService;
 
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${spring.datasource.hikari.connection-timeout:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     /**
      * Constructor-based injection of the AwsSecretsManagerService.
      *
@@ -54,10 +64,17 @@ public class DataSourceConfig {
         hikariDataSource.setUsername(username);
         hikariDataSource.setPassword(password);
         hikariDataSource.setDriverClassName("org.postgresql.Driver");
+        // Let the driver send Hibernate's JDBC batches as multi-row INSERT statements
+        hikariDataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
 
         // Optional: Tune HikariCP settings as needed
-        hikariDataSource.setMaximumPoolSize(10);
+        hikariDataSource.setMaximumPoolSize(maximumPoolSize);
+        hikariDataSource.setConnectionTimeout(connectionTimeoutMs);
 
+        // Virtual threads queue up in front of the pool instead of flooding it
+        if (virtualThreads) {
+            return new ConnectionLimitingDataSource(hikariDataSource, maximumPoolSize, connectionTimeoutMs);
+        }
         return hikariDataSource;
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.securefilestorage.config;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded executors for background work of the storage services.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} the workers are virtual threads; the pools
+ * keep their size limits, so concurrency against S3, KMS and the database stays bounded.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Configuration
+@AllArgsConstructor
+public class ExecutorConfig {
+
+    /** AWS configuration properties */
+    private final AwsProperties awsProperties;
+
+    /** Object store configuration properties */
+    private final StorageProperties storageProperties;
+
+    /** Environment used to detect virtual-thread mode */
+    private final Environment environment;
+
+    /**
+     * Executor that encrypts and uploads the files of batch uploads. Its queue is bounded;
+     * when it is full the submitting request thread runs the task, which throttles the batch.
+     *
+     * @return the batch upload executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchUploadExecutor() {
+        AwsProperties.Upload upload = awsProperties.getUpload();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(upload.getBatchConcurrency(), upload.getBatchConcurrency(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(upload.getBatchQueueCapacity()),
+                threadFactory("batch-upload-"), new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Executor that encrypts and uploads spooled asynchronous uploads. Jobs beyond the
+     * queue capacity are rejected rather than queued without bound.
+     *
+     * @return the upload job executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService uploadJobExecutor() {
+        AwsProperties.Upload upload = awsProperties.getUpload();
+        return new ThreadPoolExecutor(upload.getJobWorkers(), upload.getJobWorkers(),
+                0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(upload.getJobQueueCapacity()),
+                threadFactory("upload-job-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executor that copies objects into the ciphertext cache in the background. Copies beyond the
+     * queue capacity are rejected, and the object is admitted again on a later read.
+     *
+     * @return the cache fill executor.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    @ConditionalOnProperty(prefix = "storage.cache", name = "enabled", havingValue = "true")
+    public ExecutorService cacheFillExecutor() {
+        StorageProperties.Cache cache = storageProperties.getCache();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(cache.getFillConcurrency(), cache.getFillConcurrency(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(cache.getFillQueueCapacity()),
+                threadFactory("cache-fill-"), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Thread factory for a pool: virtual threads in virtual-thread mode, platform threads otherwise.
+     *
+     * @param prefix thread name prefix.
+     * @return the thread factory.
+     */
+    private ThreadFactory threadFactory(String prefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        return new CustomizableThreadFactory(prefix);
+    }
+}
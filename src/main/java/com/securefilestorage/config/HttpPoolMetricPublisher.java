@@ -0,0 +1,88 @@
+package com.securefilestorage.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the connection pool state that the AWS SDK reports with every request as
+ * Micrometer meters tagged with the pool name.
+ * <p>
+ * Gauges hold the values of the most recent request: {@code aws.http.pool.max},
+ * {@code aws.http.pool.leased}, {@code aws.http.pool.available} and {@code aws.http.pool.pending}
+ * (requests waiting for a connection). {@code aws.http.pool.acquire} times how long requests
+ * waited for a connection. A pool is saturated when leased reaches max and pending grows.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class HttpPoolMetricPublisher implements MetricPublisher {
+
+    private final AtomicLong max = new AtomicLong();
+
+    private final AtomicLong leased = new AtomicLong();
+
+    private final AtomicLong available = new AtomicLong();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Timer acquire;
+
+    /**
+     * Registers the meters of one pool.
+     *
+     * @param meterRegistry registry to publish to.
+     * @param pool          pool name used as the {@code pool} tag.
+     */
+    public HttpPoolMetricPublisher(MeterRegistry meterRegistry, String pool) {
+        gauge(meterRegistry, "aws.http.pool.max", "Maximum connections of the pool", pool, max);
+        gauge(meterRegistry, "aws.http.pool.leased", "Connections in use", pool, leased);
+        gauge(meterRegistry, "aws.http.pool.available", "Idle connections ready for reuse", pool, available);
+        gauge(meterRegistry, "aws.http.pool.pending", "Requests waiting for a connection", pool, pending);
+        this.acquire = Timer.builder("aws.http.pool.acquire")
+                .description("Time requests waited for a pooled connection")
+                .tag("pool", pool)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        record(metricCollection, HttpMetric.MAX_CONCURRENCY, max);
+        record(metricCollection, HttpMetric.LEASED_CONCURRENCY, leased);
+        record(metricCollection, HttpMetric.AVAILABLE_CONCURRENCY, available);
+        record(metricCollection, HttpMetric.PENDING_CONCURRENCY_ACQUIRES, pending);
+        for (Duration wait : metricCollection.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION)) {
+            acquire.record(wait);
+        }
+        metricCollection.children().forEach(this::publish);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static void record(MetricCollection metricCollection, SdkMetric<Integer> metric, AtomicLong target) {
+        List<Integer> values = metricCollection.metricValues(metric);
+        if (!values.isEmpty()) {
+            target.set(values.get(values.size() - 1));
+        }
+    }
+
+    private static void gauge(MeterRegistry meterRegistry, String name, String description, String pool,
+                              AtomicLong value) {
+        Gauge.builder(name, value, AtomicLong::get)
+                .description(description)
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+}
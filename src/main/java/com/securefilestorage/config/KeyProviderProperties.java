@@ -0,0 +1,87 @@
+package com.securefilestorage.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the master key that wraps the data keys, mapped from {@code key-provider.*}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "key-provider")
+public class KeyProviderProperties {
+
+    /**
+     * Key provider implementations.
+     */
+    public enum Type {
+
+        /** AWS KMS, with the key id read from SSM Parameter Store */
+        KMS,
+
+        /** A master key from a local file or keystore, without remote calls */
+        LOCAL
+    }
+
+    /**
+     * Provider wrapping the data keys. Objects can only be read with the provider that wrote them.
+     */
+    private Type type = Type.KMS;
+
+    private Kms kms = new Kms();
+
+    private Local local = new Local();
+
+    @Getter
+    @Setter
+    public static class Kms {
+
+        /**
+         * SSM parameter holding the id of the KMS key.
+         */
+        private String keyIdParameter = "/secure-file-storage/kms-key-id";
+
+    }
+
+    @Getter
+    @Setter
+    public static class Local {
+
+        /**
+         * Id of the master key, used to group cached data keys.
+         */
+        private String keyId = "local-master-key";
+
+        /**
+         * File holding the 256-bit master key, raw or Base64 encoded. Ignored if a keystore is set.
+         */
+        private String keyFile;
+
+        /**
+         * Whether a random master key is written to {@link #keyFile} if the file does not exist.
+         */
+        private boolean createIfMissing = false;
+
+        /**
+         * Keystore holding the master key as a secret key entry.
+         */
+        private String keystore;
+
+        private String keystoreType = "PKCS12";
+
+        private String keystorePassword;
+
+        /**
+         * Alias of the master key in the keystore.
+         */
+        private String keyAlias = "master-key";
+
+    }
+}
@@ -1,9 +1,13 @@
 package com.securefilestorage.config;
 
+import com.securefilestorage.security.CachingAuthenticationProvider;
+import com.securefilestorage.security.CredentialCache;
+import com.securefilestorage.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -90,6 +94,22 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Authenticates HTTP Basic credentials against the database, caching users and
+     * successful credential checks for a short time.
+     *
+     * @param userDetailsService loads users by login.
+     * @param passwordEncoder    checks passwords.
+     * @param credentialCache    cache of users and verified credentials.
+     * @return an AuthenticationProvider bean.
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         CredentialCache credentialCache) {
+        return new CachingAuthenticationProvider(userDetailsService, passwordEncoder, credentialCache);
+    }
+
     /**
      * Provides the AuthenticationManager bean.
      *
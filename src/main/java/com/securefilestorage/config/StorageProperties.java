@@ -0,0 +1,123 @@
+package com.securefilestorage.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the object store holding the encrypted files, mapped from {@code storage.*}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+
+    /**
+     * Object store implementations.
+     */
+    public enum Backend {
+
+        /** The S3 bucket configured under {@code aws.s3} */
+        S3,
+
+        /** A directory on the local file system */
+        LOCAL
+    }
+
+    /**
+     * Backend holding the encrypted objects. Keys are not migrated when it is changed.
+     */
+    private Backend backend = Backend.S3;
+
+    private Local local = new Local();
+
+    private Cache cache = new Cache();
+
+    private Dedup dedup = new Dedup();
+
+    @Getter
+    @Setter
+    public static class Local {
+
+        /**
+         * Directory holding the objects. Uploads are staged in a subdirectory, so that they are
+         * renamed into place on the same file system.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/secure-file-storage-objects";
+
+        /**
+         * Whether an object is forced to the storage device before it becomes visible.
+         */
+        private boolean fsync = true;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Whether hot objects are kept in a read-through cache of ciphertext on local disk.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the cached objects. The cache's own files in it are deleted on startup and shutdown;
+         * other files are left alone.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/secure-file-storage-cache";
+
+        /**
+         * Disk budget of the cache. Objects beyond it are evicted by W-TinyLFU.
+         */
+        private DataSize maxSize = DataSize.ofGigabytes(10);
+
+        /**
+         * Larger objects are never cached.
+         */
+        private DataSize maxObjectSize = DataSize.ofMegabytes(512);
+
+        /**
+         * Reads of an object, from its first byte, before it is copied into the cache; 1 caches on first read.
+         */
+        private int minReads = 2;
+
+        /**
+         * Age after which a cached object is checked against the ETag of the backend before it is served again.
+         */
+        private Duration revalidateAfter = Duration.ofMinutes(1);
+
+        /**
+         * Objects copied into the cache at once in the background, after a ranged read of an uncached object.
+         */
+        private int fillConcurrency = 2;
+
+        /**
+         * Background copies waiting for a worker; further ones are skipped until the object is read again.
+         */
+        private int fillQueueCapacity = 64;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Dedup {
+
+        /**
+         * Whether an upload whose content the same user already stored only adds a reference to the
+         * stored object. The plaintext is hashed before it is uploaded, which reads it twice. Off by
+         * default; the {@code file_blob} table must exist before it is enabled.
+         */
+        private boolean enabled = false;
+
+    }
+}
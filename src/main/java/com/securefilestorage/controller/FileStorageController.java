@@ -1,23 +1,30 @@
 package com.securefilestorage.controller;
 
-import com.securefilestorage.exception.FileNotFoundException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securefilestorage.dto.BatchDeleteResult;
+import com.securefilestorage.dto.BatchUploadResult;
+import com.securefilestorage.dto.UploadJobResponse;
+import com.securefilestorage.model.UploadJob;
+import com.securefilestorage.service.FileDownload;
 import com.securefilestorage.service.FileStorageService;
-import com.securefilestorage.exception.FileStorageException;
+import com.securefilestorage.service.UploadJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.net.URI;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for handling file storage operations with AWS S3 and KMS encryption.
@@ -35,6 +42,10 @@ public class FileStorageController {
 
     private final FileStorageService fileStorageService;
 
+    private final UploadJobService uploadJobService;
+
+    private final ObjectMapper objectMapper;
+
     /**
      * Uploads a file to AWS S3 with encryption using AWS KMS.
      *
@@ -49,6 +60,50 @@ public class FileStorageController {
                 .body("File uploaded successfully with name: " + storedFileName);
     }
 
+    /**
+     * Uploads several files in one request, each encrypted and stored like a single upload.
+     *
+     * @param files the files to upload.
+     * @return per-file results; 201 if all files were stored, 207 otherwise.
+     */
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<BatchUploadResult>> uploadFiles(@RequestParam("files") List<MultipartFile> files) {
+        log.info("Received batch upload request with {} files", files.size());
+        List<BatchUploadResult> results = fileStorageService.uploadFiles(files);
+        boolean allStored = results.stream().allMatch(BatchUploadResult::isSuccess);
+        return ResponseEntity.status(allStored ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                .body(results);
+    }
+
+    /**
+     * Accepts a file for asynchronous upload. The file is spooled to local disk and encrypted
+     * and uploaded in the background; poll the returned job for progress.
+     *
+     * @param file the file to upload.
+     * @return 202 with the pending job and its status URL in {@code Location}.
+     */
+    @PostMapping("/upload/async")
+    public ResponseEntity<UploadJobResponse> uploadFileAsync(@RequestParam("file") MultipartFile file) {
+        log.info("Received async file upload request: {}", file.getOriginalFilename());
+        UploadJob job = uploadJobService.submit(file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/files/upload/jobs/" + job.getId()))
+                .body(convertToDto(job));
+    }
+
+    /**
+     * Reports the state and progress of an asynchronous upload of the current user.
+     *
+     * @param jobId the job id.
+     * @return the job, or 404 if unknown or submitted by another user.
+     */
+    @GetMapping("/upload/jobs/{jobId}")
+    public ResponseEntity<UploadJobResponse> getUploadJob(@PathVariable UUID jobId) {
+        return uploadJobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(convertToDto(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Download file by name as bytes[] and decrypts a file from AWS S3.
      *
@@ -68,43 +123,93 @@ public class FileStorageController {
             return new ResponseEntity<>(fileData, headers, HttpStatus.OK);
     }
 
+    /**
+     * Streams a file by name, decrypting it on the fly from AWS S3.
+     * No temporary file or full-object buffer is involved. A single byte range in the
+     * {@code Range} header is answered with {@code 206 Partial Content}, decrypting only
+     * the chunks that cover it; other or malformed range requests get the whole file.
+     *
+     * @param filename    the name of the file to download.
+     * @param rangeHeader optional HTTP {@code Range} header.
+     * @return the decrypted file (or range) streamed to the client.
+     */
+    @GetMapping("/download/{filename}")
+    public ResponseEntity<StreamingResponseBody> downloadFile(@PathVariable String filename,
+                                                              @RequestHeader(value = HttpHeaders.RANGE, required = false)
+                                                              String rangeHeader) {
+        log.info("Received streaming file download request: {}", filename);
+        HttpRange range = singleRange(rangeHeader);
+        FileDownload download = range == null
+                ? fileStorageService.openDownload(filename)
+                : fileStorageService.openDownload(filename, range);
+        StreamingResponseBody body = outputStream -> {
+            try (download) {
+                download.content().transferTo(outputStream);
+            }
+            log.info("File '{}' streamed successfully.", filename);
+        };
+        ResponseEntity.BodyBuilder response = download.partial()
+                ? ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + download.rangeStart() + "-" + download.rangeEnd()
+                        + "/" + download.totalLength())
+                : ResponseEntity.ok();
+        return response
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentLength(download.contentLength())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
     /**
      * Download file by name as Path and decrypts a file from AWS S3.
+     * Kept for existing clients; the content is streamed exactly like {@link #downloadFile(String, String)}.
      *
      * @param filename the name of the file to download.
-     * @return the decrypted file as a byte array.
+     * @return the decrypted file streamed to the client.
      */
     @GetMapping("/download/path/{filename}")
-    public ResponseEntity<Resource> downloadFileAsPath(@PathVariable String filename) {
-        log.info("Received file download request: {}", filename);
-        Path filePath = fileStorageService.downloadFileAsPath(filename);
-        if (!Files.exists(filePath) || !Files.isReadable(filePath)) {
-            throw new FileNotFoundException("File not found or not readable: " + filename);
-        }
-        try {
-            ByteArrayResource resource = new ByteArrayResource(Files.readAllBytes(filePath));
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentLength(Files.size(filePath))
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .body(resource);
-        } catch (IOException e) {
-            log.error("Error reading file: {}", filename, e);
-            throw new FileStorageException("Failed to read file: " + filename, e);
-        }
+    public ResponseEntity<StreamingResponseBody> downloadFileAsPath(@PathVariable String filename) {
+        return downloadFile(filename, null);
     }
 
     /**
-     * Retrieves the list of uploaded files from AWS S3.
+     * Retrieves the list of uploaded files from the file metadata.
+     * The JSON array is written while the metadata pages are read, so its size is not limited by memory.
      *
-     * @return a list of file names.
+     * @return a JSON array of file names.
      */
     @GetMapping("/list")
-    public ResponseEntity<List<String>> listFiles() {
+    public ResponseEntity<StreamingResponseBody> listFiles() {
         log.info("Received request to list files");
-        List<String> files = fileStorageService.listFiles();
-        return ResponseEntity.ok(files);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(outputStream);
+                 Stream<String> files = fileStorageService.streamFileKeys()) {
+                json.writeStartArray();
+                for (Iterator<String> it = files.iterator(); it.hasNext(); ) {
+                    json.writeString(it.next());
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Deletes many files from AWS S3 in bulk.
+     *
+     * @param keys the names of the files to delete.
+     * @return per-key results; 200 if all files were deleted, 207 otherwise.
+     */
+    @PostMapping("/delete/batch")
+    public ResponseEntity<List<BatchDeleteResult>> deleteFiles(@RequestBody List<String> keys) {
+        log.info("Received bulk delete request for {} files", keys.size());
+        List<BatchDeleteResult> results = fileStorageService.deleteFiles(keys);
+        boolean allDeleted = results.stream().allMatch(BatchDeleteResult::isSuccess);
+        return ResponseEntity.status(allDeleted ? HttpStatus.OK : HttpStatus.MULTI_STATUS)
+                .body(results);
     }
 
     /**
@@ -125,4 +230,43 @@ public class FileStorageController {
                     .body("Failed to delete file.");
         }
     }
+
+    /**
+     * Parses a {@code Range} header holding exactly one byte range.
+     *
+     * @param rangeHeader the header value, may be null.
+     * @return the range, or null if absent, malformed or a multi-range request.
+     */
+    private HttpRange singleRange(String rangeHeader) {
+        if (rangeHeader == null || rangeHeader.isBlank()) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring malformed Range header: {}", rangeHeader);
+            return null;
+        }
+    }
+
+    /**
+     * Converts an UploadJob entity to an UploadJobResponse.
+     *
+     * @param job the job entity.
+     * @return the job DTO.
+     */
+    private UploadJobResponse convertToDto(UploadJob job) {
+        return UploadJobResponse.builder()
+                .jobId(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .fileSize(job.getFileSize())
+                .bytesUploaded(job.getBytesUploaded())
+                .storedFileName(job.getS3Key())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
 }
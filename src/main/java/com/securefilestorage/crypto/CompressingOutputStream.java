@@ -0,0 +1,76 @@
+package com.securefilestorage.crypto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Output stream that DEFLATE-compresses content into the envelope cipher.
+ * <p>
+ * Closing the stream finishes the compressed stream and closes the underlying stream. If the
+ * content cannot be written completely, {@link #abort()} releases the compressor without
+ * writing anything more, leaving the caller to discard the underlying stream.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class CompressingOutputStream extends DeflaterOutputStream {
+
+    /** Buffer of compressed output handed to the underlying stream */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private long bytesIn;
+
+    private boolean closed;
+
+    /**
+     * Creates the stream.
+     *
+     * @param out   destination of the compressed content.
+     * @param level compression level, 1 (fastest) to 9 (smallest).
+     */
+    public CompressingOutputStream(OutputStream out, int level) {
+        super(out, new Deflater(level), BUFFER_SIZE);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        bytesIn += len;
+    }
+
+    /**
+     * Number of uncompressed bytes written so far.
+     *
+     * @return the byte count.
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            super.close();
+        } finally {
+            def.end();
+        }
+    }
+
+    /**
+     * Releases the compressor without finishing the compressed stream or closing the underlying stream.
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        def.end();
+    }
+}
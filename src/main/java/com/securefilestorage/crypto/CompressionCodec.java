@@ -0,0 +1,101 @@
+package com.securefilestorage.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression applied to file content before it is sealed in chunks, recorded in the
+ * {@link EnvelopeHeader} by its id.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public enum CompressionCodec {
+
+    /** Content is stored as is */
+    NONE(0),
+
+    /** Content is one zlib (DEFLATE) stream */
+    DEFLATE(1);
+
+    /** Read buffer of the decompressing stream */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final int id;
+
+    CompressionCodec(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Id of the codec in the object header.
+     *
+     * @return the id.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Looks up a codec by its header id.
+     *
+     * @param id the id.
+     * @return the codec.
+     * @throws IOException if the id is unknown.
+     */
+    public static CompressionCodec fromId(int id) throws IOException {
+        for (CompressionCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+        throw new IOException("Unsupported compression codec: " + id);
+    }
+
+    /**
+     * Opens a stream that compresses everything written to it into {@code out}.
+     *
+     * @param out   destination of the compressed content, closed with the returned stream.
+     * @param level compression level, 1 (fastest) to 9 (smallest).
+     * @return the compressing stream.
+     */
+    public CompressingOutputStream compressingStream(OutputStream out, int level) {
+        if (this == NONE) {
+            throw new IllegalStateException("Content stored as is is not compressed.");
+        }
+        return new CompressingOutputStream(out, level);
+    }
+
+    /**
+     * Opens a stream that decompresses content written with this codec.
+     *
+     * @param in the compressed content, closed with the returned stream.
+     * @return the content; {@code in} itself for {@link #NONE}.
+     */
+    public InputStream decompressingStream(InputStream in) {
+        if (this == NONE) {
+            return in;
+        }
+        Inflater inflater = new Inflater();
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.securefilestorage.crypto;
+
+import javax.crypto.SecretKey;
+import java.io.Serial;
+import java.util.Arrays;
+
+/**
+ * AES data key of an envelope-encrypted object together with its wrapped (KMS-encrypted) form.
+ * <p>
+ * Unlike {@link javax.crypto.spec.SecretKeySpec}, the plaintext key material can be wiped with
+ * {@link #destroy()} once the key is no longer needed.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public final class DataKey implements SecretKey {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] material;
+
+    private final byte[] wrappedKey;
+
+    private volatile boolean destroyed;
+
+    /**
+     * Creates a data key; both arrays are copied.
+     *
+     * @param material   plaintext AES key bytes.
+     * @param wrappedKey the same key encrypted under the KMS key.
+     */
+    public DataKey(byte[] material, byte[] wrappedKey) {
+        this.material = material.clone();
+        this.wrappedKey = wrappedKey.clone();
+    }
+
+    /**
+     * Wrapped form of this key as stored in the object header.
+     *
+     * @return a copy of the wrapped key bytes.
+     */
+    public byte[] getWrappedKey() {
+        return wrappedKey.clone();
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return "AES";
+    }
+
+    @Override
+    public String getFormat() {
+        return "RAW";
+    }
+
+    @Override
+    public byte[] getEncoded() {
+        if (destroyed) {
+            throw new IllegalStateException("Data key has been destroyed.");
+        }
+        return material.clone();
+    }
+
+    /**
+     * Wipes the plaintext key material.
+     */
+    @Override
+    public void destroy() {
+        destroyed = true;
+        Arrays.fill(material, (byte) 0);
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+}
@@ -0,0 +1,171 @@
+package com.securefilestorage.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Input stream that authenticates and decrypts the chunks following an {@link EnvelopeHeader}.
+ * <p>
+ * The header must already have been consumed from the source stream. Chunks are verified one
+ * at a time, so no plaintext is released before its chunk tag has been checked, and a stream
+ * that ends before the chunk flagged as final is rejected. A stream may also cover only a
+ * contiguous run of chunks, as returned by a ranged GET.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class DecryptingInputStream extends InputStream {
+
+    private final PushbackInputStream in;
+
+    private final SecretKey key;
+
+    private final EnvelopeHeader header;
+
+    private final Cipher cipher = EnvelopeFormat.newCipher();
+
+    private final byte[] sealed;
+
+    private final byte[] plain;
+
+    private final long lastChunk;
+
+    private final long totalChunks;
+
+    private int position;
+
+    private int limit;
+
+    private long chunkIndex;
+
+    private boolean finished;
+
+    private long cipherNanos;
+
+    /**
+     * Creates a decrypting stream over the chunks of an object.
+     *
+     * @param in     source positioned right after the header.
+     * @param key    unwrapped data key of the object.
+     * @param header the already parsed header.
+     */
+    public DecryptingInputStream(InputStream in, SecretKey key, EnvelopeHeader header) {
+        this(in, key, header, 0, -1, -1);
+    }
+
+    /**
+     * Creates a decrypting stream over a contiguous run of chunks of an object.
+     *
+     * @param in          source positioned at the first byte of chunk {@code firstChunk}.
+     * @param key         unwrapped data key of the object.
+     * @param header      the object header.
+     * @param firstChunk  index of the first chunk in {@code in}.
+     * @param lastChunk   index of the last chunk to decrypt, or -1 to read until the final chunk.
+     * @param totalChunks total number of chunks in the object, or -1 to detect the final chunk at end of stream.
+     */
+    public DecryptingInputStream(InputStream in, SecretKey key, EnvelopeHeader header,
+                                 long firstChunk, long lastChunk, long totalChunks) {
+        this.in = new PushbackInputStream(in, 1);
+        this.key = key;
+        this.header = header;
+        this.sealed = new byte[header.getChunkSize() + EnvelopeFormat.TAG_LENGTH];
+        this.plain = new byte[header.getChunkSize()];
+        this.chunkIndex = firstChunk;
+        this.lastChunk = lastChunk;
+        this.totalChunks = totalChunks;
+    }
+
+    /**
+     * Header of the object being decrypted.
+     *
+     * @return the envelope header.
+     */
+    public EnvelopeHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * Time spent authenticating and decrypting chunks so far, excluding reads from the source.
+     *
+     * @return cipher time in nanoseconds.
+     */
+    public long getCipherNanos() {
+        return cipherNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (position == limit) {
+            if (finished) {
+                return -1;
+            }
+            openChunk();
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(plain, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(plain, (byte) 0);
+        position = limit = 0;
+        finished = true;
+        in.close();
+    }
+
+    private void openChunk() throws IOException {
+        int n = in.readNBytes(sealed, 0, sealed.length);
+        boolean last;
+        if (totalChunks > 0) {
+            last = chunkIndex == totalChunks - 1;
+        } else if (n < sealed.length) {
+            last = true;
+        } else {
+            int next = in.read();
+            last = next == -1;
+            if (!last) {
+                in.unread(next);
+            }
+        }
+        if (n < EnvelopeFormat.TAG_LENGTH) {
+            throw new IOException("Truncated encrypted object at chunk " + chunkIndex);
+        }
+        long start = System.nanoTime();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key, EnvelopeFormat.chunkParameters(header.getBaseNonce(), chunkIndex));
+            cipher.updateAAD(header.getEncoded());
+            cipher.updateAAD(EnvelopeFormat.chunkAad(chunkIndex, last));
+            limit = cipher.doFinal(sealed, 0, n, plain, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to authenticate chunk " + chunkIndex, e);
+        } finally {
+            cipherNanos += System.nanoTime() - start;
+        }
+        position = 0;
+        finished = last || chunkIndex == lastChunk;
+        chunkIndex++;
+    }
+}
@@ -0,0 +1,160 @@
+package com.securefilestorage.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * Output stream that writes an {@link EnvelopeHeader} followed by plaintext sealed in
+ * fixed-size AES-GCM chunks (see {@link EnvelopeFormat}).
+ * <p>
+ * Only one chunk of plaintext is buffered at a time. A full chunk is sealed lazily, when
+ * more data arrives or on {@link #close()}, so the final chunk is always flagged correctly.
+ * If the plaintext cannot be written completely, {@link #abort()} discards the stream without
+ * sealing a final chunk.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class EncryptingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+
+    private final SecretKey key;
+
+    private final EnvelopeHeader header;
+
+    private final Cipher cipher = EnvelopeFormat.newCipher();
+
+    private final byte[] buffer;
+
+    private final byte[] sealed;
+
+    private int buffered;
+
+    private long chunkIndex;
+
+    private long plaintextBytes;
+
+    private long cipherNanos;
+
+    private boolean closed;
+
+    /**
+     * Creates the stream and writes the header to {@code out}.
+     *
+     * @param out    destination of the encrypted object.
+     * @param key    data key used for every chunk.
+     * @param header header of the object, holding the wrapped form of {@code key}.
+     * @throws IOException if the header cannot be written.
+     */
+    public EncryptingOutputStream(OutputStream out, SecretKey key, EnvelopeHeader header) throws IOException {
+        this.out = out;
+        this.key = key;
+        this.header = header;
+        this.buffer = new byte[header.getChunkSize()];
+        this.sealed = new byte[header.getChunkSize() + EnvelopeFormat.TAG_LENGTH];
+        out.write(header.getEncoded());
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+        while (len > 0) {
+            if (buffered == buffer.length) {
+                sealChunk(false);
+            }
+            int n = Math.min(len, buffer.length - buffered);
+            System.arraycopy(b, off, buffer, buffered, n);
+            buffered += n;
+            off += n;
+            len -= n;
+            plaintextBytes += n;
+        }
+    }
+
+    /**
+     * Number of plaintext bytes written so far.
+     *
+     * @return plaintext byte count.
+     */
+    public long getPlaintextBytes() {
+        return plaintextBytes;
+    }
+
+    /**
+     * Time spent sealing chunks so far, excluding writes to the underlying stream.
+     *
+     * @return cipher time in nanoseconds.
+     */
+    public long getCipherNanos() {
+        return cipherNanos;
+    }
+
+    /**
+     * Seals the final chunk and closes the underlying stream. If sealing fails the underlying
+     * stream is left open so the caller can discard the incomplete object.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            sealChunk(true);
+            out.close();
+        } finally {
+            Arrays.fill(buffer, (byte) 0);
+            release();
+        }
+    }
+
+    /**
+     * Discards the stream without sealing the final chunk or closing the underlying stream,
+     * leaving the caller to dispose of the incomplete object.
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Arrays.fill(buffer, (byte) 0);
+        release();
+    }
+
+    /**
+     * Called exactly once when the stream is closed or aborted; releases resources tied to the key.
+     */
+    protected void release() {
+    }
+
+    private void sealChunk(boolean last) throws IOException {
+        try {
+            long start = System.nanoTime();
+            cipher.init(Cipher.ENCRYPT_MODE, key, EnvelopeFormat.chunkParameters(header.getBaseNonce(), chunkIndex));
+            cipher.updateAAD(header.getEncoded());
+            cipher.updateAAD(EnvelopeFormat.chunkAad(chunkIndex, last));
+            int n = cipher.doFinal(buffer, 0, buffered, sealed, 0);
+            cipherNanos += System.nanoTime() - start;
+            out.write(sealed, 0, n);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to encrypt chunk " + chunkIndex, e);
+        }
+        buffered = 0;
+        chunkIndex++;
+    }
+}
@@ -0,0 +1,122 @@
+package com.securefilestorage.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+/**
+ * Constants and size arithmetic of the chunked AES-GCM envelope format.
+ * <p>
+ * After the {@link EnvelopeHeader} the object is a sequence of chunks, each holding
+ * up to {@code chunkSize} bytes of ciphertext followed by a 16-byte GCM tag. Every chunk
+ * except the last is full; an empty file still has one (empty) final chunk. The IV of a
+ * chunk is the base nonce with its chunk index XOR-ed into the last four bytes, and its
+ * AAD is the encoded header plus the chunk index and a final-chunk flag, so chunks
+ * cannot be reordered, truncated or moved between objects.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public final class EnvelopeFormat {
+
+    /** Cipher transformation used for every chunk */
+    public static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    /** GCM authentication tag length in bytes */
+    public static final int TAG_LENGTH = 16;
+
+    /** Default plaintext bytes per chunk */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private EnvelopeFormat() {
+    }
+
+    /**
+     * Creates a new AES-GCM cipher instance.
+     *
+     * @return the cipher.
+     */
+    public static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available.", e);
+        }
+    }
+
+    /**
+     * GCM parameters for the given chunk.
+     *
+     * @param baseNonce  per-object base nonce.
+     * @param chunkIndex zero-based chunk index.
+     * @return the GCM parameter spec.
+     */
+    public static GCMParameterSpec chunkParameters(byte[] baseNonce, long chunkIndex) {
+        if (chunkIndex < 0 || chunkIndex > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Chunk index out of range: " + chunkIndex);
+        }
+        byte[] iv = baseNonce.clone();
+        int counter = (int) chunkIndex;
+        int last = iv.length - 4;
+        iv[last] ^= (byte) (counter >>> 24);
+        iv[last + 1] ^= (byte) (counter >>> 16);
+        iv[last + 2] ^= (byte) (counter >>> 8);
+        iv[last + 3] ^= (byte) counter;
+        return new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, iv);
+    }
+
+    /**
+     * Chunk-specific additional authenticated data (index and final flag).
+     *
+     * @param chunkIndex zero-based chunk index.
+     * @param last       whether this is the final chunk of the object.
+     * @return the AAD suffix.
+     */
+    public static byte[] chunkAad(long chunkIndex, boolean last) {
+        return ByteBuffer.allocate(Long.BYTES + 1)
+                .putLong(chunkIndex)
+                .put((byte) (last ? 1 : 0))
+                .array();
+    }
+
+    /**
+     * Number of chunks needed for a plaintext of the given length.
+     *
+     * @param plaintextLength plaintext length in bytes.
+     * @param chunkSize       plaintext bytes per chunk.
+     * @return the chunk count, at least one.
+     */
+    public static long chunkCount(long plaintextLength, int chunkSize) {
+        return plaintextLength == 0 ? 1 : (plaintextLength + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Total encrypted object length for a plaintext of the given length.
+     *
+     * @param plaintextLength plaintext length in bytes.
+     * @param header          the object header.
+     * @return the ciphertext length including the header.
+     */
+    public static long ciphertextLength(long plaintextLength, EnvelopeHeader header) {
+        return header.length() + plaintextLength + chunkCount(plaintextLength, header.getChunkSize()) * TAG_LENGTH;
+    }
+
+    /**
+     * Plaintext length of an encrypted object of the given total length.
+     *
+     * @param ciphertextLength total object length including the header.
+     * @param header           the object header.
+     * @return the plaintext length in bytes.
+     */
+    public static long plaintextLength(long ciphertextLength, EnvelopeHeader header) {
+        long body = ciphertextLength - header.length();
+        long segment = (long) header.getChunkSize() + TAG_LENGTH;
+        long chunks = (body + segment - 1) / segment;
+        if (body < TAG_LENGTH || body - chunks * TAG_LENGTH < 0) {
+            throw new IllegalArgumentException("Invalid ciphertext length: " + ciphertextLength);
+        }
+        return body - chunks * TAG_LENGTH;
+    }
+}
@@ -0,0 +1,210 @@
+package com.securefilestorage.crypto;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Versioned header written in front of every envelope-encrypted object.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * magic          4 bytes  "SFSE"
+ * version        1 byte
+ * codec          1 byte   version 2 only, see {@link CompressionCodec}
+ * content length 8 bytes  version 2 only, file size before compression
+ * chunk size     4 bytes  plaintext bytes per chunk
+ * base nonce    12 bytes  random per object, combined with the chunk index
+ * key length     2 bytes
+ * wrapped key    n bytes  data key encrypted under the KMS key
+ * </pre>
+ * Objects stored as is keep version 1; version 2 is written only for compressed content, whose
+ * chunks then hold the compressed stream. The encoded header is also bound to every chunk as
+ * additional authenticated data.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+public final class EnvelopeHeader {
+
+    /** Leading bytes identifying the envelope format */
+    public static final byte[] MAGIC = {'S', 'F', 'S', 'E'};
+
+    /** Format version of content stored as is */
+    public static final int VERSION_1 = 1;
+
+    /** Format version of compressed content */
+    public static final int VERSION_2 = 2;
+
+    /** Length of the per-object base nonce */
+    public static final int NONCE_LENGTH = 12;
+
+    /** Upper bound for the chunk size accepted when reading a header */
+    public static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final int version;
+
+    private final CompressionCodec codec;
+
+    /** File size before compression; -1 in version 1, where it follows from the object length */
+    private final long contentLength;
+
+    private final int chunkSize;
+
+    private final byte[] baseNonce;
+
+    private final byte[] wrappedKey;
+
+    private final byte[] encoded;
+
+    private EnvelopeHeader(int version, CompressionCodec codec, long contentLength, int chunkSize,
+                           byte[] baseNonce, byte[] wrappedKey) {
+        this.version = version;
+        this.codec = codec;
+        this.contentLength = contentLength;
+        this.chunkSize = chunkSize;
+        this.baseNonce = baseNonce;
+        this.wrappedKey = wrappedKey;
+        this.encoded = encode();
+    }
+
+    /**
+     * Creates a header for a new object with a fresh random base nonce.
+     *
+     * @param chunkSize  plaintext bytes per chunk.
+     * @param wrappedKey data key encrypted under the KMS key.
+     * @param random     source of the base nonce.
+     * @return the new header.
+     */
+    public static EnvelopeHeader create(int chunkSize, byte[] wrappedKey, SecureRandom random) {
+        return create(chunkSize, wrappedKey, CompressionCodec.NONE, -1, random);
+    }
+
+    /**
+     * Creates a header for a new object with a fresh random base nonce.
+     *
+     * @param chunkSize     plaintext bytes per chunk.
+     * @param wrappedKey    data key encrypted under the KMS key.
+     * @param codec         compression of the content.
+     * @param contentLength file size before compression; ignored for {@link CompressionCodec#NONE}.
+     * @param random        source of the base nonce.
+     * @return the new header.
+     */
+    public static EnvelopeHeader create(int chunkSize, byte[] wrappedKey, CompressionCodec codec,
+                                        long contentLength, SecureRandom random) {
+        if (codec != CompressionCodec.NONE && contentLength < 0) {
+            throw new IllegalArgumentException("Content length of compressed content is required.");
+        }
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size out of range: " + chunkSize);
+        }
+        if (wrappedKey.length > 0xFFFF) {
+            throw new IllegalArgumentException("Wrapped key too long: " + wrappedKey.length);
+        }
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        return codec == CompressionCodec.NONE
+                ? new EnvelopeHeader(VERSION_1, codec, -1, chunkSize, nonce, wrappedKey.clone())
+                : new EnvelopeHeader(VERSION_2, codec, contentLength, chunkSize, nonce, wrappedKey.clone());
+    }
+
+    /**
+     * Reads and validates a header from the start of an encrypted stream.
+     *
+     * @param in the stream positioned at the first byte of the object.
+     * @return the parsed header.
+     * @throws IOException if the stream is truncated or not in envelope format.
+     */
+    public static EnvelopeHeader read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            data.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an envelope-encrypted object.");
+            }
+            int version = data.readUnsignedByte();
+            if (version != VERSION_1 && version != VERSION_2) {
+                throw new IOException("Unsupported envelope version: " + version);
+            }
+            CompressionCodec codec = CompressionCodec.NONE;
+            long contentLength = -1;
+            if (version == VERSION_2) {
+                codec = CompressionCodec.fromId(data.readUnsignedByte());
+                contentLength = data.readLong();
+                if (contentLength < 0) {
+                    throw new IOException("Invalid content length in envelope header: " + contentLength);
+                }
+            }
+            int chunkSize = data.readInt();
+            if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+                throw new IOException("Invalid chunk size in envelope header: " + chunkSize);
+            }
+            byte[] nonce = new byte[NONCE_LENGTH];
+            data.readFully(nonce);
+            byte[] wrappedKey = new byte[data.readUnsignedShort()];
+            data.readFully(wrappedKey);
+            return new EnvelopeHeader(version, codec, contentLength, chunkSize, nonce, wrappedKey);
+        } catch (EOFException e) {
+            throw new IOException("Truncated envelope header.", e);
+        }
+    }
+
+    /**
+     * Checks whether the given bytes start with the envelope magic.
+     *
+     * @param prefix leading bytes of an object.
+     * @param length number of valid bytes in {@code prefix}.
+     * @return true if the object is in envelope format.
+     */
+    public static boolean hasMagic(byte[] prefix, int length) {
+        return length >= MAGIC.length && Arrays.equals(prefix, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Whether the chunks hold compressed content.
+     *
+     * @return true unless the content is stored as is.
+     */
+    public boolean isCompressed() {
+        return codec != CompressionCodec.NONE;
+    }
+
+    /**
+     * Length of the encoded header in bytes.
+     *
+     * @return header length.
+     */
+    public int length() {
+        return encoded.length;
+    }
+
+    private byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                MAGIC.length + 1 + 1 + 8 + 4 + NONCE_LENGTH + 2 + wrappedKey.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(version);
+            if (version == VERSION_2) {
+                out.writeByte(codec.getId());
+                out.writeLong(contentLength);
+            }
+            out.writeInt(chunkSize);
+            out.write(baseNonce);
+            out.writeShort(wrappedKey.length);
+            out.write(wrappedKey);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode envelope header.", e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,39 @@
+package com.securefilestorage.crypto;
+
+/**
+ * Source of the data keys of envelope encryption, selected with {@code key-provider.type}.
+ * <p>
+ * Implementations: {@link KmsKeyProvider} for AWS KMS and {@link LocalKeyProvider} for a master key
+ * held in process. A data key is wrapped under the master key; only the wrapped form is stored in
+ * the object header.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public interface KeyProvider {
+
+    /**
+     * Id of the master key that new data keys are wrapped under.
+     *
+     * @return the master key id.
+     */
+    String getKeyId();
+
+    /**
+     * Generates a fresh AES-256 data key.
+     *
+     * @param keyId master key that wraps the data key.
+     * @return the data key with its wrapped form.
+     */
+    DataKey generateDataKey(String keyId);
+
+    /**
+     * Decrypts a ciphertext of the master key: a wrapped data key, or with KMS also an object
+     * stored before the envelope format.
+     *
+     * @param ciphertext the ciphertext.
+     * @return the plaintext; the caller wipes it after use.
+     */
+    byte[] decrypt(byte[] ciphertext);
+}
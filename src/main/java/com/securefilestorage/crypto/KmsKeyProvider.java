@@ -0,0 +1,104 @@
+package com.securefilestorage.crypto;
+
+import com.securefilestorage.config.KeyProviderProperties;
+import com.securefilestorage.exception.AwsServiceException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.kms.model.DataKeySpec;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyRequest;
+import software.amazon.awssdk.services.kms.model.GenerateDataKeyResponse;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
+import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
+
+import java.util.Arrays;
+
+/**
+ * Key provider backed by AWS KMS; the default. The KMS key id is read from SSM Parameter Store
+ * on startup. KMS errors are passed on as {@link software.amazon.awssdk.services.kms.model.KmsException}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "key-provider", name = "type", havingValue = "kms", matchIfMissing = true)
+public class KmsKeyProvider implements KeyProvider {
+
+    /** AWS KMS client used to generate and unwrap data keys */
+    private final KmsClient kmsClient;
+
+    /** AWS SSM client for fetching the key id from Parameter Store */
+    private final SsmClient ssmClient;
+
+    /** Key provider configuration */
+    private final KeyProviderProperties keyProviderProperties;
+
+    /** KMS Key ID used for encryption and decryption */
+    private String kmsKeyId;
+
+    public KmsKeyProvider(final KmsClient kmsClient, final SsmClient ssmClient,
+                          final KeyProviderProperties keyProviderProperties) {
+        this.kmsClient = kmsClient;
+        this.ssmClient = ssmClient;
+        this.keyProviderProperties = keyProviderProperties;
+    }
+
+    @PostConstruct
+    private void init() {
+        this.kmsKeyId = fetchKmsKeyId();
+    }
+
+    /**
+     * Fetches the KMS Key ID from AWS Systems Manager Parameter Store.
+     *
+     * @return the KMS Key ID.
+     */
+    private String fetchKmsKeyId() {
+        try {
+            GetParameterRequest parameterRequest = GetParameterRequest.builder()
+                    .name(keyProviderProperties.getKms().getKeyIdParameter())
+                    .withDecryption(true)
+                    .build();
+
+            GetParameterResponse parameterResponse = ssmClient.getParameter(parameterRequest);
+            log.info("Successfully fetched KMS Key ID from Parameter Store.");
+            return parameterResponse.parameter().value();
+        } catch (Exception e) {
+            log.error("Failed to fetch KMS Key ID from Parameter Store.", e);
+            throw new AwsServiceException("Failed to fetch KMS Key ID from Parameter Store.", e);
+        }
+    }
+
+    @Override
+    public String getKeyId() {
+        return kmsKeyId;
+    }
+
+    @Override
+    public DataKey generateDataKey(String keyId) {
+        GenerateDataKeyResponse response = kmsClient.generateDataKey(GenerateDataKeyRequest.builder()
+                .keyId(keyId)
+                .keySpec(DataKeySpec.AES_256)
+                .build());
+        byte[] material = response.plaintext().asByteArray();
+        try {
+            return new DataKey(material, response.ciphertextBlob().asByteArray());
+        } finally {
+            Arrays.fill(material, (byte) 0);
+        }
+    }
+
+    @Override
+    public byte[] decrypt(byte[] ciphertext) {
+        return kmsClient.decrypt(DecryptRequest.builder()
+                .ciphertextBlob(SdkBytes.fromByteArray(ciphertext))
+                .build()).plaintext().asByteArray();
+    }
+}
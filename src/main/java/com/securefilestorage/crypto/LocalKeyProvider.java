@@ -0,0 +1,216 @@
+package com.securefilestorage.crypto;
+
+import com.securefilestorage.config.KeyProviderProperties;
+import com.securefilestorage.exception.KeyProviderException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Key provider that wraps data keys with a master key held in process, selected with
+ * {@code key-provider.type=local}. Local runs, CI and benchmarks get the real envelope
+ * encryption path without calls to AWS.
+ * <p>
+ * The master key is an AES-256 key read from a PKCS#12 keystore or from a key file. A wrapped
+ * data key is laid out as:
+ * <pre>
+ * version      1 byte   {@value #WRAP_VERSION}
+ * nonce       12 bytes  random
+ * ciphertext  32 bytes  data key encrypted with AES-GCM under the master key
+ * tag         16 bytes  GCM authentication tag; the version byte is authenticated data
+ * </pre>
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "key-provider", name = "type", havingValue = "local")
+public class LocalKeyProvider implements KeyProvider {
+
+    /** Format version of a wrapped data key */
+    static final byte WRAP_VERSION = 1;
+
+    private static final int KEY_LENGTH = 32;
+
+    private static final int WRAPPED_LENGTH = 1 + EnvelopeHeader.NONCE_LENGTH + KEY_LENGTH + EnvelopeFormat.TAG_LENGTH;
+
+    private final String keyId;
+
+    private final DataKey masterKey;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public LocalKeyProvider(final KeyProviderProperties keyProviderProperties) {
+        KeyProviderProperties.Local settings = keyProviderProperties.getLocal();
+        this.keyId = settings.getKeyId();
+        byte[] material = loadMasterKey(settings);
+        try {
+            if (material.length != KEY_LENGTH) {
+                throw new KeyProviderException("Master key must be " + KEY_LENGTH + " bytes, found " + material.length);
+            }
+            this.masterKey = new DataKey(material, new byte[0]);
+        } finally {
+            Arrays.fill(material, (byte) 0);
+        }
+        log.info("Using local master key {} for data keys.", keyId);
+    }
+
+    @Override
+    public String getKeyId() {
+        return keyId;
+    }
+
+    @Override
+    public DataKey generateDataKey(String keyId) {
+        byte[] material = new byte[KEY_LENGTH];
+        secureRandom.nextBytes(material);
+        try {
+            byte[] wrapped = new byte[WRAPPED_LENGTH];
+            wrapped[0] = WRAP_VERSION;
+            byte[] nonce = new byte[EnvelopeHeader.NONCE_LENGTH];
+            secureRandom.nextBytes(nonce);
+            System.arraycopy(nonce, 0, wrapped, 1, nonce.length);
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, nonce);
+            cipher.doFinal(material, 0, material.length, wrapped, 1 + nonce.length);
+            return new DataKey(material, wrapped);
+        } catch (GeneralSecurityException e) {
+            throw new KeyProviderException("Failed to wrap data key.", e);
+        } finally {
+            Arrays.fill(material, (byte) 0);
+        }
+    }
+
+    @Override
+    public byte[] decrypt(byte[] ciphertext) {
+        if (ciphertext.length != WRAPPED_LENGTH || ciphertext[0] != WRAP_VERSION) {
+            throw new KeyProviderException("Ciphertext was not wrapped by the local master key.");
+        }
+        try {
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE,
+                    Arrays.copyOfRange(ciphertext, 1, 1 + EnvelopeHeader.NONCE_LENGTH));
+            return cipher.doFinal(ciphertext, 1 + EnvelopeHeader.NONCE_LENGTH,
+                    ciphertext.length - 1 - EnvelopeHeader.NONCE_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new KeyProviderException("Failed to unwrap data key with the local master key.", e);
+        }
+    }
+
+    /**
+     * Wipes the master key on shutdown.
+     */
+    @PreDestroy
+    public void destroy() {
+        masterKey.destroy();
+    }
+
+    private Cipher cipher(int mode, byte[] nonce) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(EnvelopeFormat.TRANSFORMATION);
+        cipher.init(mode, masterKey, new GCMParameterSpec(EnvelopeFormat.TAG_LENGTH * 8, nonce));
+        cipher.updateAAD(new byte[]{WRAP_VERSION});
+        return cipher;
+    }
+
+    /**
+     * Reads the master key from the keystore if one is configured, otherwise from the key file.
+     *
+     * @param settings local provider settings.
+     * @return the key material; the caller wipes it.
+     */
+    private static byte[] loadMasterKey(KeyProviderProperties.Local settings) {
+        if (settings.getKeystore() != null && !settings.getKeystore().isBlank()) {
+            return loadFromKeystore(settings);
+        }
+        if (settings.getKeyFile() == null || settings.getKeyFile().isBlank()) {
+            throw new KeyProviderException(
+                    "key-provider.local.keystore or key-provider.local.key-file must be set for the local key provider.");
+        }
+        Path keyFile = Path.of(settings.getKeyFile());
+        try {
+            if (settings.isCreateIfMissing() && Files.notExists(keyFile)) {
+                createKeyFile(keyFile);
+            }
+            byte[] content = Files.readAllBytes(keyFile);
+            if (content.length == KEY_LENGTH) {
+                return content;
+            }
+            try {
+                return Base64.getDecoder().decode(new String(content, StandardCharsets.US_ASCII).strip());
+            } catch (IllegalArgumentException e) {
+                throw new KeyProviderException("Master key file is neither raw nor Base64: " + keyFile, e);
+            } finally {
+                Arrays.fill(content, (byte) 0);
+            }
+        } catch (IOException e) {
+            throw new KeyProviderException("Failed to read master key file: " + keyFile, e);
+        }
+    }
+
+    private static byte[] loadFromKeystore(KeyProviderProperties.Local settings) {
+        char[] password = settings.getKeystorePassword() == null
+                ? null : settings.getKeystorePassword().toCharArray();
+        try (InputStream in = Files.newInputStream(Path.of(settings.getKeystore()))) {
+            KeyStore keyStore = KeyStore.getInstance(settings.getKeystoreType());
+            keyStore.load(in, password);
+            Key key = keyStore.getKey(settings.getKeyAlias(), password);
+            if (!(key instanceof SecretKey secretKey)) {
+                throw new KeyProviderException("Keystore has no secret key under alias " + settings.getKeyAlias());
+            }
+            return secretKey.getEncoded();
+        } catch (IOException | GeneralSecurityException e) {
+            throw new KeyProviderException("Failed to load master key from keystore: " + settings.getKeystore(), e);
+        } finally {
+            if (password != null) {
+                Arrays.fill(password, '\0');
+            }
+        }
+    }
+
+    /**
+     * Writes a random Base64 master key readable only by its owner where the file system supports it.
+     */
+    private static void createKeyFile(Path keyFile) throws IOException {
+        byte[] material = new byte[KEY_LENGTH];
+        new SecureRandom().nextBytes(material);
+        try {
+            if (keyFile.getParent() != null) {
+                Files.createDirectories(keyFile.getParent());
+            }
+            try {
+                if (keyFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                    Files.createFile(keyFile, PosixFilePermissions.asFileAttribute(
+                            PosixFilePermissions.fromString("rw-------")));
+                } else {
+                    Files.createFile(keyFile);
+                }
+            } catch (FileAlreadyExistsException e) {
+                // Created concurrently, use that one
+                return;
+            }
+            Files.writeString(keyFile, Base64.getEncoder().encodeToString(material));
+            log.warn("Created a new local master key in {}; objects encrypted under it are unreadable without it.",
+                    keyFile);
+        } finally {
+            Arrays.fill(material, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.securefilestorage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO with the outcome of one key of a bulk delete.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchDeleteResult {
+
+    /**
+     * The S3 key of the file.
+     */
+    private String key;
+
+    /**
+     * Whether the object and its metadata were deleted.
+     */
+    private boolean success;
+
+    /**
+     * Failure reason; null if the delete succeeded.
+     */
+    private String error;
+}
@@ -0,0 +1,43 @@
+package com.securefilestorage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO with the outcome of one file of a batch upload.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchUploadResult {
+
+    /**
+     * Original file name of the part.
+     */
+    private String fileName;
+
+    /**
+     * Name the file is stored under; null if the upload failed.
+     */
+    private String storedFileName;
+
+    /**
+     * File size in bytes.
+     */
+    private Long fileSize;
+
+    /**
+     * Whether the file was stored.
+     */
+    private boolean success;
+
+    /**
+     * Failure reason; null if the upload succeeded.
+     */
+    private String error;
+}
@@ -0,0 +1,11 @@
+package com.securefilestorage.dto;
+
+/**
+ * Projection of a file and the shared blob holding its content.
+ */
+public interface FileBlobReference {
+
+    String getS3Key();
+
+    String getBlobKey();
+}
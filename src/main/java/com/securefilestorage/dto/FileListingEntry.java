@@ -0,0 +1,15 @@
+package com.securefilestorage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the {@code file_metadata} columns needed to list files page by page.
+ */
+public interface FileListingEntry {
+
+    Long getId();
+
+    String getS3Key();
+
+    LocalDateTime getUploadedAt();
+}
@@ -0,0 +1,40 @@
+package com.securefilestorage.dto;
+
+import com.securefilestorage.model.UploadJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO representing the state of an asynchronous upload job.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadJobResponse {
+
+    private UUID jobId;
+
+    private String fileName;
+
+    private UploadJobStatus status;
+
+    private Long fileSize;
+
+    private Long bytesUploaded;
+
+    private String storedFileName;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -1,6 +1,7 @@
 package com.securefilestorage.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -55,6 +56,44 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_GATEWAY, ex.getMessage());
     }
 
+    /**
+     * Handles RangeNotSatisfiableException.
+     *
+     * @param ex the RangeNotSatisfiableException.
+     * @return ResponseEntity with error details and the file length in {@code Content-Range}.
+     */
+    @ExceptionHandler(RangeNotSatisfiableException.class)
+    public ResponseEntity<Map<String, Object>> handleRangeNotSatisfiableException(RangeNotSatisfiableException ex) {
+        ResponseEntity<Map<String, Object>> error =
+                buildErrorResponse(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, ex.getMessage());
+        return ResponseEntity.status(error.getStatusCode())
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + ex.getTotalLength())
+                .body(error.getBody());
+    }
+
+    /**
+     * Handles UploadRejectedException.
+     *
+     * @param ex the UploadRejectedException.
+     * @return ResponseEntity with error details.
+     */
+    @ExceptionHandler(UploadRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleUploadRejectedException(UploadRejectedException ex) {
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    /**
+     * Handles KeyProviderException.
+     *
+     * @param ex the KeyProviderException.
+     * @return ResponseEntity with error details.
+     */
+    @ExceptionHandler(KeyProviderException.class)
+    public ResponseEntity<Map<String, Object>> handleKeyProviderException(KeyProviderException ex) {
+        log.error("Key provider error: {}", ex.getMessage(), ex);
+        return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+    }
+
     @ExceptionHandler(SecretsMappingException.class)
     public ResponseEntity<Map<String, Object>> handleSecretsMappingException(Exception ex) {
         return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
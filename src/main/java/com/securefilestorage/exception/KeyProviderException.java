@@ -0,0 +1,26 @@
+package com.securefilestorage.exception;
+
+/**
+ * Exception thrown when the local key provider cannot load its master key or wrap or unwrap a data key.
+ */
+public class KeyProviderException extends RuntimeException {
+
+    /**
+     * Constructs a new KeyProviderException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public KeyProviderException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new KeyProviderException with the specified detail message and cause.
+     *
+     * @param message the detail message.
+     * @param cause   the cause of the exception.
+     */
+    public KeyProviderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
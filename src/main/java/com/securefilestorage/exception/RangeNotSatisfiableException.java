@@ -0,0 +1,26 @@
+package com.securefilestorage.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a requested byte range lies outside the file.
+ */
+@Getter
+public class RangeNotSatisfiableException extends RuntimeException {
+
+    /**
+     * Length of the file in bytes, reported back in the {@code Content-Range} header.
+     */
+    private final long totalLength;
+
+    /**
+     * Constructs a new RangeNotSatisfiableException.
+     *
+     * @param message     the detail message.
+     * @param totalLength the length of the file in bytes.
+     */
+    public RangeNotSatisfiableException(String message, long totalLength) {
+        super(message);
+        this.totalLength = totalLength;
+    }
+}
@@ -0,0 +1,16 @@
+package com.securefilestorage.exception;
+
+/**
+ * Exception thrown when an asynchronous upload cannot be accepted right now.
+ */
+public class UploadRejectedException extends RuntimeException {
+
+    /**
+     * Constructs a new UploadRejectedException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public UploadRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package com.securefilestorage.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity for an encrypted object shared by identical uploads of one owner.
+ */
+@Entity
+@Table(name = "file_blob")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileBlob {
+
+    /**
+     * Primary key - Auto-generated ID, allocated in blocks of 50 to match the sequence increment.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AWS_STORAGE_UNIQUE_ID")
+    @SequenceGenerator(name = "AWS_STORAGE_UNIQUE_ID", sequenceName = "AWS_STORAGE_UNIQUE_ID", allocationSize = 50)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    /**
+     * Username of the owner; content is only shared between files of the same owner.
+     */
+    @Column(name = "owner", nullable = false)
+    private String owner;
+
+    /**
+     * Hex SHA-256 of the plaintext.
+     */
+    @Column(name = "content_hash", nullable = false)
+    private String contentHash;
+
+    /**
+     * Key of the encrypted object in the object store.
+     */
+    @Column(name = "blob_key", nullable = false, unique = true)
+    private String blobKey;
+
+    /**
+     * Plaintext size in bytes.
+     */
+    @Column(name = "blob_size", nullable = false)
+    private Long blobSize;
+
+    /**
+     * Number of file metadata rows pointing at the object.
+     */
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    /**
+     * Date and time when the object was stored.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -18,11 +18,11 @@ import java.time.LocalDateTime;
 public class FileMetadata {
 
     /**
-     * Primary key - Auto-generated ID.
+     * Primary key - Auto-generated ID, allocated in blocks of 50 to match the sequence increment.
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AWS_STORAGE_UNIQUE_ID")
-    @SequenceGenerator(name = "AWS_STORAGE_UNIQUE_ID", sequenceName = "AWS_STORAGE_UNIQUE_ID", allocationSize = 1)
+    @SequenceGenerator(name = "AWS_STORAGE_UNIQUE_ID", sequenceName = "AWS_STORAGE_UNIQUE_ID", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -44,6 +44,12 @@ public class FileMetadata {
     @Column(name="s3_key", nullable = false, unique = true)
     private String s3Key;
 
+    /**
+     * Key of the shared object holding the content, if deduplicated; otherwise the content is under the S3 key.
+     */
+    @Column(name="blob_key")
+    private String blobKey;
+
     /**
      * File size in bytes.
      */
@@ -0,0 +1,94 @@
+package com.securefilestorage.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * JPA Entity for asynchronous upload jobs whose content is spooled on local disk.
+ */
+@Entity
+@Table(name = "upload_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadJob {
+
+    /**
+     * Primary key - job id handed to the client.
+     */
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    /**
+     * Original file name uploaded by the user.
+     */
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    /**
+     * Username of the uploader, captured when the job is submitted.
+     */
+    @Column(name = "uploaded_by")
+    private String uploadedBy;
+
+    /**
+     * Local path of the spooled upload.
+     */
+    @Column(name = "spool_path", nullable = false)
+    private String spoolPath;
+
+    /**
+     * File size in bytes.
+     */
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    /**
+     * Plaintext bytes already sent through the cipher to S3.
+     */
+    @Column(name = "bytes_uploaded", nullable = false)
+    private Long bytesUploaded;
+
+    /**
+     * Job status.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private UploadJobStatus status;
+
+    /**
+     * The S3 key of the stored file, once completed.
+     */
+    @Column(name = "s3_key")
+    private String s3Key;
+
+    /**
+     * Failure reason, once failed.
+     */
+    @Column(name = "error")
+    private String error;
+
+    /**
+     * Attempts started so far, counted when a worker claims the job.
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    /**
+     * Date and time when the upload was accepted.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Date and time of the last status or progress change.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.securefilestorage.model;
+
+/**
+ * Lifecycle of an asynchronous upload job.
+ */
+public enum UploadJobStatus {
+
+    /** Spooled to local disk, waiting for a worker */
+    PENDING,
+
+    /** Being encrypted and uploaded to S3 */
+    RUNNING,
+
+    /** Stored in S3, metadata saved, spool removed */
+    COMPLETED,
+
+    /** Failed for good, spool removed */
+    FAILED
+}
@@ -20,11 +20,11 @@ import java.time.ZonedDateTime;
 public class User {
 
     /**
-     * Primary Key.
+     * Primary Key, allocated in blocks of 50 to match the sequence increment.
      */
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AWS_STORAGE_UNIQUE_ID")
-    @SequenceGenerator(name = "AWS_STORAGE_UNIQUE_ID", sequenceName = "AWS_STORAGE_UNIQUE_ID", allocationSize = 1)
+    @SequenceGenerator(name = "AWS_STORAGE_UNIQUE_ID", sequenceName = "AWS_STORAGE_UNIQUE_ID", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -0,0 +1,72 @@
+package com.securefilestorage.repository;
+
+import com.securefilestorage.model.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for managing FileBlob entities. Reference counts are only changed by the
+ * conditional statements below, so concurrent uploads and deletes never resurrect a released blob.
+ */
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+    /**
+     * Find the blob of an owner by content hash.
+     *
+     * @param owner       the owner.
+     * @param contentHash hex SHA-256 of the plaintext.
+     * @return Optional FileBlob.
+     */
+    Optional<FileBlob> findByOwnerAndContentHash(String owner, String contentHash);
+
+    /**
+     * Object keys among the given ones that hold a shared blob.
+     *
+     * @param blobKeys candidate object keys.
+     * @return the keys of existing blobs.
+     */
+    @Query("SELECT b.blobKey FROM FileBlob b WHERE b.blobKey IN :blobKeys")
+    List<String> findBlobKeysIn(@Param("blobKeys") Collection<String> blobKeys);
+
+    /**
+     * Adds a reference to a blob unless it has already been released.
+     *
+     * @param id the blob id.
+     * @return 1 if the reference was added, 0 if the blob is gone or being removed.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount + 1 WHERE b.id = :id AND b.refCount > 0")
+    int acquire(@Param("id") long id);
+
+    /**
+     * Drops references to a blob.
+     *
+     * @param blobKey the object key of the blob.
+     * @param count   number of references to drop.
+     * @return number of updated rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - :count WHERE b.blobKey = :blobKey")
+    int release(@Param("blobKey") String blobKey, @Param("count") int count);
+
+    /**
+     * Removes a blob that has no references left. Only one of several concurrent callers gets 1,
+     * and that caller deletes the object.
+     *
+     * @param blobKey the object key of the blob.
+     * @return 1 if the blob was removed, 0 if it is still referenced or already removed.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.blobKey = :blobKey AND b.refCount <= 0")
+    int deleteUnreferenced(@Param("blobKey") String blobKey);
+}
@@ -1,8 +1,16 @@
 package com.securefilestorage.repository;
 
+import com.securefilestorage.dto.FileBlobReference;
+import com.securefilestorage.dto.FileListingEntry;
 import com.securefilestorage.model.FileMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,4 +42,79 @@ public interface FileMetadataRepository extends JpaRepository<FileMetadata, Long
      */
     void deleteByFileName(String originalFileName);
 
+    /**
+     * Set-based deletion of FileMetadata by S3 key, in one statement without loading the entities.
+     *
+     * @param s3Keys the S3 keys.
+     * @return number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileMetadata m WHERE m.s3Key IN :s3Keys")
+    int deleteByS3KeyIn(@Param("s3Keys") Collection<String> s3Keys);
+
+    /**
+     * Key of the shared object holding the content of a file.
+     *
+     * @param s3Key the S3 key of the file.
+     * @return the blob key, empty if the file is stored under its own key or does not exist.
+     */
+    @Query("SELECT m.blobKey FROM FileMetadata m WHERE m.s3Key = :s3Key")
+    Optional<String> findBlobKeyByS3Key(@Param("s3Key") String s3Key);
+
+    /**
+     * Shared objects holding the content of files, for the files that have one.
+     *
+     * @param s3Keys the S3 keys of the files.
+     * @return the deduplicated files among them.
+     */
+    @Query("SELECT m.s3Key AS s3Key, m.blobKey AS blobKey FROM FileMetadata m "
+            + "WHERE m.s3Key IN :s3Keys AND m.blobKey IS NOT NULL")
+    List<FileBlobReference> findBlobReferences(@Param("s3Keys") Collection<String> s3Keys);
+
+    /**
+     * Deletes the metadata of a deduplicated file. Only one of several concurrent deletes of the
+     * same file gets 1, so its blob reference is released once.
+     *
+     * @param s3Key   the S3 key of the file.
+     * @param blobKey the key of its shared object.
+     * @return number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileMetadata m WHERE m.s3Key = :s3Key AND m.blobKey = :blobKey")
+    int deleteShared(@Param("s3Key") String s3Key, @Param("blobKey") String blobKey);
+
+    /**
+     * First page of the file listing, newest first.
+     *
+     * @param limit maximum number of rows.
+     * @return the page.
+     */
+    @Query(value = """
+            SELECT id AS "id", s3_key AS "s3Key", upload_date AS "uploadedAt"
+            FROM file_metadata
+            ORDER BY upload_date DESC, id DESC
+            LIMIT :limit""", nativeQuery = true)
+    List<FileListingEntry> findListingPage(@Param("limit") int limit);
+
+    /**
+     * Next page of the file listing after the given cursor, using the
+     * {@code (upload_date, id)} index instead of an offset.
+     *
+     * @param uploadedAt upload date of the last row of the previous page.
+     * @param id         id of the last row of the previous page.
+     * @param limit      maximum number of rows.
+     * @return the page.
+     */
+    @Query(value = """
+            SELECT id AS "id", s3_key AS "s3Key", upload_date AS "uploadedAt"
+            FROM file_metadata
+            WHERE (upload_date, id) < (:uploadedAt, :id)
+            ORDER BY upload_date DESC, id DESC
+            LIMIT :limit""", nativeQuery = true)
+    List<FileListingEntry> findListingPageAfter(@Param("uploadedAt") LocalDateTime uploadedAt,
+                                                @Param("id") long id,
+                                                @Param("limit") int limit);
+
 }
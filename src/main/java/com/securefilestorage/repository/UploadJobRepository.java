@@ -0,0 +1,82 @@
+package com.securefilestorage.repository;
+
+import com.securefilestorage.model.UploadJob;
+import com.securefilestorage.model.UploadJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for managing UploadJob entities.
+ */
+public interface UploadJobRepository extends JpaRepository<UploadJob, UUID> {
+
+    /**
+     * Find jobs in any of the given states.
+     *
+     * @param statuses the states.
+     * @return the jobs.
+     */
+    List<UploadJob> findByStatusIn(Collection<UploadJobStatus> statuses);
+
+    /**
+     * Find a job submitted by the given user.
+     *
+     * @param id         the job id.
+     * @param uploadedBy the submitting user.
+     * @return Optional UploadJob.
+     */
+    Optional<UploadJob> findByIdAndUploadedBy(UUID id, String uploadedBy);
+
+    /**
+     * Moves a job from one state to another if it is still in the expected state,
+     * so only one worker can claim a job.
+     *
+     * @param id   the job id.
+     * @param from the expected current state.
+     * @param to   the new state.
+     * @param now  the change time.
+     * @return 1 if the job was moved, 0 otherwise.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadJob j SET j.status = :to, j.updatedAt = :now WHERE j.id = :id AND j.status = :from")
+    int transition(@Param("id") UUID id, @Param("from") UploadJobStatus from,
+                   @Param("to") UploadJobStatus to, @Param("now") LocalDateTime now);
+
+    /**
+     * Claims a pending job for a worker and counts the attempt, so only one worker runs a job at a time.
+     *
+     * @param id  the job id.
+     * @param now the change time.
+     * @return 1 if the job was claimed, 0 otherwise.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadJob j SET j.status = com.securefilestorage.model.UploadJobStatus.RUNNING, "
+            + "j.attempts = j.attempts + 1, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.status = com.securefilestorage.model.UploadJobStatus.PENDING")
+    int claim(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    /**
+     * Records upload progress of a job.
+     *
+     * @param id            the job id.
+     * @param bytesUploaded plaintext bytes uploaded so far.
+     * @param now           the change time.
+     * @return number of updated rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UploadJob j SET j.bytesUploaded = :bytesUploaded, j.updatedAt = :now WHERE j.id = :id")
+    int updateProgress(@Param("id") UUID id, @Param("bytesUploaded") long bytesUploaded,
+                       @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,46 @@
+package com.securefilestorage.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Username/password authentication that skips the database lookup and the BCrypt check for
+ * credentials verified within the last {@code security.auth-cache.credential-ttl}.
+ * <p>
+ * Users come from the {@link CredentialCache}; on a failed check against a cached user the base
+ * provider reloads the user from the database and checks again, so a stale entry never rejects
+ * a valid password.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final CredentialCache credentialCache;
+
+    public CachingAuthenticationProvider(UserDetailsService userDetailsService,
+                                         PasswordEncoder passwordEncoder,
+                                         CredentialCache credentialCache) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        setUserCache(credentialCache);
+        this.credentialCache = credentialCache;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials != null && credentialCache.isVerified(userDetails, credentials.toString())) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        credentialCache.recordVerified(userDetails, credentials.toString());
+    }
+}
@@ -0,0 +1,154 @@
+package com.securefilestorage.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Short-lived caches for HTTP Basic authentication: {@link UserDetails} by login, and credential
+ * checks that already passed BCrypt.
+ * <p>
+ * A verified credential is keyed by an HMAC-SHA256 of login and password under a random key that
+ * never leaves this process, so neither passwords nor offline-crackable hashes are held in memory.
+ * An entry only counts while the stored password hash it was verified against is still current,
+ * and {@link #invalidate(String)} drops both caches for a login when its password changes or the
+ * user is deleted. Cached {@code UserDetails} are handed out as copies, because Spring Security
+ * erases the credentials of the principal after authentication.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class CredentialCache implements UserCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+
+    /** Process-local HMAC key for credential cache keys */
+    private final SecretKeySpec hashKey;
+
+    private final Cache<String, UserDetails> userDetails;
+
+    private final Cache<ByteBuffer, VerifiedCredential> verifiedCredentials;
+
+    public CredentialCache(@Value("${security.auth-cache.enabled:true}") boolean enabled,
+                           @Value("${security.auth-cache.credential-ttl:60s}") Duration credentialTtl,
+                           @Value("${security.auth-cache.user-details-ttl:5m}") Duration userDetailsTtl,
+                           @Value("${security.auth-cache.max-entries:10000}") long maxEntries,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hashKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.userDetails = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(userDetailsTtl)
+                .recordStats()
+                .build();
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(credentialTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetails, "auth.user.details");
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedCredentials, "auth.credentials");
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        if (!enabled) {
+            return null;
+        }
+        UserDetails cached = userDetails.getIfPresent(username);
+        return cached != null ? User.withUserDetails(cached).build() : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (enabled) {
+            userDetails.put(user.getUsername(), User.withUserDetails(user).build());
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        userDetails.invalidate(username);
+    }
+
+    /**
+     * Checks whether this password was verified for the user recently.
+     *
+     * @param user              the user as loaded for this authentication.
+     * @param presentedPassword the raw password from the request.
+     * @return true if the same credentials passed BCrypt against the user's current password hash.
+     */
+    public boolean isVerified(UserDetails user, String presentedPassword) {
+        if (!enabled || user.getPassword() == null) {
+            return false;
+        }
+        VerifiedCredential verified = verifiedCredentials.getIfPresent(credentialKey(user.getUsername(), presentedPassword));
+        return verified != null
+                && verified.login().equals(user.getUsername())
+                && MessageDigest.isEqual(verified.passwordHash().getBytes(StandardCharsets.UTF_8),
+                user.getPassword().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Remembers credentials that just passed BCrypt.
+     *
+     * @param user              the authenticated user.
+     * @param presentedPassword the raw password from the request.
+     */
+    public void recordVerified(UserDetails user, String presentedPassword) {
+        if (enabled && user.getPassword() != null) {
+            verifiedCredentials.put(credentialKey(user.getUsername(), presentedPassword),
+                    new VerifiedCredential(user.getUsername(), user.getPassword()));
+        }
+    }
+
+    /**
+     * Drops everything cached for a login.
+     *
+     * @param login the login whose password changed or which was deleted.
+     */
+    public void invalidate(String login) {
+        userDetails.invalidate(login);
+        verifiedCredentials.asMap().values().removeIf(verified -> verified.login().equals(login));
+    }
+
+    private ByteBuffer credentialKey(String login, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hashKey);
+            mac.update(login.getBytes(StandardCharsets.UTF_8));
+            // Separator so that ("ab", "c") and ("a", "bc") do not collide.
+            mac.update((byte) 0);
+            return ByteBuffer.wrap(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available.", e);
+        }
+    }
+
+    /**
+     * Login and stored password hash that a cached credential was verified against.
+     */
+    private record VerifiedCredential(String login, String passwordHash) {
+    }
+}
@@ -1,26 +1,67 @@
 package com.securefilestorage.security;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 
 /**
  * Utility class for generating and validating JWT tokens.
+ * <p>
+ * The signing key and parser are built once. Verified tokens are cached by their SHA-256 hash
+ * until they expire, so a repeated bearer token costs one hash instead of HMAC verification and
+ * JSON parsing. Only tokens that passed full verification are ever cached.
  */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final long jwtExpirationMs;
 
-    @Value("${jwt.expiration-ms}")
-    private long jwtExpirationMs;
+    private final Key signingKey;
+
+    private final JwtParser parser;
+
+    /** Verified tokens by SHA-256 of the token; null when the cache is disabled */
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String jwtSecret,
+                   @Value("${jwt.expiration-ms}") long jwtExpirationMs,
+                   @Value("${jwt.cache.enabled:true}") boolean cacheEnabled,
+                   @Value("${jwt.cache.max-entries:10000}") long cacheMaxEntries,
+                   MeterRegistry meterRegistry) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        // Key strength is checked by jjwt when signing or verifying, as before.
+        this.signingKey = new SecretKeySpec(jwtSecret.getBytes(), SignatureAlgorithm.HS512.getJcaName());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        if (cacheEnabled) {
+            this.verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxEntries)
+                    .expireAfter(new UntilTokenExpiry())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
+        } else {
+            this.verifiedTokens = null;
+        }
+    }
 
     /**
      * Generate a JWT token for the given username.
@@ -32,13 +73,11 @@ public class JwtUtil {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
-        Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(key, SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -49,15 +88,74 @@ public class JwtUtil {
      * @return the username if valid, null otherwise.
      */
     public String validateToken(String token) {
+        if (verifiedTokens == null) {
+            return verify(token);
+        }
+        ByteBuffer tokenHash = sha256(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAtMillis()) {
+                return cached.username();
+            }
+            verifiedTokens.invalidate(tokenHash);
+            return null;
+        }
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(jwtSecret.getBytes())
-                    .build()
-                    .parseClaimsJws(token)
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            // Tokens without an expiry are verified every time rather than cached forever.
+            if (claims.getExpiration() != null && claims.getSubject() != null) {
+                verifiedTokens.put(tokenHash,
+                        new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime()));
+            }
+            return claims.getSubject();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String verify(String token) {
+        try {
+            return parser.parseClaimsJws(token)
                     .getBody()
                     .getSubject();
         } catch (Exception e) {
             return null;
         }
     }
+
+    private static ByteBuffer sha256(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Subject and expiry of a token whose signature has been verified.
+     */
+    private record VerifiedToken(String username, long expiresAtMillis) {
+    }
+
+    /**
+     * Keeps each cached token until its own expiry.
+     */
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            return Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
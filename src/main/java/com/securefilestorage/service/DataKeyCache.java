@@ -0,0 +1,240 @@
+package com.securefilestorage.service;
+
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.crypto.KeyProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded reuse cache for data keys on the upload path.
+ * <p>
+ * Keeps at most one active data key per master key id. A key is handed out again until it reaches
+ * its maximum age, its maximum number of files or its maximum number of plaintext bytes; after
+ * that a new key is generated and the old one is wiped once the last upload using it finishes.
+ * Each file still gets its own random nonce in the object header.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+@Slf4j
+public class DataKeyCache {
+
+    /** Generates the data keys */
+    private final KeyProvider keyProvider;
+
+    /** AWS configuration properties */
+    private final AwsProperties awsProperties;
+
+    /** Active data key per master key id */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Serializes key generation per master key id */
+    private final Map<String, ReentrantLock> refreshLocks = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter bypasses;
+
+    public DataKeyCache(final KeyProvider keyProvider, final AwsProperties awsProperties, final MeterRegistry meterRegistry) {
+        this.keyProvider = keyProvider;
+        this.awsProperties = awsProperties;
+        this.meterRegistry = meterRegistry;
+        this.hits = gets("hit");
+        this.misses = gets("miss");
+        this.bypasses = gets("bypass");
+        Gauge.builder("datakey.cache.size", entries, Map::size)
+                .description("Data keys currently cached for encryption")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Leases a data key for encrypting one file of the given size.
+     * The lease must be closed when the file has been encrypted.
+     *
+     * @param keyId          master key that wraps the data key.
+     * @param plaintextBytes number of plaintext bytes that will be encrypted.
+     * @return the lease holding the data key.
+     */
+    public DataKeyLease acquire(String keyId, long plaintextBytes) {
+        AwsProperties.DataKeyCache limits = awsProperties.getEncryption().getDataKeyCache();
+        if (!limits.isEnabled() || plaintextBytes > limits.getMaxBytes().toBytes()) {
+            bypasses.increment();
+            return new DataKeyLease(keyProvider.generateDataKey(keyId), null);
+        }
+        Entry current = entries.get(keyId);
+        if (current != null && current.tryReserve(plaintextBytes, limits) == null) {
+            hits.increment();
+            return new DataKeyLease(current.key, current);
+        }
+        // The key provider is called under a per-key ReentrantLock rather than inside the map's bin lock,
+        // so waiting uploads do not pin carrier threads when running on virtual threads.
+        ReentrantLock lock = refreshLocks.computeIfAbsent(keyId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            current = entries.get(keyId);
+            if (current != null) {
+                String reason = current.tryReserve(plaintextBytes, limits);
+                if (reason == null) {
+                    hits.increment();
+                    return new DataKeyLease(current.key, current);
+                }
+                entries.remove(keyId, current);
+                retire(current, reason);
+            }
+            Entry fresh = new Entry(keyProvider.generateDataKey(keyId), System.nanoTime());
+            fresh.reserve(plaintextBytes);
+            entries.put(keyId, fresh);
+            misses.increment();
+            return new DataKeyLease(fresh.key, fresh);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wipes all cached keys on shutdown.
+     */
+    @PreDestroy
+    public void clear() {
+        entries.keySet().forEach(id -> entries.computeIfPresent(id, (k, entry) -> {
+            retire(entry, "shutdown");
+            return null;
+        }));
+    }
+
+    private void retire(Entry entry, String reason) {
+        log.debug("Retiring cached data key: {}", reason);
+        meterRegistry.counter("datakey.cache.retirements", "reason", reason).increment();
+        entry.retire();
+    }
+
+    private Counter gets(String result) {
+        return Counter.builder("datakey.cache.gets")
+                .description("Data key requests on the upload path")
+                .tag("cache", "encrypt")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A data key handed out for one upload.
+     */
+    public static final class DataKeyLease implements AutoCloseable {
+
+        private final DataKey key;
+
+        private final Entry entry;
+
+        private boolean closed;
+
+        private DataKeyLease(DataKey key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        /**
+         * The leased data key.
+         *
+         * @return the data key.
+         */
+        public DataKey getKey() {
+            return key;
+        }
+
+        /**
+         * Releases the key; an uncached or retired key is wiped when its last lease closes.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (entry == null) {
+                key.destroy();
+            } else {
+                entry.release();
+            }
+        }
+    }
+
+    /**
+     * Usage of one cached data key.
+     */
+    private static final class Entry {
+
+        private final DataKey key;
+
+        private final long createdNanos;
+
+        private long files;
+
+        private long bytes;
+
+        private int leases;
+
+        private boolean retired;
+
+        private Entry(DataKey key, long createdNanos) {
+            this.key = key;
+            this.createdNanos = createdNanos;
+        }
+
+        /**
+         * Reserves the key for one more file unless that would exceed a limit.
+         *
+         * @return null if reserved, otherwise the exhausted limit.
+         */
+        private synchronized String tryReserve(long plaintextBytes, AwsProperties.DataKeyCache limits) {
+            if (retired) {
+                return "retired";
+            }
+            if (System.nanoTime() - createdNanos >= limits.getMaxAge().toNanos()) {
+                return "age";
+            }
+            if (files + 1 > limits.getMaxFiles()) {
+                return "files";
+            }
+            if (bytes + plaintextBytes > limits.getMaxBytes().toBytes()) {
+                return "bytes";
+            }
+            reserve(plaintextBytes);
+            return null;
+        }
+
+        private synchronized void reserve(long plaintextBytes) {
+            files++;
+            bytes += plaintextBytes;
+            leases++;
+        }
+
+        private synchronized void release() {
+            leases--;
+            if (retired && leases == 0) {
+                key.destroy();
+            }
+        }
+
+        private synchronized void retire() {
+            retired = true;
+            if (leases == 0) {
+                key.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.securefilestorage.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.crypto.KeyProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bounded, time-limited cache of unwrapped data keys on the download path.
+ * <p>
+ * Entries are keyed by the wrapped data key from the object header, so repeated downloads of
+ * the same file (or of files sharing a data key) skip the unwrap call, a KMS Decrypt with the
+ * default key provider. Evicted keys are wiped, and callers always receive a private copy that they destroy after use.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+@Slf4j
+public class DecryptedKeyCache {
+
+    /** Unwraps the data keys */
+    private final KeyProvider keyProvider;
+
+    /** Whether the cache is used at all */
+    private final boolean enabled;
+
+    /** Unwrapped data keys by wrapped key bytes */
+    private final Cache<ByteBuffer, DataKey> cache;
+
+    public DecryptedKeyCache(final KeyProvider keyProvider, final AwsProperties awsProperties,
+                             final MeterRegistry meterRegistry) {
+        AwsProperties.DecryptedKeyCache settings = awsProperties.getEncryption().getDecryptedKeyCache();
+        this.keyProvider = keyProvider;
+        this.enabled = settings.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .expireAfterWrite(settings.getTtl())
+                .removalListener((ByteBuffer wrappedKey, DataKey key, RemovalCause cause) -> {
+                    if (key != null) {
+                        key.destroy();
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "datakey.decrypt");
+        Gauge.builder("datakey.decrypt.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of data key unwraps served without calling KMS")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Unwraps a data key, from the cache if possible.
+     *
+     * @param wrappedKey the wrapped key from the object header.
+     * @return a private copy of the data key; the caller must destroy it after use.
+     */
+    public DataKey decrypt(byte[] wrappedKey) {
+        if (!enabled) {
+            return unwrap(wrappedKey);
+        }
+        ByteBuffer cacheKey = ByteBuffer.wrap(wrappedKey.clone());
+        DataKey cached = cache.getIfPresent(cacheKey);
+        if (cached == null) {
+            // Unwrap outside Caffeine's compute so a slow KMS call does not hold a map lock
+            // (which would pin the carrier of a virtual thread); concurrent misses may both unwrap.
+            DataKey unwrapped = unwrap(wrappedKey);
+            cached = cache.asMap().putIfAbsent(cacheKey, unwrapped);
+            if (cached == null) {
+                cached = unwrapped;
+            } else {
+                unwrapped.destroy();
+            }
+        }
+        try {
+            byte[] material = cached.getEncoded();
+            try {
+                // An eviction racing with the copy may have wiped the material under us.
+                if (!cached.isDestroyed()) {
+                    return new DataKey(material, wrappedKey);
+                }
+            } finally {
+                Arrays.fill(material, (byte) 0);
+            }
+        } catch (IllegalStateException e) {
+            log.debug("Cached data key was evicted while in use, unwrapping again.");
+        }
+        return unwrap(wrappedKey);
+    }
+
+    /**
+     * Wipes all cached keys on shutdown.
+     */
+    @PreDestroy
+    public void clear() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    /**
+     * Unwraps a data key with the key provider.
+     *
+     * @param wrappedKey the wrapped key from the object header.
+     * @return the plaintext data key.
+     */
+    private DataKey unwrap(byte[] wrappedKey) {
+        byte[] material = keyProvider.decrypt(wrappedKey);
+        try {
+            return new DataKey(material, wrappedKey);
+        } finally {
+            Arrays.fill(material, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.securefilestorage.service;
+
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.crypto.CompressionCodec;
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.crypto.DecryptingInputStream;
+import com.securefilestorage.crypto.EncryptingOutputStream;
+import com.securefilestorage.crypto.EnvelopeFormat;
+import com.securefilestorage.crypto.EnvelopeHeader;
+import com.securefilestorage.crypto.KeyProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.security.SecureRandom;
+import java.util.zip.Deflater;
+
+/**
+ * Envelope encryption of file contents.
+ * <p>
+ * Data keys are AES-256 keys generated by the {@link KeyProvider} (AWS KMS by default) and shared between uploads within the limits
+ * of the {@link DataKeyCache}. The file body is encrypted locally in authenticated AES-GCM chunks
+ * and only the wrapped data key is stored with the object, so plaintext never leaves the JVM and
+ * KMS traffic does not depend on the file size. Content whose first chunk compresses well can be
+ * DEFLATE-compressed before encryption, since ciphertext no longer compresses.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EnvelopeEncryptionService {
+
+    /** Key provider, used directly to decrypt legacy objects */
+    private final KeyProvider keyProvider;
+
+    /** Reuse cache for data keys on the upload path */
+    private final DataKeyCache dataKeyCache;
+
+    /** Cache of unwrapped data keys on the download path */
+    private final DecryptedKeyCache decryptedKeyCache;
+
+    /** AWS configuration properties */
+    private final AwsProperties awsProperties;
+
+    /** Records cipher time per stream */
+    private final StorageMetrics storageMetrics;
+
+    /** Source of per-object nonces */
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * Opens a stream that envelope-encrypts everything written to it into {@code target}.
+     * Closing the returned stream seals the last chunk and closes {@code target}; on failure
+     * the stream must be aborted instead so the data key lease is released.
+     *
+     * @param target         destination of the encrypted object.
+     * @param keyId          master key that wraps the data key.
+     * @param plaintextBytes number of plaintext bytes that will be written, counted against the key limits.
+     * @return the encrypting stream.
+     * @throws IOException if the header cannot be written.
+     */
+    public EncryptingOutputStream encryptingStream(OutputStream target, String keyId, long plaintextBytes)
+            throws IOException {
+        return encryptingStream(target, keyId, plaintextBytes, CompressionCodec.NONE);
+    }
+
+    /**
+     * Opens a stream that envelope-encrypts content compressed with {@code codec} into {@code target}.
+     * The codec and the uncompressed length are recorded in the header; the caller compresses.
+     *
+     * @param target         destination of the encrypted object.
+     * @param keyId          master key that wraps the data key.
+     * @param plaintextBytes file size before compression, counted against the key limits.
+     * @param codec          compression of the content written to the stream.
+     * @return the encrypting stream.
+     * @throws IOException if the header cannot be written.
+     */
+    public EncryptingOutputStream encryptingStream(OutputStream target, String keyId, long plaintextBytes,
+                                                   CompressionCodec codec) throws IOException {
+        DataKeyCache.DataKeyLease lease = dataKeyCache.acquire(keyId, plaintextBytes);
+        try {
+            EnvelopeHeader header = EnvelopeHeader.create(awsProperties.getEncryption().getChunkSize(),
+                    lease.getKey().getWrappedKey(), codec, plaintextBytes, secureRandom);
+            return new EncryptingOutputStream(target, lease.getKey(), header) {
+                private boolean recorded;
+
+                @Override
+                public void close() throws IOException {
+                    boolean sealed = false;
+                    try {
+                        super.close();
+                        sealed = true;
+                    } finally {
+                        record(sealed);
+                    }
+                }
+
+                @Override
+                public void abort() {
+                    super.abort();
+                    record(false);
+                }
+
+                @Override
+                protected void release() {
+                    lease.close();
+                }
+
+                private void record(boolean success) {
+                    if (!recorded) {
+                        recorded = true;
+                        storageMetrics.recordStage(StorageMetrics.ENCRYPT, success, getCipherNanos());
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a file of the given size is considered for compression. Files reaching the parallel
+     * download threshold are stored uncompressed: a range of compressed content can only be read by
+     * inflating everything before it, while uncompressed chunks are fetched and decrypted on their own.
+     *
+     * @param plaintextBytes the file size.
+     * @return true if compression is enabled and the file is at least the minimum size and below the
+     * parallel download threshold.
+     */
+    public boolean isCompressible(long plaintextBytes) {
+        AwsProperties.Compression settings = awsProperties.getEncryption().getCompression();
+        return settings.isEnabled()
+                && plaintextBytes >= settings.getMinSize().toBytes()
+                && plaintextBytes < awsProperties.getDownload().getParallelThreshold().toBytes();
+    }
+
+    /**
+     * Chooses the compression of a file from a sample of its content, normally its first chunk.
+     * Content that is already compressed, such as images, archives or video, is stored as is.
+     *
+     * @param sample leading bytes of the file.
+     * @return {@link CompressionCodec#DEFLATE} if the sample compresses to at most the configured
+     * ratio, otherwise {@link CompressionCodec#NONE}.
+     */
+    public CompressionCodec selectCodec(byte[] sample) {
+        AwsProperties.Compression settings = awsProperties.getEncryption().getCompression();
+        if (sample.length == 0) {
+            return CompressionCodec.NONE;
+        }
+        long limit = (long) (sample.length * settings.getMaxRatio());
+        Deflater deflater = new Deflater(settings.getLevel());
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] output = new byte[Math.min(sample.length, 16 * 1024)];
+            while (!deflater.finished()) {
+                deflater.deflate(output);
+                if (deflater.getBytesWritten() > limit) {
+                    return CompressionCodec.NONE;
+                }
+            }
+            return CompressionCodec.DEFLATE;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Opens a stream that decrypts an envelope-encrypted object read from {@code source}.
+     *
+     * @param source the encrypted object, positioned at its first byte.
+     * @return the decrypting stream.
+     * @throws IOException if the header is missing or invalid.
+     */
+    public DecryptingInputStream decryptingStream(InputStream source) throws IOException {
+        EnvelopeHeader header = EnvelopeHeader.read(source);
+        return decryptingStream(source, header, 0, -1, -1);
+    }
+
+    /**
+     * Opens a stream that decrypts a contiguous run of chunks of an object, e.g. the body
+     * of a ranged GET whose header was read separately.
+     *
+     * @param chunks      source positioned at the first byte of chunk {@code firstChunk}.
+     * @param header      the object header.
+     * @param firstChunk  index of the first chunk in {@code chunks}.
+     * @param lastChunk   index of the last chunk to decrypt, or -1 for all remaining chunks.
+     * @param totalChunks total number of chunks in the object, or -1 if unknown.
+     * @return the decrypting stream.
+     */
+    public DecryptingInputStream decryptingStream(InputStream chunks, EnvelopeHeader header,
+                                                  long firstChunk, long lastChunk, long totalChunks) {
+        DataKey dataKey = decryptedKeyCache.decrypt(header.getWrappedKey());
+        return new DecryptingInputStream(chunks, dataKey, header, firstChunk, lastChunk, totalChunks) {
+            private boolean failed;
+
+            private boolean recorded;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try {
+                    return super.read(b, off, len);
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    dataKey.destroy();
+                    if (!recorded) {
+                        recorded = true;
+                        storageMetrics.recordStage(StorageMetrics.DECRYPT, !failed, getCipherNanos());
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Opens a decrypting stream over an encrypted object of known length. Legacy objects
+     * encrypted directly by KMS are at most 4 KB and are decrypted in memory.
+     *
+     * @param source       the encrypted object, positioned at its first byte.
+     * @param objectLength total length of the encrypted object.
+     * @return the plaintext stream and its length.
+     * @throws IOException if the object is corrupt.
+     */
+    public DecryptedStream decryptingStream(InputStream source, long objectLength) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(source, EnvelopeHeader.MAGIC.length);
+        byte[] prefix = in.readNBytes(EnvelopeHeader.MAGIC.length);
+        in.unread(prefix);
+        if (!EnvelopeHeader.hasMagic(prefix, prefix.length)) {
+            byte[] plaintext = decrypt(in.readAllBytes());
+            in.close();
+            return new DecryptedStream(new ByteArrayInputStream(plaintext), plaintext.length);
+        }
+        DecryptingInputStream decrypting = decryptingStream(in);
+        EnvelopeHeader header = decrypting.getHeader();
+        if (header.isCompressed()) {
+            return new DecryptedStream(header.getCodec().decompressingStream(decrypting), header.getContentLength());
+        }
+        return new DecryptedStream(decrypting, EnvelopeFormat.plaintextLength(objectLength, header));
+    }
+
+    /**
+     * Envelope-encrypts a whole byte array.
+     *
+     * @param plaintext the file data.
+     * @param keyId     master key that wraps the data key.
+     * @return the encrypted object.
+     * @throws IOException if encryption fails.
+     */
+    public byte[] encrypt(byte[] plaintext, String keyId) throws IOException {
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream(plaintext.length + 1024);
+        try (EncryptingOutputStream out = encryptingStream(encrypted, keyId, plaintext.length)) {
+            out.write(plaintext);
+        }
+        return encrypted.toByteArray();
+    }
+
+    /**
+     * Decrypts a whole encrypted object. Objects stored before the envelope format was
+     * introduced were encrypted directly by KMS and are still decrypted that way.
+     *
+     * @param encryptedData the encrypted object.
+     * @return the file data.
+     * @throws IOException if the object is corrupt or fails authentication.
+     */
+    public byte[] decrypt(byte[] encryptedData) throws IOException {
+        if (!EnvelopeHeader.hasMagic(encryptedData, encryptedData.length)) {
+            log.debug("Object is not in envelope format, decrypting directly with KMS.");
+            return keyProvider.decrypt(encryptedData);
+        }
+        DecryptingInputStream decrypting = decryptingStream(new ByteArrayInputStream(encryptedData));
+        try (InputStream in = decrypting.getHeader().getCodec().decompressingStream(decrypting)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Plaintext stream of an encrypted object.
+     *
+     * @param stream the decrypted content.
+     * @param length plaintext length in bytes.
+     */
+    public record DecryptedStream(InputStream stream, long length) {
+    }
+}
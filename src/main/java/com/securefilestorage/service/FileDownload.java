@@ -0,0 +1,45 @@
+package com.securefilestorage.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decrypted content of a stored file, read lazily from the object store.
+ *
+ * @param fileName      the name of the downloaded file.
+ * @param contentLength number of plaintext bytes in {@code content}.
+ * @param content       decrypted content; must be closed to release the S3 connection.
+ * @param rangeStart    offset of the first returned byte within the file.
+ * @param totalLength   plaintext length of the whole file.
+ * @param partial       whether {@code content} is a byte range rather than the whole file.
+ */
+public record FileDownload(String fileName, long contentLength, InputStream content,
+                           long rangeStart, long totalLength, boolean partial) implements Closeable {
+
+    /**
+     * Creates a download of a whole file.
+     *
+     * @param fileName      the name of the downloaded file.
+     * @param contentLength plaintext length of the file.
+     * @param content       decrypted content.
+     * @return the download.
+     */
+    public static FileDownload full(String fileName, long contentLength, InputStream content) {
+        return new FileDownload(fileName, contentLength, content, 0, contentLength, false);
+    }
+
+    /**
+     * Offset of the last returned byte within the file.
+     *
+     * @return the inclusive end offset.
+     */
+    public long rangeEnd() {
+        return rangeStart + contentLength - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+}
@@ -2,46 +2,71 @@ package com.securefilestorage.service;
 
 
 import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.config.StorageProperties;
+import com.securefilestorage.dto.BatchDeleteResult;
+import com.securefilestorage.dto.BatchUploadResult;
+import com.securefilestorage.dto.FileListingEntry;
+import com.securefilestorage.crypto.CompressingOutputStream;
+import com.securefilestorage.crypto.CompressionCodec;
+import com.securefilestorage.crypto.EncryptingOutputStream;
+import com.securefilestorage.crypto.EnvelopeFormat;
+import com.securefilestorage.crypto.EnvelopeHeader;
+import com.securefilestorage.crypto.KeyProvider;
 import com.securefilestorage.exception.AwsServiceException;
 import com.securefilestorage.exception.FileStorageException;
+import com.securefilestorage.exception.KeyProviderException;
+import com.securefilestorage.exception.RangeNotSatisfiableException;
+import com.securefilestorage.model.FileBlob;
 import com.securefilestorage.model.FileMetadata;
+import com.securefilestorage.repository.FileBlobRepository;
 import com.securefilestorage.repository.FileMetadataRepository;
-import jakarta.annotation.PostConstruct;
+import com.securefilestorage.storage.BoundedInputStream;
+import com.securefilestorage.storage.ObjectStore;
+import com.securefilestorage.storage.ObjectStream;
+import com.securefilestorage.storage.StorageOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpRange;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.kms.KmsClient;
-import software.amazon.awssdk.services.kms.model.DecryptRequest;
-import software.amazon.awssdk.services.kms.model.EncryptRequest;
 import software.amazon.awssdk.services.kms.model.KmsException;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
-import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
-import software.amazon.awssdk.services.s3.model.S3Object;
-import software.amazon.awssdk.services.ssm.SsmClient;
-import software.amazon.awssdk.services.ssm.model.GetParameterRequest;
-import software.amazon.awssdk.services.ssm.model.GetParameterResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Handling file storage operations
- * with AWS S3 and encryption using AWS KMS.
+ * with the configured object store (AWS S3 by default) and envelope encryption using AWS KMS data keys.
  *
  * @author Dzmitry Ivaniuta
  * @version 1.0
@@ -51,14 +76,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FileStorageService {
 
-    /** AWS S3 client for interacting with S3 buckets */
-    private final S3Client s3Client;
+    /** Store of the encrypted objects */
+    private final ObjectStore objectStore;
 
-    /** AWS KMS client for encryption and decryption */
-    private final KmsClient kmsClient;
+    /** Envelope encryption of file contents with KMS data keys */
+    private final EnvelopeEncryptionService envelopeEncryptionService;
 
-    /** AWS SSM client for fetching configuration from Parameter Store */
-    private final SsmClient ssmClient;
+    /** Master key that wraps the data keys */
+    private final KeyProvider keyProvider;
 
     /** AWS configuration properties */
     private final AwsProperties awsProperties;
@@ -66,86 +91,190 @@ public class FileStorageService {
     /** Repository for storing file metadata */
     private final FileMetadataRepository fileMetadataRepository;
 
-    /** KMS Key ID used for encryption and decryption */
-    private String kmsKeyId;
+    /** Repository of the objects shared by identical uploads */
+    private final FileBlobRepository fileBlobRepository;
 
-    public FileStorageService(final S3Client s3Client, final KmsClient kmsClient, final SsmClient ssmClient,
-                              final AwsProperties awsProperties, final FileMetadataRepository fileMetadataRepository) {
-        this.s3Client = s3Client;
-        this.kmsClient = kmsClient;
-        this.ssmClient = ssmClient;
+    /** Object store configuration */
+    private final StorageProperties storageProperties;
+
+    /** Bounded executor for the files of batch uploads */
+    private final ExecutorService batchUploadExecutor;
+
+    /** Pipeline instrumentation */
+    private final StorageMetrics storageMetrics;
+
+    /** Keys deleted from the object store and the metadata table per batch of a bulk delete */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    /** Rows fetched per metadata query when listing files */
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    /** Bytes fetched to read the envelope header of an object before a ranged read */
+    private static final int HEADER_PROBE_BYTES = 4096;
+
+    /** Read buffer of the content hash */
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    public FileStorageService(final ObjectStore objectStore,
+                              final EnvelopeEncryptionService envelopeEncryptionService,
+                              final KeyProvider keyProvider, final AwsProperties awsProperties,
+                              final FileMetadataRepository fileMetadataRepository,
+                              final FileBlobRepository fileBlobRepository,
+                              final StorageProperties storageProperties,
+                              @Qualifier("batchUploadExecutor") final ExecutorService batchUploadExecutor,
+                              final StorageMetrics storageMetrics) {
+        this.objectStore = objectStore;
+        this.envelopeEncryptionService = envelopeEncryptionService;
+        this.keyProvider = keyProvider;
         this.awsProperties = awsProperties;
         this.fileMetadataRepository = fileMetadataRepository;
-//        this.kmsKeyId = fetchKmsKeyId();
-    }
-
-    @PostConstruct
-    private void init() {
-        this.kmsKeyId = fetchKmsKeyId();
+        this.fileBlobRepository = fileBlobRepository;
+        this.storageProperties = storageProperties;
+        this.batchUploadExecutor = batchUploadExecutor;
+        this.storageMetrics = storageMetrics;
     }
 
     /**
-     * Fetches the KMS Key ID from AWS Systems Manager Parameter Store.
-     *
-     * @return the KMS Key ID.
+     * File content that can be read more than once: once to hash it for deduplication and once to upload it.
      */
-    private String fetchKmsKeyId() {
-        try {
-            GetParameterRequest parameterRequest = GetParameterRequest.builder()
-                    .name("/secure-file-storage/kms-key-id")
-                    .withDecryption(true)
-                    .build();
-
-            GetParameterResponse parameterResponse = ssmClient.getParameter(parameterRequest);
-            log.info("Successfully fetched KMS Key ID from Parameter Store.");
-            return parameterResponse.parameter().value();
-        } catch (Exception e) {
-            log.error("Failed to fetch KMS Key ID from Parameter Store.", e);
-            throw new AwsServiceException("Failed to fetch KMS Key ID from Parameter Store.", e);
+    @FunctionalInterface
+    public interface ContentSource {
+
+        /**
+         * Opens the content from its start.
+         *
+         * @return the content; the caller closes it.
+         */
+        InputStream open() throws IOException;
+
+        /**
+         * Opens the content for the upload itself, for callers that track upload progress.
+         *
+         * @return the content; the caller closes it.
+         */
+        default InputStream openForUpload() throws IOException {
+            return open();
         }
     }
 
     /**
      * Uploads and encrypts a file to AWS S3 and stores metadata.
+     * The file is streamed from the request through the cipher into a parallel S3 multipart
+     * upload, so heap use is bounded by the upload memory budget rather than the file size.
      *
      * @param file the file to upload.
      * @return the unique filename stored in S3.
      */
     public String uploadFile(MultipartFile file) {
-        String uniqueUUID = UUID.randomUUID().toString();
-        String uniqueFileName = uniqueUUID + "_" + file.getOriginalFilename();
+        return storeFile(currentUser(), file.getOriginalFilename(), file.getSize(), file::getInputStream);
+    }
+
+    /**
+     * Encrypts file content into a new S3 object and stores its metadata. If the owner already
+     * stored the same content, only the metadata is stored, referencing the existing object.
+     *
+     * @param owner            username of the uploader, or {@code null} if unknown.
+     * @param originalFileName the original file name.
+     * @param fileSize         the file size in bytes.
+     * @param source           the file content.
+     * @return the unique filename stored in S3.
+     */
+    public String storeFile(String owner, String originalFileName, long fileSize, ContentSource source) {
+        StorageMetrics.Operation operation = storageMetrics.start(StorageMetrics.UPLOAD);
         try {
-            log.info("Starting file upload: {}", file.getOriginalFilename());
-            SdkBytes encryptedData = encryptFile(file.getBytes(), kmsKeyId);
-            // Upload encrypted file to S3
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(awsProperties.getS3().getBucketName())
-                    .key(uniqueFileName)
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(encryptedData.asByteArray()));
-            log.info("File uploaded to S3 bucket: {}", awsProperties.getS3().getBucketName());
-
-            // Store file metadata
-            FileMetadata metadata = new FileMetadata();
-            metadata.setS3Key(uniqueUUID);
-            metadata.setFileName(file.getOriginalFilename());
-            metadata.setUploadedAt(LocalDateTime.now());
-            metadata.setBucketName(awsProperties.getS3().getBucketName());
-            metadata.setFileSize(file.getSize());
-            fileMetadataRepository.save(metadata);
+            FileMetadata metadata = store(owner, originalFileName, fileSize, source);
+            try {
+                storageMetrics.stage(StorageMetrics.METADATA_SAVE, () -> fileMetadataRepository.save(metadata));
+            } catch (RuntimeException e) {
+                discard(List.of(metadata));
+                throw e;
+            }
+            operation.success();
 
             log.info("File metadata stored successfully.");
-            return uniqueFileName;
+            return metadata.getS3Key();
         } catch (IOException e) {
+            operation.failure(e);
             log.error("Failed to read file data.", e);
             throw new FileStorageException("Failed to read file data.", e);
-        } catch (S3Exception | KmsException e) {
+        } catch (S3Exception | KmsException | KeyProviderException e) {
+            operation.failure(e);
             log.error("Failed to upload encrypted file to S3.", e);
             throw new AwsServiceException("Failed to upload encrypted file to S3.", e);
+        } catch (RuntimeException e) {
+            operation.failure(e);
+            throw e;
         }
     }
 
+    /**
+     * Uploads and encrypts several files. The files are processed concurrently on the bounded
+     * batch upload executor, and the metadata of all stored files is inserted in one batched
+     * transaction. A failing file does not fail the others.
+     *
+     * @param files the files to upload.
+     * @return the outcome of every file, in request order.
+     */
+    public List<BatchUploadResult> uploadFiles(List<MultipartFile> files) {
+        log.info("Starting batch upload of {} files", files.size());
+        String owner = currentUser();
+        List<Future<FileMetadata>> uploads = new ArrayList<>(files.size());
+        List<StorageMetrics.Operation> operations = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            operations.add(storageMetrics.start(StorageMetrics.UPLOAD));
+            uploads.add(batchUploadExecutor.submit(() -> store(owner, file.getOriginalFilename(), file.getSize(),
+                    file::getInputStream)));
+        }
+
+        List<BatchUploadResult> results = new ArrayList<>(files.size());
+        List<FileMetadata> stored = new ArrayList<>(files.size());
+        List<StorageMetrics.Operation> storedOperations = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            BatchUploadResult.BatchUploadResultBuilder result = BatchUploadResult.builder()
+                    .fileName(file.getOriginalFilename())
+                    .fileSize(file.getSize());
+            try {
+                FileMetadata metadata = uploads.get(i).get();
+                stored.add(metadata);
+                storedOperations.add(operations.get(i));
+                results.add(result.storedFileName(metadata.getS3Key()).success(true).build());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uploads.subList(i, uploads.size()).forEach(upload -> upload.cancel(true));
+                operations.get(i).failure(e);
+                results.add(result.error("Batch upload interrupted.").build());
+            } catch (CancellationException e) {
+                operations.get(i).failure(e);
+                results.add(result.error("Batch upload interrupted.").build());
+            } catch (ExecutionException e) {
+                operations.get(i).failure(e.getCause());
+                log.error("Failed to upload file {} of batch.", file.getOriginalFilename(), e.getCause());
+                results.add(result.error(batchUploadError(e.getCause())).build());
+            }
+        }
+
+        if (!stored.isEmpty()) {
+            try {
+                storageMetrics.stage(StorageMetrics.METADATA_SAVE, () -> fileMetadataRepository.saveAll(stored));
+                storedOperations.forEach(StorageMetrics.Operation::success);
+                log.info("Stored metadata of {} files in one batch.", stored.size());
+            } catch (RuntimeException e) {
+                storedOperations.forEach(operation -> operation.failure(e));
+                log.error("Failed to store metadata of batch upload, removing uploaded objects.", e);
+                discard(stored);
+                results.stream()
+                        .filter(BatchUploadResult::isSuccess)
+                        .forEach(result -> {
+                            result.setSuccess(false);
+                            result.setStoredFileName(null);
+                            result.setError("Failed to store file metadata.");
+                        });
+            }
+        }
+        return results;
+    }
+
     /**
      * Downloads and decrypts a file from AWS S3.
      *
@@ -154,137 +283,732 @@ public class FileStorageService {
      */
     public byte[] downloadFileAsBytes(String fileName) {
         log.info("Starting file bytes download: {}", fileName);
-
-        // Prepare S3 get request
-        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(awsProperties.getS3().getBucketName())
-                .key(fileName)
-                .build();
-        byte[] encryptedData = s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
-
-
-        return decryptFile(encryptedData).asByteArray();
+        StorageMetrics.Operation operation = storageMetrics.start(StorageMetrics.DOWNLOAD);
+        try {
+            byte[] content = downloadAndDecrypt(objectKey(fileName));
+            storageMetrics.addBytes(StorageMetrics.DOWNLOAD, content.length);
+            operation.success();
+            return content;
+        } catch (RuntimeException e) {
+            operation.failure(e);
+            throw e;
+        }
     }
 
     /**
-     * Downloads and decrypts a file from AWS S3.
+     * Downloads and decrypts a whole object in memory.
      *
      * @param fileName the name of the file to download.
-     * @return the path to the decrypted file.
+     * @return the decrypted file.
      */
-    public Path downloadFileAsPath(String fileName) {
-        log.info("Starting file download: {}", fileName);
+    private byte[] downloadAndDecrypt(String fileName) {
+        byte[] encryptedData;
+        try (ObjectStream object = objectStore.open(fileName)) {
+            encryptedData = object.readAllBytes();
+        } catch (IOException e) {
+            log.error("Failed to read file: {}", fileName, e);
+            throw new FileStorageException("Error downloading file: " + fileName, e);
+        }
 
-        // Create a temporary file for storing the downloaded content
-        Path tempFile;
         try {
-            tempFile = Files.createTempFile("download-", fileName);
+            return decryptFile(encryptedData);
+        } catch (KmsException | KeyProviderException e) {
+            log.error("KMS decryption error for file: {}", fileName, e);
+            throw new FileStorageException("Error decrypting file: " + fileName, e);
         } catch (IOException e) {
-            log.error("Failed to create a temporary file for download.", e);
-            throw new FileStorageException("Failed to create a temporary file.", e);
+            log.error("Failed to decrypt file: {}", fileName, e);
+            throw new FileStorageException("Error decrypting file: " + fileName, e);
         }
+    }
 
-        // Prepare S3 get request
-        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(awsProperties.getS3().getBucketName())
-                .key(fileName)
-                .build();
+    /**
+     * Opens a file for streaming download. The stored object is decrypted chunk by chunk while
+     * the caller reads, so neither the ciphertext nor the plaintext is buffered as a whole.
+     * The object is opened with a single read; only objects at or above the parallel threshold
+     * are then fetched as several concurrent ranged GETs instead.
+     *
+     * @param fileName the name of the file to download.
+     * @return the decrypted content; the caller must close it.
+     */
+    public FileDownload openDownload(String fileName) {
+        log.info("Starting streaming file download: {}", fileName);
+        return metered(fileName, this::openWholeDownload);
+    }
 
-        try (InputStream s3ObjectStream = s3Client.getObject(getObjectRequest)) {
-            log.info("File {} successfully retrieved from S3.", fileName);
+    /**
+     * Opens a byte range of a file for streaming download. Only the ciphertext chunks covering
+     * the range are read from the object store (with a ranged GET on S3) and decrypted. Compressed
+     * objects are read and inflated from their start up to the range. Objects stored before the
+     * chunked format cannot be read partially and are returned whole.
+     *
+     * @param fileName the name of the file to download.
+     * @param range    the requested plaintext range.
+     * @return the decrypted range; the caller must close it.
+     * @throws RangeNotSatisfiableException if the range lies outside the file.
+     */
+    public FileDownload openDownload(String fileName, HttpRange range) {
+        log.info("Starting ranged file download: {} {}", fileName, range);
+        return metered(fileName, key -> openRangeDownload(key, range));
+    }
 
-            // Read encrypted file content
-            byte[] encryptedData = s3ObjectStream.readAllBytes();
+    /**
+     * Opens a download as one metered operation that lasts until its content is closed.
+     *
+     * @param fileName the name of the file to download.
+     * @param opener   opens the download from the key of the object holding the content.
+     * @return the download with metered content.
+     */
+    private FileDownload metered(String fileName, Function<String, FileDownload> opener) {
+        StorageMetrics.Operation operation = storageMetrics.start(StorageMetrics.DOWNLOAD);
+        try {
+            FileDownload download = opener.apply(objectKey(fileName));
+            return new FileDownload(fileName, download.contentLength(),
+                    storageMetrics.meter(download.content(), operation),
+                    download.rangeStart(), download.totalLength(), download.partial());
+        } catch (RuntimeException e) {
+            operation.failure(e);
+            throw e;
+        }
+    }
 
-            SdkBytes decryptedData = decryptFile(encryptedData);
+    /**
+     * Opens a whole file. The object is opened once; if it is large enough for a parallel download,
+     * its header is taken from the start of that read, which is then abandoned for concurrent
+     * ranged reads of the chunks.
+     *
+     * @param fileName the name of the file to download.
+     * @return the decrypted content.
+     */
+    private FileDownload openWholeDownload(String fileName) {
+        ObjectStream object = openObject(fileName);
+        if (!objectStore.isParallel(fileName, object.length())) {
+            return decryptSequentially(fileName, object);
+        }
+        byte[] prefix;
+        try {
+            prefix = object.readNBytes(HEADER_PROBE_BYTES);
+        } catch (IOException e) {
+            log.error("Failed to read file: {}", fileName, e);
+            throw new FileStorageException("Error downloading file: " + fileName, e);
+        } finally {
+            object.abort();
+        }
+        if (!EnvelopeHeader.hasMagic(prefix, prefix.length)) {
+            return openSequentialDownload(fileName);
+        }
+        return openEnvelopeDownload(fileName, prefix, object.objectLength(), null);
+    }
 
-            // Write decrypted content to temp file
-            Files.write(tempFile, decryptedData.asByteArray(), StandardOpenOption.WRITE);
-            log.info("File {} downloaded and decrypted successfully.", fileName);
+    /**
+     * Opens a whole object with a single read and decrypts it while the caller reads.
+     *
+     * @param fileName the name of the file to download.
+     * @return the decrypted content.
+     */
+    private FileDownload openSequentialDownload(String fileName) {
+        return decryptSequentially(fileName, openObject(fileName));
+    }
 
-            return tempFile;
+    /**
+     * Opens a whole object of the store.
+     *
+     * @param fileName the object key.
+     * @return the object.
+     */
+    private ObjectStream openObject(String fileName) {
+        try {
+            return objectStore.open(fileName);
         } catch (S3Exception e) {
             log.error("S3 error while downloading file: {}", fileName, e);
             throw new FileStorageException("Error downloading file from S3: " + fileName, e);
-        } catch (KmsException e) {
-            log.error("KMS decryption error for file: {}", fileName, e);
-            throw new FileStorageException("Error decrypting file: " + fileName, e);
         } catch (IOException e) {
-            log.error("I/O error while processing file: {}", fileName, e);
-            throw new FileStorageException("I/O error processing file: " + fileName, e);
+            log.error("Failed to read file: {}", fileName, e);
+            throw new FileStorageException("Error downloading file: " + fileName, e);
         }
     }
 
     /**
-     * Lists the names of files in the S3 bucket.
+     * Decrypts a whole object while the caller reads it.
      *
-     * @return a List of file names.
+     * @param fileName the object key.
+     * @param object   the opened object; aborted if it cannot be decrypted.
+     * @return the decrypted content.
      */
-    public List<String> listFiles() {
-        ListObjectsV2Request request = ListObjectsV2Request.builder()
-                .bucket(awsProperties.getS3().getBucketName())
-                .build();
+    private FileDownload decryptSequentially(String fileName, ObjectStream object) {
+        try {
+            EnvelopeEncryptionService.DecryptedStream decrypted = envelopeEncryptionService.decryptingStream(
+                    object, object.length());
+            return FileDownload.full(fileName, decrypted.length(), decrypted.stream());
+        } catch (KmsException | KeyProviderException | IOException e) {
+            object.abort();
+            log.error("Failed to decrypt file: {}", fileName, e);
+            throw new FileStorageException("Error decrypting file: " + fileName, e);
+        }
+    }
 
-        ListObjectsV2Response response = s3Client.listObjectsV2(request);
+    /**
+     * Opens a plaintext range of a file, reading only the covering chunks. Legacy objects are returned whole.
+     *
+     * @param fileName the name of the file to download.
+     * @param range    the requested plaintext range.
+     * @return the decrypted content.
+     */
+    private FileDownload openRangeDownload(String fileName, HttpRange range) {
+        // The header probe also reveals the total object length.
+        byte[] prefix;
+        long objectLength;
+        try (ObjectStream probe = objectStore.openRange(fileName, 0, HEADER_PROBE_BYTES - 1)) {
+            prefix = probe.readAllBytes();
+            objectLength = probe.objectLength();
+        } catch (S3Exception e) {
+            log.error("S3 error while downloading file: {}", fileName, e);
+            throw new FileStorageException("Error downloading file from S3: " + fileName, e);
+        } catch (IOException e) {
+            log.error("Failed to read file: {}", fileName, e);
+            throw new FileStorageException("Error downloading file: " + fileName, e);
+        }
+        if (!EnvelopeHeader.hasMagic(prefix, prefix.length)) {
+            return openSequentialDownload(fileName);
+        }
+        return openEnvelopeDownload(fileName, prefix, objectLength, range);
+    }
 
-        List<String> fileNames = response.contents().stream()
-                .map(S3Object::key).toList();
+    /**
+     * Opens a chunked envelope object, or a plaintext range of it, reading only the covering chunks.
+     *
+     * @param fileName     the name of the file to download.
+     * @param prefix       the first bytes of the object, holding at least its header.
+     * @param objectLength total object length.
+     * @param range        the requested plaintext range, or {@code null} for the whole file.
+     * @return the decrypted content.
+     */
+    private FileDownload openEnvelopeDownload(String fileName, byte[] prefix, long objectLength, HttpRange range) {
+        try {
+            EnvelopeHeader header = EnvelopeHeader.read(new ByteArrayInputStream(prefix));
+            long sealedLength = EnvelopeFormat.plaintextLength(objectLength, header);
+            long plaintextLength = header.isCompressed() ? header.getContentLength() : sealedLength;
+
+            long start = 0;
+            long end = plaintextLength - 1;
+            if (range != null) {
+                try {
+                    start = range.getRangeStart(plaintextLength);
+                    end = range.getRangeEnd(plaintextLength);
+                } catch (IllegalArgumentException e) {
+                    throw new RangeNotSatisfiableException("Requested range not satisfiable: " + range, plaintextLength);
+                }
+                // HttpRange does not reject ranges starting at or past the end, which includes every range of an empty file.
+                if (start >= plaintextLength || start > end) {
+                    throw new RangeNotSatisfiableException("Requested range not satisfiable: " + range, plaintextLength);
+                }
+            }
+
+            int chunkSize = header.getChunkSize();
+            long totalChunks = EnvelopeFormat.chunkCount(sealedLength, chunkSize);
+            InputStream plaintext;
+            long skip;
+            if (header.isCompressed()) {
+                // Compressed offsets do not map to file offsets, so the content is inflated from its start;
+                // only files below the parallel download threshold are compressed, which bounds that cost.
+                plaintext = header.getCodec().decompressingStream(openChunks(fileName, prefix, header, objectLength,
+                        totalChunks, 0, totalChunks - 1));
+                skip = start;
+            } else {
+                long firstChunk = start / chunkSize;
+                long lastChunk = Math.max(end, 0) / chunkSize;
+                plaintext = openChunks(fileName, prefix, header, objectLength, totalChunks, firstChunk, lastChunk);
+                skip = start - firstChunk * chunkSize;
+            }
+            if (range == null) {
+                return FileDownload.full(fileName, plaintextLength, plaintext);
+            }
+            try {
+                plaintext.skipNBytes(skip);
+            } catch (IOException | RuntimeException e) {
+                plaintext.close();
+                throw e;
+            }
+            long length = end - start + 1;
+            return new FileDownload(fileName, length, new BoundedInputStream(plaintext, length),
+                    start, plaintextLength, true);
+        } catch (S3Exception e) {
+            log.error("S3 error while downloading file: {}", fileName, e);
+            throw new FileStorageException("Error downloading file from S3: " + fileName, e);
+        } catch (KmsException | KeyProviderException | IOException e) {
+            log.error("Failed to decrypt file: {}", fileName, e);
+            throw new FileStorageException("Error decrypting file: " + fileName, e);
+        }
+    }
 
-        log.info("Retrieved {} files from bucket {}", fileNames.size(), awsProperties.getS3().getBucketName());
-        return fileNames;
+    /**
+     * Fetches and decrypts a contiguous run of chunks. Runs already contained in the header probe
+     * are decrypted from it, large runs are fetched as concurrent chunk-aligned windows that are
+     * decrypted independently, and everything else with one ranged read.
+     *
+     * @param fileName    the object key.
+     * @param prefix      the bytes returned by the header probe.
+     * @param header      the object header.
+     * @param objectLength total object length.
+     * @param totalChunks number of chunks in the object.
+     * @param firstChunk  index of the first chunk to decrypt.
+     * @param lastChunk   index of the last chunk to decrypt.
+     * @return plaintext of the chunks.
+     */
+    private InputStream openChunks(String fileName, byte[] prefix, EnvelopeHeader header, long objectLength,
+                                   long totalChunks, long firstChunk, long lastChunk) throws IOException {
+        long segmentSize = (long) header.getChunkSize() + EnvelopeFormat.TAG_LENGTH;
+        long from = header.length() + firstChunk * segmentSize;
+        long to = Math.min(header.length() + (lastChunk + 1) * segmentSize, objectLength) - 1;
+
+        if (to < prefix.length) {
+            return envelopeEncryptionService.decryptingStream(
+                    new ByteArrayInputStream(prefix, (int) from, (int) (to - from + 1)),
+                    header, firstChunk, lastChunk, totalChunks);
+        }
+        if (objectStore.isParallel(fileName, to - from + 1)) {
+            log.debug("Fetching chunks {}-{} of {} in parallel.", firstChunk, lastChunk, fileName);
+            return objectStore.openParallelRange(fileName, from, to, segmentSize, (offset, window) -> {
+                long windowFirstChunk = (offset - header.length()) / segmentSize;
+                long windowLastChunk = windowFirstChunk + (window.length + segmentSize - 1) / segmentSize - 1;
+                return envelopeEncryptionService.decryptingStream(new ByteArrayInputStream(window), header,
+                        windowFirstChunk, windowLastChunk, totalChunks);
+            });
+        }
+        ObjectStream chunks = objectStore.openRange(fileName, from, to);
+        try {
+            return envelopeEncryptionService.decryptingStream(chunks, header, firstChunk, lastChunk, totalChunks);
+        } catch (RuntimeException e) {
+            chunks.abort();
+            throw e;
+        }
     }
 
     /**
-     * Deletes a file from AWS S3 and removes metadata.
+     * Lists the S3 keys of stored files from the metadata table, newest first.
+     * Rows are fetched lazily in keyset-paginated pages of {@value #LIST_PAGE_SIZE},
+     * so the listing never holds more than one page in memory.
+     *
+     * @return a lazy stream of S3 keys.
+     */
+    public Stream<String> streamFileKeys() {
+        return Stream.iterate(storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                                () -> fileMetadataRepository.findListingPage(LIST_PAGE_SIZE)),
+                        page -> !page.isEmpty(),
+                        page -> {
+                            if (page.size() < LIST_PAGE_SIZE) {
+                                return List.of();
+                            }
+                            FileListingEntry last = page.get(page.size() - 1);
+                            return storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                                    () -> fileMetadataRepository.findListingPageAfter(
+                                            last.getUploadedAt(), last.getId(), LIST_PAGE_SIZE));
+                        })
+                .flatMap(List::stream)
+                .map(FileListingEntry::getS3Key);
+    }
+
+    /**
+     * Deletes a file from the object store and removes metadata. The shared object of a
+     * deduplicated file is only deleted with its last reference.
      *
      * @param fileName the name of the file to delete.
      */
     public void deleteFile(String fileName) {
+        StorageMetrics.Operation operation = storageMetrics.start(StorageMetrics.DELETE);
         try {
             log.info("Deleting file: {}", fileName);
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(awsProperties.getS3().getBucketName())
-                    .key(fileName)
-                    .build();
-
-            s3Client.deleteObject(deleteObjectRequest);
-            log.info("File deleted from S3 bucket: {}", awsProperties.getS3().getBucketName());
-
-            // Delete file metadata
-            fileMetadataRepository.deleteByFileName(fileName);
+            Optional<String> blobKey = storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                    () -> fileMetadataRepository.findBlobKeyByS3Key(fileName));
+            if (blobKey.isPresent()) {
+                if (storageMetrics.stage(StorageMetrics.METADATA_DELETE,
+                        () -> fileMetadataRepository.deleteShared(fileName, blobKey.get())) > 0) {
+                    for (String key : releaseBlobs(List.of(blobKey.get()))) {
+                        objectStore.delete(key);
+                    }
+                }
+            } else {
+                // A key without metadata may still hold the content of other files.
+                if (storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                        () -> fileBlobRepository.findBlobKeysIn(List.of(fileName))).isEmpty()) {
+                    objectStore.delete(fileName);
+                }
+
+                // Delete file metadata
+                storageMetrics.stage(StorageMetrics.METADATA_DELETE,
+                        () -> fileMetadataRepository.deleteByS3KeyIn(List.of(fileName)));
+            }
             log.info("File metadata deleted successfully.");
+            operation.success();
         } catch (S3Exception e) {
+            operation.failure(e);
             log.error("Failed to delete file from S3.", e);
             throw new AwsServiceException("Failed to delete file from S3.", e);
+        } catch (IOException e) {
+            operation.failure(e);
+            log.error("Failed to delete file: {}", fileName, e);
+            throw new FileStorageException("Failed to delete file: " + fileName, e);
+        } catch (RuntimeException e) {
+            operation.failure(e);
+            throw e;
         }
     }
 
     /**
-     * Encrypts file data using AWS KMS.
+     * Deletes many files in batches of {@value #DELETE_BATCH_SIZE} keys. Each batch is removed from
+     * the object store (one {@code DeleteObjects} request on S3), and the metadata of its deleted keys
+     * with one set-based statement. Deduplicated files release their shared object instead, which is
+     * deleted with its last reference. A key that fails does not fail the others.
      *
-     * @param data the json data.
-     * @return encrypted data as a byte array.
+     * @param keys the S3 keys of the files to delete.
+     * @return the outcome of every distinct key, in request order.
      */
-    private SdkBytes encryptFile(final byte[] data, final String kmsKeyId) throws IOException {
-        SdkBytes plaintext = SdkBytes.fromByteArray(data);
-        EncryptRequest encryptRequest = EncryptRequest.builder()
-                .keyId(kmsKeyId)
-                .plaintext(plaintext)
-                .build();
+    public List<BatchDeleteResult> deleteFiles(Collection<String> keys) {
+        List<String> distinctKeys = List.copyOf(new LinkedHashSet<>(keys));
+        log.info("Starting bulk delete of {} files", distinctKeys.size());
+        StorageMetrics.Operation operation = storageMetrics.start(StorageMetrics.BULK_DELETE);
+        List<BatchDeleteResult> results = new ArrayList<>(distinctKeys.size());
+        try {
+            for (int from = 0; from < distinctKeys.size(); from += DELETE_BATCH_SIZE) {
+                List<String> batch = distinctKeys.subList(from, Math.min(from + DELETE_BATCH_SIZE, distinctKeys.size()));
+                Map<String, String> shared = new HashMap<>();
+                storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                                () -> fileMetadataRepository.findBlobReferences(batch))
+                        .forEach(reference -> shared.put(reference.getS3Key(), reference.getBlobKey()));
+                Set<String> blobKeys = new HashSet<>(storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                        () -> fileBlobRepository.findBlobKeysIn(batch)));
+                List<String> own = batch.stream().filter(key -> !shared.containsKey(key)).toList();
+                List<String> objects = own.stream().filter(key -> !blobKeys.contains(key)).toList();
+
+                Map<String, String> errors = new HashMap<>(objects.isEmpty() ? Map.of() : objectStore.deleteAll(objects));
+                List<String> deleted = own.stream().filter(key -> !errors.containsKey(key)).toList();
+                if (!deleted.isEmpty()) {
+                    try {
+                        storageMetrics.stage(StorageMetrics.METADATA_DELETE,
+                                () -> fileMetadataRepository.deleteByS3KeyIn(deleted));
+                    } catch (RuntimeException e) {
+                        log.error("Failed to delete metadata of {} deleted objects.", deleted.size(), e);
+                        deleted.forEach(key -> errors.put(key, "Failed to delete file metadata."));
+                    }
+                }
+                errors.putAll(deleteShared(shared));
+                for (String key : batch) {
+                    String error = errors.get(key);
+                    results.add(BatchDeleteResult.builder().key(key).success(error == null).error(error).build());
+                }
+            }
+        } catch (RuntimeException e) {
+            operation.failure(e);
+            throw e;
+        }
+        operation.success();
+        log.info("Bulk delete finished: {} of {} files deleted.",
+                results.stream().filter(BatchDeleteResult::isSuccess).count(), results.size());
+        return results;
+    }
+
+    /**
+     * Deletes the metadata of deduplicated files and the shared objects left without references.
+     *
+     * @param files S3 keys of the files, mapped to the keys of their shared objects.
+     * @return errors of the files whose metadata could not be deleted.
+     */
+    private Map<String, String> deleteShared(Map<String, String> files) {
+        Map<String, String> errors = new HashMap<>();
+        List<String> released = new ArrayList<>(files.size());
+        files.forEach((s3Key, blobKey) -> {
+            try {
+                if (storageMetrics.stage(StorageMetrics.METADATA_DELETE,
+                        () -> fileMetadataRepository.deleteShared(s3Key, blobKey)) > 0) {
+                    released.add(blobKey);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to delete metadata of {}.", s3Key, e);
+                errors.put(s3Key, "Failed to delete file metadata.");
+            }
+        });
+        List<String> unreferenced = releaseBlobs(released);
+        if (!unreferenced.isEmpty()) {
+            objectStore.deleteAll(unreferenced).forEach((key, error) ->
+                    log.warn("Failed to delete unreferenced object {}: {}", key, error));
+        }
+        return errors;
+    }
+
+    /**
+     * Drops references to shared objects and removes the blobs left without any.
+     *
+     * @param blobKeys keys of the shared objects, once per dropped reference.
+     * @return keys of the objects that are no longer referenced and must be deleted from the store.
+     */
+    private List<String> releaseBlobs(Collection<String> blobKeys) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        blobKeys.forEach(blobKey -> counts.merge(blobKey, 1, Integer::sum));
+        List<String> unreferenced = new ArrayList<>();
+        counts.forEach((blobKey, count) -> {
+            try {
+                storageMetrics.stage(StorageMetrics.METADATA_SAVE, () -> fileBlobRepository.release(blobKey, count));
+                if (storageMetrics.stage(StorageMetrics.METADATA_DELETE,
+                        () -> fileBlobRepository.deleteUnreferenced(blobKey)) > 0) {
+                    unreferenced.add(blobKey);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to release {} references to {}, the object is kept.", count, blobKey, e);
+            }
+        });
+        return unreferenced;
+    }
+
+    /**
+     * Removes the content of stored files whose metadata could not be saved.
+     *
+     * @param files metadata of the stored files.
+     */
+    private void discard(List<FileMetadata> files) {
+        List<String> keys = new ArrayList<>(files.size());
+        List<String> blobKeys = new ArrayList<>(files.size());
+        for (FileMetadata metadata : files) {
+            if (metadata.getBlobKey() == null) {
+                keys.add(metadata.getS3Key());
+            } else {
+                blobKeys.add(metadata.getBlobKey());
+            }
+        }
+        try {
+            keys.addAll(releaseBlobs(blobKeys));
+            if (!keys.isEmpty()) {
+                objectStore.deleteAll(keys);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove {} objects of unsaved files.", keys.size(), e);
+        }
+    }
+
+    /**
+     * Stores file content as a new object, or, if the owner already stored the same content,
+     * references that object instead. The content is hashed before anything is uploaded, so a
+     * duplicate costs one read of the local content and no object store write.
+     *
+     * @param owner            username of the uploader, or {@code null} if unknown.
+     * @param originalFileName the original file name.
+     * @param fileSize         the file size in bytes.
+     * @param source           the file content.
+     * @return metadata of the stored file, not yet saved.
+     */
+    private FileMetadata store(String owner, String originalFileName, long fileSize, ContentSource source)
+            throws IOException {
+        if (owner == null || !storageProperties.getDedup().isEnabled()) {
+            FileMetadata metadata;
+            try (InputStream content = source.openForUpload()) {
+                metadata = storeEncrypted(originalFileName, fileSize, content);
+            }
+            metadata.setUploadedBy(owner);
+            return metadata;
+        }
+
+        String contentHash;
+        try (InputStream content = source.open()) {
+            contentHash = hash(content);
+        }
+        Optional<FileBlob> existing = storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                () -> fileBlobRepository.findByOwnerAndContentHash(owner, contentHash));
+        if (existing.isPresent() && storageMetrics.stage(StorageMetrics.METADATA_SAVE,
+                () -> fileBlobRepository.acquire(existing.get().getId())) > 0) {
+            String blobKey = existing.get().getBlobKey();
+            log.info("Content of {} is already stored as {}, skipping the upload.", originalFileName, blobKey);
+            storageMetrics.addDeduplicated(fileSize);
+            FileMetadata metadata = newMetadata(UUID.randomUUID() + "_" + originalFileName, originalFileName,
+                    fileSize);
+            metadata.setUploadedBy(owner);
+            metadata.setBlobKey(blobKey);
+            return metadata;
+        }
+
+        FileMetadata metadata;
+        try (InputStream content = source.openForUpload()) {
+            metadata = storeEncrypted(originalFileName, fileSize, content);
+        }
+        metadata.setUploadedBy(owner);
+        try {
+            storageMetrics.stage(StorageMetrics.METADATA_SAVE, () -> fileBlobRepository.save(FileBlob.builder()
+                    .owner(owner)
+                    .contentHash(contentHash)
+                    .blobKey(metadata.getS3Key())
+                    .blobSize(fileSize)
+                    .refCount(1)
+                    .createdAt(LocalDateTime.now())
+                    .build()));
+            metadata.setBlobKey(metadata.getS3Key());
+        } catch (DataIntegrityViolationException e) {
+            // The same content of the same owner was registered concurrently; this copy stays unshared.
+            log.debug("Content of {} was stored concurrently, keeping {} unshared.",
+                    originalFileName, metadata.getS3Key());
+        }
+        return metadata;
+    }
+
+    /**
+     * Encrypts file content into a new stored object.
+     *
+     * @param originalFileName the original file name.
+     * @param fileSize         the file size in bytes.
+     * @param content          the file content; not closed.
+     * @return metadata of the stored object, not yet saved.
+     */
+    private FileMetadata storeEncrypted(String originalFileName, long fileSize, InputStream content)
+            throws IOException {
+        String uniqueFileName = UUID.randomUUID() + "_" + originalFileName;
+        String location = objectStore.getLocation();
+        log.info("Starting file upload: {}", originalFileName);
+        encryptToStore(content, fileSize, uniqueFileName);
+        log.info("File uploaded to {}", location);
+        return newMetadata(uniqueFileName, originalFileName, fileSize);
+    }
+
+    /**
+     * Metadata of a new file in the object store.
+     *
+     * @param s3Key            the unique file name.
+     * @param originalFileName the original file name.
+     * @param fileSize         the file size in bytes.
+     * @return the metadata, not yet saved.
+     */
+    private FileMetadata newMetadata(String s3Key, String originalFileName, long fileSize) {
+        FileMetadata metadata = new FileMetadata();
+        metadata.setS3Key(s3Key);
+        metadata.setFileName(originalFileName);
+        metadata.setUploadedAt(LocalDateTime.now());
+        metadata.setBucketName(objectStore.getLocation());
+        metadata.setFileSize(fileSize);
+        return metadata;
+    }
+
+    /**
+     * Key of the object holding the content of a file: its shared object if it was deduplicated,
+     * otherwise its own key.
+     *
+     * @param fileName the S3 key of the file.
+     * @return the object key.
+     */
+    private String objectKey(String fileName) {
+        return storageMetrics.stage(StorageMetrics.METADATA_LOOKUP,
+                () -> fileMetadataRepository.findBlobKeyByS3Key(fileName)).orElse(fileName);
+    }
+
+    /**
+     * Hex SHA-256 of file content.
+     *
+     * @param content the content; read to its end.
+     * @return the hash.
+     */
+    private String hash(InputStream content) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            success = true;
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } finally {
+            storageMetrics.recordStage(StorageMetrics.HASH, success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Username of the authenticated caller.
+     *
+     * @return the username, or {@code null} outside an authenticated request.
+     */
+    static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Streams plaintext through the envelope cipher into a new object, compressed first if
+     * compression is enabled and the first chunk compresses well.
+     * On any failure the upload is aborted so no partial object remains.
+     *
+     * @param plaintext      the file content.
+     * @param plaintextBytes the file size.
+     * @param key            target object key.
+     */
+    private void encryptToStore(InputStream plaintext, long plaintextBytes, String key) throws IOException {
+        byte[] sample = new byte[0];
+        CompressionCodec codec = CompressionCodec.NONE;
+        if (envelopeEncryptionService.isCompressible(plaintextBytes)) {
+            sample = plaintext.readNBytes(awsProperties.getEncryption().getChunkSize());
+            codec = envelopeEncryptionService.selectCodec(sample);
+        }
+        StorageOutputStream storageOutputStream = objectStore.openUpload(key, plaintextBytes);
+        EncryptingOutputStream encryptingStream = null;
+        CompressingOutputStream compressingStream = null;
+        try {
+            encryptingStream = envelopeEncryptionService.encryptingStream(storageOutputStream, keyProvider.getKeyId(),
+                    plaintextBytes, codec);
+            OutputStream content = encryptingStream;
+            if (codec != CompressionCodec.NONE) {
+                compressingStream = codec.compressingStream(encryptingStream,
+                        awsProperties.getEncryption().getCompression().getLevel());
+                content = compressingStream;
+            }
+            content.write(sample);
+            long written = sample.length + plaintext.transferTo(content);
+            if (compressingStream != null && written != plaintextBytes) {
+                // The header of compressed content records the declared size.
+                throw new IOException("Read " + written + " bytes of a " + plaintextBytes + " byte file.");
+            }
+            content.close();
+            storageMetrics.addBytes(StorageMetrics.UPLOAD, written);
+            if (compressingStream != null) {
+                storageMetrics.addCompressed(written, encryptingStream.getPlaintextBytes());
+                log.debug("Compressed {} bytes to {}.", written, encryptingStream.getPlaintextBytes());
+            }
+        } catch (IOException | RuntimeException e) {
+            if (compressingStream != null) {
+                compressingStream.abort();
+            }
+            if (encryptingStream != null) {
+                encryptingStream.abort();
+            }
+            storageOutputStream.abort();
+            throw e;
+        }
         log.info("File encrypted successfully.");
-        return kmsClient.encrypt(encryptRequest).ciphertextBlob();
     }
 
     /**
-     * Decrypts file data using AWS KMS.
+     * Client-facing reason of a failed batch upload file.
+     *
+     * @param cause the failure.
+     * @return the reason.
+     */
+    private String batchUploadError(Throwable cause) {
+        if (cause instanceof IOException) {
+            return "Failed to read file data.";
+        }
+        if (cause instanceof S3Exception || cause instanceof KmsException || cause instanceof KeyProviderException) {
+            return "Failed to upload encrypted file to S3.";
+        }
+        return "Failed to upload file.";
+    }
+
+    /**
+     * Decrypts an envelope-encrypted object.
      *
      * @param encryptedData encrypted file data as a byte array.
      * @return decrypted file data as a byte array.
      */
-    private SdkBytes decryptFile(byte[] encryptedData) {
-        DecryptRequest decryptRequest = DecryptRequest.builder()
-                .ciphertextBlob(SdkBytes.fromByteArray(encryptedData))
-                .build();
-        return kmsClient.decrypt(decryptRequest).plaintext();
+    private byte[] decryptFile(byte[] encryptedData) throws IOException {
+        return envelopeEncryptionService.decrypt(encryptedData);
     }
 }
@@ -0,0 +1,364 @@
+package com.securefilestorage.service;
+
+import com.securefilestorage.exception.AwsServiceException;
+import com.securefilestorage.exception.FileNotFoundException;
+import com.securefilestorage.exception.KeyProviderException;
+import com.securefilestorage.exception.RangeNotSatisfiableException;
+import com.securefilestorage.exception.UploadRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.kms.model.KmsException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of the storage pipelines.
+ * <p>
+ * Meters, all exported at {@code /actuator/prometheus}:
+ * <ul>
+ *     <li>{@code storage.operation} – end-to-end latency of uploads, downloads and deletes, by operation and outcome;</li>
+ *     <li>{@code storage.errors} – failed operations, by operation and outcome;</li>
+ *     <li>{@code storage.inflight} – operations currently running, by operation;</li>
+ *     <li>{@code storage.bytes} – plaintext bytes uploaded and downloaded, by operation;</li>
+ *     <li>{@code storage.stage} – time spent in hashing, encryption, decryption and metadata queries, by stage and outcome;</li>
+ *     <li>{@code storage.dedup.uploads} and {@code storage.dedup.bytes} – uploads, and their plaintext bytes, that
+ *     referenced already stored content instead of uploading it;</li>
+ *     <li>{@code storage.compression.input} and {@code storage.compression.output} – bytes of compressed uploads
+ *     before and after compression.</li>
+ * </ul>
+ * KMS and S3 calls are timed per API operation by {@code aws.api.call}. Tag values only come from
+ * the constants of this class and from {@link #outcome(Throwable)}, which keeps cardinality bounded.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class StorageMetrics {
+
+    public static final String UPLOAD = "upload";
+
+    public static final String DOWNLOAD = "download";
+
+    public static final String DELETE = "delete";
+
+    public static final String BULK_DELETE = "bulk_delete";
+
+    public static final String HASH = "hash";
+
+    public static final String ENCRYPT = "encrypt";
+
+    public static final String DECRYPT = "decrypt";
+
+    public static final String METADATA_SAVE = "metadata.save";
+
+    public static final String METADATA_LOOKUP = "metadata.lookup";
+
+    public static final String METADATA_DELETE = "metadata.delete";
+
+    public static final String SUCCESS = "success";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> bytes = new ConcurrentHashMap<>();
+
+    private final Counter dedupUploads;
+
+    private final Counter dedupBytes;
+
+    private final Counter compressionInput;
+
+    private final Counter compressionOutput;
+
+    public StorageMetrics(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (String operation : new String[]{UPLOAD, DOWNLOAD, DELETE, BULK_DELETE}) {
+            AtomicInteger running = new AtomicInteger();
+            inFlight.put(operation, running);
+            Gauge.builder("storage.inflight", running, AtomicInteger::get)
+                    .description("Storage operations currently running")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+        }
+        for (String operation : new String[]{UPLOAD, DOWNLOAD}) {
+            bytes.put(operation, Counter.builder("storage.bytes")
+                    .description("Plaintext bytes transferred")
+                    .baseUnit("bytes")
+                    .tag("operation", operation)
+                    .register(meterRegistry));
+        }
+        this.dedupUploads = Counter.builder("storage.dedup.uploads")
+                .description("Uploads that referenced already stored content")
+                .register(meterRegistry);
+        this.dedupBytes = Counter.builder("storage.dedup.bytes")
+                .description("Plaintext bytes not uploaded because the content was already stored")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.compressionInput = Counter.builder("storage.compression.input")
+                .description("Plaintext bytes of compressed uploads before compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.compressionOutput = Counter.builder("storage.compression.output")
+                .description("Plaintext bytes of compressed uploads after compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts timing an operation and counts it as in flight until it is finished.
+     *
+     * @param operation one of the operation constants.
+     * @return the running operation.
+     */
+    public Operation start(String operation) {
+        inFlight.get(operation).incrementAndGet();
+        return new Operation(operation, Timer.start(meterRegistry));
+    }
+
+    /**
+     * Times a metadata query or another synchronous stage.
+     *
+     * @param stage  one of the stage constants.
+     * @param action the stage.
+     * @param <T>    result type.
+     * @return the result of {@code action}.
+     */
+    public <T> T stage(String stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = SUCCESS;
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            recordStage(stage, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records time spent in a stage that was measured by the caller, such as cipher time
+     * accumulated over the chunks of one stream.
+     *
+     * @param stage   one of the stage constants.
+     * @param success whether the stage completed.
+     * @param nanos   time spent in the stage.
+     */
+    public void recordStage(String stage, boolean success, long nanos) {
+        recordStage(stage, success ? SUCCESS : "error", nanos);
+    }
+
+    /**
+     * Counts transferred plaintext bytes.
+     *
+     * @param operation {@link #UPLOAD} or {@link #DOWNLOAD}.
+     * @param count     number of bytes.
+     */
+    public void addBytes(String operation, long count) {
+        if (count > 0) {
+            bytes.get(operation).increment(count);
+        }
+    }
+
+    /**
+     * Counts an upload that referenced already stored content.
+     *
+     * @param count plaintext bytes of the upload.
+     */
+    public void addDeduplicated(long count) {
+        dedupUploads.increment();
+        if (count > 0) {
+            dedupBytes.increment(count);
+        }
+    }
+
+    /**
+     * Counts a compressed upload.
+     *
+     * @param originalBytes   bytes before compression.
+     * @param compressedBytes bytes after compression.
+     */
+    public void addCompressed(long originalBytes, long compressedBytes) {
+        compressionInput.increment(originalBytes);
+        compressionOutput.increment(compressedBytes);
+    }
+
+    /**
+     * Wraps download content so that bytes are counted as they are read and the operation
+     * finishes when the stream is closed.
+     *
+     * @param content   the plaintext stream.
+     * @param operation the running download.
+     * @return the metered stream.
+     */
+    public InputStream meter(InputStream content, Operation operation) {
+        return new MeteredInputStream(content, bytes.get(operation.name), operation);
+    }
+
+    /**
+     * Outcome tag of a failure. Only a fixed set of values is returned.
+     *
+     * @param error the failure.
+     * @return the outcome.
+     */
+    public static String outcome(Throwable error) {
+        Throwable cause = error;
+        while (cause != null) {
+            if (cause instanceof FileNotFoundException || cause instanceof NoSuchKeyException) {
+                return "not_found";
+            }
+            if (cause instanceof RangeNotSatisfiableException) {
+                return "range_not_satisfiable";
+            }
+            if (cause instanceof UploadRejectedException) {
+                return "rejected";
+            }
+            if (cause instanceof KmsException) {
+                return "kms_error";
+            }
+            if (cause instanceof KeyProviderException) {
+                return "key_error";
+            }
+            if (cause instanceof S3Exception) {
+                return "s3_error";
+            }
+            if (cause instanceof IOException) {
+                return "io_error";
+            }
+            if (cause instanceof AwsServiceException) {
+                return "aws_error";
+            }
+            cause = cause.getCause();
+        }
+        return "error";
+    }
+
+    private void recordStage(String stage, String outcome, long nanos) {
+        timer("storage.stage", "Time spent in one stage of the storage pipeline", "stage", stage, outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String description, String key, String value, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(key, value)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(meterRegistry);
+    }
+
+    /**
+     * A running operation; finishing it more than once has no effect.
+     */
+    public final class Operation {
+
+        private final String name;
+
+        private final Timer.Sample sample;
+
+        private final AtomicInteger finished = new AtomicInteger();
+
+        private Operation(String name, Timer.Sample sample) {
+            this.name = name;
+            this.sample = sample;
+        }
+
+        /**
+         * Finishes the operation as successful.
+         */
+        public void success() {
+            finish(SUCCESS);
+        }
+
+        /**
+         * Finishes the operation as failed.
+         *
+         * @param error the failure.
+         */
+        public void failure(Throwable error) {
+            finish(outcome(error));
+        }
+
+        private void finish(String outcome) {
+            if (!finished.compareAndSet(0, 1)) {
+                return;
+            }
+            inFlight.get(name).decrementAndGet();
+            sample.stop(timer("storage.operation", "End-to-end latency of storage operations",
+                    "operation", name, outcome));
+            if (!SUCCESS.equals(outcome)) {
+                meterRegistry.counter("storage.errors", "operation", name, "outcome", outcome).increment();
+            }
+        }
+    }
+
+    /**
+     * Counts bytes read and finishes the operation on close or on a read failure.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+
+        private final Counter bytes;
+
+        private final Operation operation;
+
+        private MeteredInputStream(InputStream in, Counter bytes, Operation operation) {
+            super(in);
+            this.bytes = bytes;
+            this.operation = operation;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = super.read();
+                if (b != -1) {
+                    bytes.increment();
+                }
+                return b;
+            } catch (IOException | RuntimeException e) {
+                operation.failure(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    bytes.increment(n);
+                }
+                return n;
+            } catch (IOException | RuntimeException e) {
+                operation.failure(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                operation.success();
+            }
+        }
+    }
+}
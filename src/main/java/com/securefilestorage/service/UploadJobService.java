@@ -0,0 +1,286 @@
+package com.securefilestorage.service;
+
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.exception.AwsServiceException;
+import com.securefilestorage.exception.FileStorageException;
+import com.securefilestorage.exception.UploadRejectedException;
+import com.securefilestorage.model.UploadJob;
+import com.securefilestorage.model.UploadJobStatus;
+import com.securefilestorage.repository.UploadJobRepository;
+import com.securefilestorage.storage.ProgressInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous uploads: the request is spooled to local disk and answered right away,
+ * and a bounded worker pool encrypts and uploads the spool in the background.
+ * <p>
+ * Job state lives in the {@code upload_job} table, so progress can be queried from any node
+ * and a restarted node resumes the jobs whose spool files it still has. A failed attempt re-queues
+ * the job up to {@code aws.upload.job-max-attempts}; the spool file is kept until the job completes
+ * or its last attempt fails, so an accepted upload is not lost to a transient failure.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Service
+@Slf4j
+public class UploadJobService {
+
+    /** Bytes between two progress updates of a running job */
+    private static final long PROGRESS_INTERVAL = 8L * 1024 * 1024;
+
+    /** Encrypts and stores file content */
+    private final FileStorageService fileStorageService;
+
+    /** Repository for upload job state */
+    private final UploadJobRepository uploadJobRepository;
+
+    /** Bounded worker pool running the jobs */
+    private final ExecutorService uploadJobExecutor;
+
+    /** Directory holding spooled uploads */
+    private final Path spoolDirectory;
+
+    /** Attempts of a job before it fails */
+    private final int maxAttempts;
+
+    public UploadJobService(final FileStorageService fileStorageService,
+                            final UploadJobRepository uploadJobRepository,
+                            @Qualifier("uploadJobExecutor") final ExecutorService uploadJobExecutor,
+                            final AwsProperties awsProperties) {
+        this.fileStorageService = fileStorageService;
+        this.uploadJobRepository = uploadJobRepository;
+        this.uploadJobExecutor = uploadJobExecutor;
+        this.spoolDirectory = Path.of(awsProperties.getUpload().getSpoolDirectory());
+        this.maxAttempts = awsProperties.getUpload().getJobMaxAttempts();
+        try {
+            Files.createDirectories(spoolDirectory);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to create spool directory " + spoolDirectory, e);
+        }
+    }
+
+    /**
+     * Spools a file to local disk and queues it for upload.
+     *
+     * @param file the file to upload.
+     * @return the pending job.
+     * @throws UploadRejectedException if the job queue is full.
+     */
+    public UploadJob submit(MultipartFile file) {
+        UUID jobId = UUID.randomUUID();
+        Path spool = spoolDirectory.resolve(jobId + ".spool");
+        try {
+            file.transferTo(spool);
+        } catch (IOException e) {
+            deleteQuietly(spool);
+            log.error("Failed to spool upload {}.", file.getOriginalFilename(), e);
+            throw new FileStorageException("Failed to spool upload.", e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadJob job = uploadJobRepository.save(UploadJob.builder()
+                .id(jobId)
+                .fileName(file.getOriginalFilename())
+                .uploadedBy(FileStorageService.currentUser())
+                .spoolPath(spool.toString())
+                .fileSize(file.getSize())
+                .bytesUploaded(0L)
+                .status(UploadJobStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        try {
+            uploadJobExecutor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            uploadJobRepository.delete(job);
+            deleteQuietly(spool);
+            throw new UploadRejectedException("Upload queue is full, retry later.");
+        }
+        log.info("Spooled upload {} as job {}.", file.getOriginalFilename(), jobId);
+        return job;
+    }
+
+    /**
+     * Looks up a job of the current user. Jobs of other users, and all jobs for unauthenticated
+     * callers, are reported as missing.
+     *
+     * @param jobId the job id.
+     * @return the job, if it exists and was submitted by the current user.
+     */
+    public Optional<UploadJob> findJob(UUID jobId) {
+        String owner = FileStorageService.currentUser();
+        if (owner == null) {
+            return Optional.empty();
+        }
+        return uploadJobRepository.findByIdAndUploadedBy(jobId, owner);
+    }
+
+    /**
+     * Re-queues unfinished jobs whose spool files are on this node.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        List<UploadJob> unfinished = uploadJobRepository.findByStatusIn(
+                List.of(UploadJobStatus.PENDING, UploadJobStatus.RUNNING));
+        int resumed = 0;
+        for (UploadJob job : unfinished) {
+            if (!Files.exists(Path.of(job.getSpoolPath()))) {
+                continue;
+            }
+            if (job.getStatus() == UploadJobStatus.RUNNING) {
+                // Interrupted by the shutdown of this node; upload the spool again from the start.
+                uploadJobRepository.transition(job.getId(), UploadJobStatus.RUNNING, UploadJobStatus.PENDING,
+                        LocalDateTime.now());
+            }
+            try {
+                uploadJobExecutor.execute(() -> run(job.getId()));
+                resumed++;
+            } catch (RejectedExecutionException e) {
+                log.warn("Upload queue is full, {} spooled jobs stay pending until the next restart.",
+                        unfinished.size() - resumed);
+                break;
+            }
+        }
+        if (resumed > 0) {
+            log.info("Resumed {} spooled upload jobs.", resumed);
+        }
+    }
+
+    /**
+     * Encrypts and uploads a spooled job. The spool is removed once the job completes or its last
+     * attempt fails; an earlier failed attempt re-queues the job.
+     *
+     * @param jobId the job id.
+     */
+    private void run(UUID jobId) {
+        if (uploadJobRepository.claim(jobId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        UploadJob job;
+        try {
+            job = uploadJobRepository.findById(jobId)
+                    .orElseThrow(() -> new FileStorageException("Upload job " + jobId + " not found."));
+        } catch (RuntimeException e) {
+            // Hand the job back rather than leave it running; it is not re-queued here, since the same
+            // failure would repeat without counting against its attempts, so the next restart resumes it.
+            log.error("Failed to load upload job {}.", jobId, e);
+            release(jobId);
+            return;
+        }
+        Path spool = Path.of(job.getSpoolPath());
+        log.info("Starting upload job {} for {}, attempt {} of {}.", jobId, job.getFileName(),
+                job.getAttempts(), maxAttempts);
+
+        ProgressInputStream content = null;
+        try {
+            content = new ProgressInputStream(Files.newInputStream(spool), PROGRESS_INTERVAL,
+                    bytes -> uploadJobRepository.updateProgress(jobId, bytes, LocalDateTime.now()));
+            ProgressInputStream upload = content;
+            String storedFileName = fileStorageService.storeFile(job.getUploadedBy(), job.getFileName(),
+                    job.getFileSize(), new FileStorageService.ContentSource() {
+                        @Override
+                        public InputStream open() throws IOException {
+                            return Files.newInputStream(spool);
+                        }
+
+                        @Override
+                        public InputStream openForUpload() {
+                            // Only the upload itself counts as progress.
+                            return upload;
+                        }
+                    });
+            job.setStatus(UploadJobStatus.COMPLETED);
+            job.setS3Key(storedFileName);
+            job.setError(null);
+            job.setBytesUploaded(job.getFileSize());
+            log.info("Upload job {} completed as {}.", jobId, storedFileName);
+        } catch (IOException | RuntimeException e) {
+            job.setError(e instanceof FileStorageException || e instanceof AwsServiceException
+                    ? e.getMessage() : "Failed to upload file.");
+            if (job.getAttempts() < maxAttempts) {
+                log.warn("Upload job {} failed on attempt {} of {}, retrying.", jobId, job.getAttempts(),
+                        maxAttempts, e);
+                job.setStatus(UploadJobStatus.PENDING);
+                job.setBytesUploaded(0L);
+            } else {
+                log.error("Upload job {} failed after {} attempts.", jobId, job.getAttempts(), e);
+                job.setStatus(UploadJobStatus.FAILED);
+                job.setBytesUploaded(content != null ? content.getBytesRead() : 0L);
+            }
+        } finally {
+            closeQuietly(content);
+        }
+        job.setUpdatedAt(LocalDateTime.now());
+        uploadJobRepository.save(job);
+        if (job.getStatus() == UploadJobStatus.PENDING) {
+            requeue(jobId);
+        } else {
+            deleteQuietly(spool);
+        }
+    }
+
+    /**
+     * Queues another attempt of a job; if the queue is full the job stays pending until the next restart.
+     *
+     * @param jobId the job id.
+     */
+    private void requeue(UUID jobId) {
+        try {
+            uploadJobExecutor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            log.warn("Upload queue is full, job {} stays pending until the next restart.", jobId);
+        }
+    }
+
+    /**
+     * Moves a claimed job back to pending.
+     *
+     * @param jobId the job id.
+     */
+    private void release(UUID jobId) {
+        try {
+            uploadJobRepository.transition(jobId, UploadJobStatus.RUNNING, UploadJobStatus.PENDING,
+                    LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.warn("Failed to release upload job {}, it is resumed on the next restart.", jobId, e);
+        }
+    }
+
+    private void closeQuietly(InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.warn("Failed to close spool file.", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete spool file: {}", file, e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.securefilestorage.service;
 
 import com.securefilestorage.model.User;
 import com.securefilestorage.repository.UserRepository;
+import com.securefilestorage.security.CredentialCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,6 +21,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CredentialCache credentialCache;
 
     /**
      * Registers a new user.
@@ -46,12 +48,15 @@ public class UserService {
     }
 
     /**
-     * Deletes a user by ID.
+     * Deletes a user by ID and drops its cached credentials.
      *
      * @param userId ID of the user to delete.
      */
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        userRepository.findById(userId).ifPresent(user -> {
+            userRepository.delete(user);
+            credentialCache.invalidate(user.getLogin());
+        });
         log.info("User with ID {} deleted", userId);
     }
 }
\ No newline at end of file
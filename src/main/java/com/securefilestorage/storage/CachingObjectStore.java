@@ -0,0 +1,627 @@
+package com.securefilestorage.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.securefilestorage.config.StorageProperties;
+import com.securefilestorage.exception.FileNotFoundException;
+import com.securefilestorage.exception.FileStorageException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of whole objects on local disk in front of the configured backend, enabled
+ * with {@code storage.cache.enabled}. Objects are cached as stored, i.e. as ciphertext; plaintext
+ * never reaches the cache directory.
+ * <p>
+ * An object is copied into the cache once it has been read {@code min-reads} times from its first
+ * byte, which every download does. A whole-object read fills the cache while the caller reads; a
+ * ranged read is served by the backend while the whole object is copied in the background. The
+ * backend is the {@link ObjectStore#BACKEND} bean, which this store wraps as the primary one. Only
+ * the cache's own files in the cache directory are deleted on startup and shutdown. The disk budget is enforced by Caffeine's W-TinyLFU
+ * eviction, weighted by object size, so rarely read objects do not displace hot ones. A cached
+ * object older than {@code revalidate-after} is compared with the backend's ETag before it is
+ * served, and dropped if the object has changed. Cached reads go through a {@link FileChannelInputStream}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "storage.cache", name = "enabled", havingValue = "true")
+public class CachingObjectStore implements ObjectStore {
+
+    /** Keys whose reads are counted towards admission */
+    private static final int TRACKED_KEYS = 100_000;
+
+    /** Subdirectory of the objects being copied into the cache */
+    private static final String STAGING_DIRECTORY = ".staging";
+
+    /** Names of the cached objects in the cache directory */
+    private static final String ENTRY_FILES = "*.obj";
+
+    /** Names of the copies in progress in the staging directory */
+    private static final String FILL_FILES = "fill-*.tmp";
+
+    /** The backend holding the objects */
+    private final ObjectStore delegate;
+
+    /** Copies objects into the cache after ranged reads */
+    private final ExecutorService fillExecutor;
+
+    private final StorageProperties.Cache settings;
+
+    private final Path directory;
+
+    private final Path staging;
+
+    /** Cached objects by key, weighted in KiB */
+    private final Cache<String, Entry> entries;
+
+    /** Reads from the first byte per key that is not cached yet */
+    private final Cache<String, AtomicInteger> reads;
+
+    /** Keys being copied into the cache; the value turns true if the object is deleted meanwhile */
+    private final Map<String, Boolean> filling = new ConcurrentHashMap<>();
+
+    /** Bytes of the cached objects */
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter stale;
+
+    private final Counter bytesSaved;
+
+    public CachingObjectStore(@Qualifier(ObjectStore.BACKEND) final ObjectStore delegate,
+                              @Qualifier("cacheFillExecutor") final ExecutorService fillExecutor,
+                              final StorageProperties storageProperties, final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.fillExecutor = fillExecutor;
+        this.settings = storageProperties.getCache();
+        this.directory = Path.of(settings.getDirectory()).toAbsolutePath().normalize();
+        this.staging = directory.resolve(STAGING_DIRECTORY);
+        try {
+            Files.createDirectories(staging);
+            deleteFiles(staging, FILL_FILES);
+            deleteFiles(directory, ENTRY_FILES);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to prepare the cache directory: " + directory, e);
+        }
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(Math.max(settings.getMaxSize().toBytes() / 1024, 1))
+                .weigher((String key, Entry entry) -> (int) Math.min((entry.length + 1023) / 1024, Integer.MAX_VALUE))
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        cachedBytes.addAndGet(-entry.length);
+                        deleteQuietly(entry.file);
+                    }
+                })
+                .recordStats()
+                .build();
+        this.reads = Caffeine.newBuilder().maximumSize(TRACKED_KEYS).build();
+        this.meterRegistry = meterRegistry;
+        this.hits = gets("hit");
+        this.misses = gets("miss");
+        this.stale = gets("stale");
+        this.bytesSaved = Counter.builder("ciphertext.cache.bytes.saved")
+                .description("Ciphertext bytes served from the cache instead of the object store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "ciphertext");
+        Gauge.builder("ciphertext.cache.size", cachedBytes, AtomicLong::get)
+                .description("Bytes of ciphertext held in the cache directory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("ciphertext.cache.hit.ratio", this, CachingObjectStore::hitRatio)
+                .description("Share of object reads served from the cache")
+                .register(meterRegistry);
+        log.info("Caching objects of up to {} in {}, budget {}", settings.getMaxObjectSize(), directory,
+                settings.getMaxSize());
+    }
+
+    @Override
+    public String getLocation() {
+        return delegate.getLocation();
+    }
+
+    @Override
+    public StorageOutputStream openUpload(String key, long sizeHint) throws IOException {
+        return delegate.openUpload(key, sizeHint);
+    }
+
+    @Override
+    public ObjectStream open(String key) throws IOException {
+        ObjectStream cached = openCached(key, 0, Long.MAX_VALUE - 1);
+        if (cached != null) {
+            return cached;
+        }
+        ObjectStream remote = delegate.open(key);
+        return admit(key, remote.objectLength()) ? fillWhileReading(key, remote) : remote;
+    }
+
+    @Override
+    public ObjectStream openRange(String key, long first, long last) throws IOException {
+        ObjectStream cached = openCached(key, first, last);
+        if (cached != null) {
+            return cached;
+        }
+        ObjectStream remote = delegate.openRange(key, first, last);
+        if (first != 0 || !admit(key, remote.objectLength())) {
+            return remote;
+        }
+        if (remote.length() == remote.objectLength()) {
+            return fillWhileReading(key, remote);
+        }
+        fillInBackground(key);
+        return remote;
+    }
+
+    @Override
+    public String etag(String key) throws IOException {
+        return delegate.etag(key);
+    }
+
+    /**
+     * Cached objects are read from disk, never as parallel ranges.
+     */
+    @Override
+    public boolean isParallel(String key, long bytes) {
+        return entries.getIfPresent(key) == null && delegate.isParallel(key, bytes);
+    }
+
+    @Override
+    public InputStream openParallelRange(String key, long first, long last, long alignment,
+                                         ParallelRangeInputStream.WindowDecoder decoder) {
+        return delegate.openParallelRange(key, first, last, alignment, decoder);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        invalidate(key);
+        delegate.delete(key);
+    }
+
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        keys.forEach(this::invalidate);
+        return delegate.deleteAll(keys);
+    }
+
+    /**
+     * Removes all cached objects on shutdown.
+     */
+    @PreDestroy
+    public void clear() {
+        entries.invalidateAll();
+        entries.cleanUp();
+        try {
+            deleteFiles(staging, FILL_FILES);
+            deleteFiles(directory, ENTRY_FILES);
+        } catch (IOException e) {
+            log.warn("Failed to empty the cache directory {}", directory, e);
+        }
+    }
+
+    /**
+     * Opens a range of a cached object, after revalidating the object if it is due.
+     *
+     * @return the range, or {@code null} if the object is not cached or has changed.
+     */
+    private ObjectStream openCached(String key, long first, long last) throws IOException {
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && isStale(key, entry)) {
+            entries.asMap().remove(key, entry);
+            stale.increment();
+            return null;
+        }
+        ObjectStream stream = entry == null ? null : openEntry(key, entry, first, last);
+        if (stream == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return stream;
+    }
+
+    private boolean isStale(String key, Entry entry) throws IOException {
+        if (entry.etag == null || System.nanoTime() - entry.validatedAt < settings.getRevalidateAfter().toNanos()) {
+            return false;
+        }
+        String current;
+        try {
+            current = delegate.etag(key);
+        } catch (FileNotFoundException e) {
+            entries.asMap().remove(key, entry);
+            throw e;
+        }
+        if (!entry.etag.equals(current)) {
+            log.debug("Cached object {} has changed, dropping it.", key);
+            return true;
+        }
+        entry.validatedAt = System.nanoTime();
+        return false;
+    }
+
+    /**
+     * Opens the bytes {@code [first, last]} of a cached file.
+     *
+     * @return the range, or {@code null} if the file has been evicted meanwhile.
+     */
+    private ObjectStream openEntry(String key, Entry entry, long first, long last) {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(entry.file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            if (!(e instanceof NoSuchFileException)) {
+                log.warn("Failed to read cached object {}", key, e);
+            }
+            entries.asMap().remove(key, entry);
+            return null;
+        }
+        long start = Math.min(first, entry.length);
+        long length = Math.max(Math.min(last + 1, entry.length) - start, 0);
+        return new ObjectStream(new SavingInputStream(new FileChannelInputStream(channel, start, start + length)),
+                length, entry.length, entry.etag);
+    }
+
+    /**
+     * Counts a read from the first byte of an object and decides whether to cache the object.
+     * The caller removes the key from {@link #filling} once it is done, if this returns true.
+     */
+    private boolean admit(String key, long objectLength) {
+        int count = reads.get(key, k -> new AtomicInteger()).incrementAndGet();
+        return count >= settings.getMinReads()
+                && objectLength > 0
+                && objectLength <= settings.getMaxObjectSize().toBytes()
+                && filling.putIfAbsent(key, Boolean.FALSE) == null;
+    }
+
+    /**
+     * Copies a whole object from the backend into the cache.
+     *
+     * @return the new entry, or {@code null} if the object could not be copied.
+     */
+    private Entry fill(String key) {
+        Path temp = null;
+        try (ObjectStream object = delegate.open(key)) {
+            temp = Files.createTempFile(staging, "fill-", ".tmp");
+            long copied;
+            try (OutputStream out = new FileOutputStream(temp.toFile())) {
+                copied = object.transferTo(out);
+            }
+            if (copied != object.length()) {
+                throw new IOException("Object " + key + " ended after " + copied + " of " + object.length() + " bytes");
+            }
+            Entry entry = publish(key, temp, copied, object.etag());
+            temp = null;
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to cache object {}", key, e);
+            return null;
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Copies a whole object into the cache on the fill executor. If the executor is saturated the
+     * object is not copied now and is admitted again on a later read.
+     */
+    private void fillInBackground(String key) {
+        try {
+            fillExecutor.execute(() -> {
+                try {
+                    fill(key);
+                } finally {
+                    filling.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Cache fill queue is full, not caching object {} now.", key);
+            filling.remove(key);
+        }
+    }
+
+    /**
+     * Wraps a whole-object read so that everything the caller reads is also copied into the cache.
+     */
+    private ObjectStream fillWhileReading(String key, ObjectStream remote) {
+        Path temp;
+        FileChannel channel;
+        try {
+            temp = Files.createTempFile(staging, "fill-", ".tmp");
+            try {
+                channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                deleteQuietly(temp);
+                throw e;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to cache object {}", key, e);
+            filling.remove(key);
+            return remote;
+        }
+        FillingInputStream filler = new FillingInputStream(key, remote, temp, channel);
+        return new ObjectStream(filler, remote.length(), remote.objectLength(), remote.etag()) {
+            @Override
+            public void abort() {
+                filler.discard();
+                remote.abort();
+            }
+        };
+    }
+
+    /**
+     * Moves a fully copied object into the cache.
+     */
+    private Entry publish(String key, Path temp, long length, String etag) throws IOException {
+        Path file = directory.resolve(UUID.randomUUID() + ".obj");
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        Entry entry = new Entry(file, length, etag);
+        cachedBytes.addAndGet(length);
+        entries.put(key, entry);
+        if (Boolean.TRUE.equals(filling.get(key))) {
+            // Deleted while it was being copied
+            entries.asMap().remove(key, entry);
+            return null;
+        }
+        reads.invalidate(key);
+        return entry;
+    }
+
+    private void invalidate(String key) {
+        filling.computeIfPresent(key, (k, deleted) -> Boolean.TRUE);
+        entries.invalidate(key);
+        reads.invalidate(key);
+    }
+
+    private double hitRatio() {
+        double served = hits.count();
+        double total = served + misses.count() + stale.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    private Counter gets(String result) {
+        return Counter.builder("ciphertext.cache.gets")
+                .description("Object reads looked up in the ciphertext cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deletes the regular files of a directory whose names match a glob, leaving everything else in place.
+     */
+    private static void deleteFiles(Path dir, String glob) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cache file {}", file, e);
+        }
+    }
+
+    /**
+     * A cached object.
+     */
+    private static final class Entry {
+
+        private final Path file;
+
+        private final long length;
+
+        private final String etag;
+
+        /** {@link System#nanoTime()} of the last ETag check */
+        private volatile long validatedAt;
+
+        private Entry(Path file, long length, String etag) {
+            this.file = file;
+            this.length = length;
+            this.etag = etag;
+            this.validatedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Counts the bytes read from a cached object as saved backend traffic, so reads that are
+     * abandoned early only count what was served.
+     */
+    private final class SavingInputStream extends FilterInputStream {
+
+        private SavingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                bytesSaved.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                bytesSaved.increment(n);
+            }
+            return n;
+        }
+
+        /**
+         * Keeps the channel-to-channel copy of {@link FileChannelInputStream}.
+         */
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            long n = in.transferTo(out);
+            bytesSaved.increment(n);
+            return n;
+        }
+    }
+
+    /**
+     * Copies everything read from a whole-object stream into a staging file, which is published
+     * into the cache once all bytes have been read.
+     */
+    private final class FillingInputStream extends FilterInputStream {
+
+        private final String key;
+
+        private final long expected;
+
+        private final String etag;
+
+        private final Path temp;
+
+        private FileChannel channel;
+
+        private long written;
+
+        private FillingInputStream(String key, ObjectStream remote, Path temp, FileChannel channel) {
+            super(remote);
+            this.key = key;
+            this.expected = remote.length();
+            this.etag = remote.etag();
+            this.temp = temp;
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0 && channel != null) {
+                try {
+                    ByteBuffer buffer = ByteBuffer.wrap(b, off, n);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    written += n;
+                } catch (IOException e) {
+                    log.warn("Failed to cache object {}", key, e);
+                    discard();
+                }
+            } else if (n == -1) {
+                complete();
+            }
+            return n;
+        }
+
+        /**
+         * Skipped bytes are not copied, so the object is not cached.
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            discard();
+            return in.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                complete();
+            } finally {
+                in.close();
+            }
+        }
+
+        /**
+         * Publishes the copy if it is complete, otherwise discards it.
+         */
+        private void complete() {
+            if (channel == null) {
+                return;
+            }
+            if (written != expected) {
+                discard();
+                return;
+            }
+            try {
+                channel.close();
+                channel = null;
+                publish(key, temp, written, etag);
+            } catch (IOException e) {
+                log.warn("Failed to cache object {}", key, e);
+                deleteQuietly(temp);
+            } finally {
+                channel = null;
+                filling.remove(key);
+            }
+        }
+
+        private void discard() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The copy is deleted anyway
+            }
+            channel = null;
+            deleteQuietly(temp);
+            filling.remove(key);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.securefilestorage.storage;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the bytes {@code [position, end)} of a file channel with positional reads. Copying the
+ * stream into a file moves the bytes with {@link FileChannel#transferTo} instead of through the heap.
+ * Closing the stream closes the channel.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class FileChannelInputStream extends InputStream {
+
+    private final FileChannel channel;
+
+    private final long end;
+
+    private long position;
+
+    /**
+     * Creates the stream.
+     *
+     * @param channel  the file, open for reading.
+     * @param position offset of the first byte.
+     * @param end      offset after the last byte.
+     */
+    public FileChannelInputStream(FileChannel channel, long position, long end) {
+        this.channel = channel;
+        this.position = position;
+        this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= end) {
+            return -1;
+        }
+        int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(Math.min(n, end - position), 0);
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(end - position, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Copies the rest of the range; into a file the kernel moves the bytes directly.
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        if (!(out instanceof FileOutputStream fileOut)) {
+            return super.transferTo(out);
+        }
+        FileChannel target = fileOut.getChannel();
+        long transferred = 0;
+        while (position < end) {
+            long n = channel.transferTo(position, end - position, target);
+            if (n <= 0) {
+                break;
+            }
+            position += n;
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,237 @@
+package com.securefilestorage.storage;
+
+import com.securefilestorage.config.StorageProperties;
+import com.securefilestorage.exception.FileNotFoundException;
+import com.securefilestorage.exception.FileStorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object store in a directory of the local file system, selected with {@code storage.backend=local}.
+ * <p>
+ * An object is stored under the SHA-256 of its key, fanned out over subdirectories named after the
+ * first hash byte, so arbitrary keys map to safe file names. Uploads are written to a staging file
+ * and renamed into place atomically on close, so readers never see a partial object. Reads go
+ * through a {@link FileChannelInputStream}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+@Qualifier(ObjectStore.BACKEND)
+@ConditionalOnProperty(prefix = "storage", name = "backend", havingValue = "local")
+public class LocalObjectStore implements ObjectStore {
+
+    /** Subdirectory of the uploads in progress */
+    private static final String STAGING_DIRECTORY = ".staging";
+
+    private final Path root;
+
+    private final Path staging;
+
+    private final boolean fsync;
+
+    public LocalObjectStore(final StorageProperties storageProperties) {
+        this.root = Path.of(storageProperties.getLocal().getDirectory()).toAbsolutePath().normalize();
+        this.staging = root.resolve(STAGING_DIRECTORY);
+        this.fsync = storageProperties.getLocal().isFsync();
+        try {
+            Files.createDirectories(staging);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to create the storage directory: " + root, e);
+        }
+        log.info("Storing objects in local directory {}", root);
+    }
+
+    @Override
+    public String getLocation() {
+        return root.toString();
+    }
+
+    @Override
+    public StorageOutputStream openUpload(String key, long sizeHint) throws IOException {
+        Path temp = Files.createTempFile(staging, "upload-", ".tmp");
+        try {
+            return new LocalOutputStream(FileChannel.open(temp, StandardOpenOption.WRITE), temp, path(key));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    @Override
+    public ObjectStream open(String key) throws IOException {
+        return openRange(key, 0, Long.MAX_VALUE - 1);
+    }
+
+    @Override
+    public ObjectStream openRange(String key, long first, long last) throws IOException {
+        Path path = path(key);
+        FileChannel channel;
+        String etag;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            etag = etag(path);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("File not found: " + key, e);
+        }
+        try {
+            long size = channel.size();
+            long start = Math.min(first, size);
+            long end = Math.min(last + 1, size);
+            long length = Math.max(end - start, 0);
+            return new ObjectStream(new FileChannelInputStream(channel, start, start + length), length, size, etag);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String etag(String key) throws IOException {
+        try {
+            return etag(path(key));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("File not found: " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(path(key));
+        log.info("File deleted from local directory: {}", root);
+    }
+
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        Map<String, String> errors = new HashMap<>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(path(key));
+            } catch (IOException e) {
+                log.warn("Failed to delete object {}.", key, e);
+                errors.put(key, "Failed to delete file.");
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Version of an object file from its size and modification time; a replaced object gets a new one.
+     */
+    private static String etag(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * File of an object: {@code <root>/<first hash byte>/<SHA-256 of the key>}.
+     *
+     * @param key object key.
+     * @return the object path.
+     */
+    private Path path(String key) {
+        String hash;
+        try {
+            hash = HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Writes an upload into a staging file and moves it into place when closed.
+     */
+    private final class LocalOutputStream extends StorageOutputStream {
+
+        private final FileChannel channel;
+
+        private final Path temp;
+
+        private final Path target;
+
+        private boolean closed;
+
+        private LocalOutputStream(FileChannel channel, Path temp, Path target) {
+            this.channel = channel;
+            this.temp = temp;
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try (channel) {
+                if (fsync) {
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            try {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                channel.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Failed to discard staged upload {}", temp, e);
+            }
+        }
+    }
+}
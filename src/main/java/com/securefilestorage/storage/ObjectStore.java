@@ -0,0 +1,121 @@
+package com.securefilestorage.storage;
+
+import com.securefilestorage.exception.FileNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store of the encrypted objects, selected with {@code storage.backend}.
+ * <p>
+ * Implementations: {@link S3ObjectStore} for the configured S3 bucket and {@link LocalObjectStore}
+ * for a local directory. Objects are written once and never modified; a missing object is reported
+ * as {@link FileNotFoundException}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public interface ObjectStore {
+
+    /**
+     * Qualifier of the backend implementation, for decorators that wrap it rather than the primary store.
+     */
+    String BACKEND = "objectStoreBackend";
+
+    /**
+     * Location of the objects, recorded in the file metadata: the bucket name or the directory.
+     *
+     * @return the location.
+     */
+    String getLocation();
+
+    /**
+     * Opens a new object for writing; see {@link StorageOutputStream} for close/abort semantics.
+     *
+     * @param key      object key.
+     * @param sizeHint expected object size in bytes.
+     * @return the upload stream.
+     * @throws IOException if the object cannot be created.
+     */
+    StorageOutputStream openUpload(String key, long sizeHint) throws IOException;
+
+    /**
+     * Opens a whole object.
+     *
+     * @param key object key.
+     * @return the content; the caller must close or abort it.
+     * @throws FileNotFoundException if there is no such object.
+     * @throws IOException           if the object cannot be read.
+     */
+    ObjectStream open(String key) throws IOException;
+
+    /**
+     * Opens the bytes {@code [first, last]} of an object; a range reaching past the end of the
+     * object is cut off at the end.
+     *
+     * @param key   object key.
+     * @param first offset of the first byte.
+     * @param last  offset of the last byte (inclusive).
+     * @return the content with the length of the whole object; the caller must close or abort it.
+     * @throws FileNotFoundException if there is no such object.
+     * @throws IOException           if the object cannot be read.
+     */
+    ObjectStream openRange(String key, long first, long last) throws IOException;
+
+    /**
+     * Current version of an object without reading it; changes whenever the object is replaced.
+     *
+     * @param key object key.
+     * @return the ETag.
+     * @throws FileNotFoundException if there is no such object.
+     * @throws IOException           if the object cannot be read.
+     */
+    String etag(String key) throws IOException;
+
+    /**
+     * Whether a range of the given size is better read with {@link #openParallelRange}.
+     *
+     * @param key   object key.
+     * @param bytes size of the range.
+     * @return true if the store reads ranges of this size concurrently.
+     */
+    default boolean isParallel(String key, long bytes) {
+        return false;
+    }
+
+    /**
+     * Reads the bytes {@code [first, last]} of an object as concurrently fetched windows, each
+     * decoded independently. Normally only called when {@link #isParallel(String, long)} holds;
+     * the default reads the windows one after another with {@link #openRange}.
+     *
+     * @param key       object key.
+     * @param first     offset of the first byte.
+     * @param last      offset of the last byte (inclusive).
+     * @param alignment window sizes are a multiple of this many bytes.
+     * @param decoder   decoder applied to every window.
+     * @return the reassembled, decoded stream.
+     */
+    default InputStream openParallelRange(String key, long first, long last, long alignment,
+                                          ParallelRangeInputStream.WindowDecoder decoder) {
+        return new SequentialRangeInputStream(this, key, first, last, alignment, decoder);
+    }
+
+    /**
+     * Deletes an object; deleting a missing object succeeds.
+     *
+     * @param key object key.
+     * @throws IOException if the object cannot be deleted.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Deletes several objects. A key that fails does not fail the others.
+     *
+     * @param keys object keys.
+     * @return failure reasons by key; keys not contained were deleted.
+     */
+    Map<String, String> deleteAll(List<String> keys);
+}
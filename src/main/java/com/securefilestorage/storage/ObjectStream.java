@@ -0,0 +1,84 @@
+package com.securefilestorage.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Content of an object, or of a byte range of it, read from an {@link ObjectStore}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class ObjectStream extends FilterInputStream {
+
+    private final long length;
+
+    private final long objectLength;
+
+    private final String etag;
+
+    /**
+     * Creates the stream.
+     *
+     * @param in           the content.
+     * @param length       number of bytes in {@code in}.
+     * @param objectLength length of the whole object.
+     * @param etag         version of the object, or {@code null} if unknown.
+     */
+    public ObjectStream(InputStream in, long length, long objectLength, String etag) {
+        super(in);
+        this.length = length;
+        this.objectLength = Math.max(length, objectLength);
+        this.etag = etag;
+    }
+
+    /**
+     * Number of bytes of this stream.
+     *
+     * @return the content length.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Length of the whole object, which is larger than {@link #length()} for a range.
+     *
+     * @return the object length.
+     */
+    public long objectLength() {
+        return objectLength;
+    }
+
+    /**
+     * Version of the object, as returned by {@link ObjectStore#etag(String)}.
+     *
+     * @return the ETag, or {@code null} if the backend did not report one.
+     */
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * Delegates to the content, so that a backend can copy without going through the heap.
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        return in.transferTo(out);
+    }
+
+    /**
+     * Releases the stream without reading the rest of it, e.g. after a failure.
+     * Remote backends drop the connection instead of draining it.
+     */
+    public void abort() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+}
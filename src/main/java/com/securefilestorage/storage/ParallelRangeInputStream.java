@@ -0,0 +1,191 @@
+package com.securefilestorage.storage;
+
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Input stream over a byte range of an S3 object that is fetched as several concurrent
+ * ranged GETs ("windows") and reassembled in order.
+ * <p>
+ * At most {@code maxConcurrency} windows are requested ahead of the reader, so memory stays
+ * below {@code (maxConcurrency + 1) * windowSize} no matter how large the object is. Each
+ * window is handed to a {@link WindowDecoder} on its own, which lets callers decrypt windows
+ * independently as long as window boundaries are aligned to the encryption chunks. Once a window
+ * fails, the windows still in flight are cancelled and every further read fails.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class ParallelRangeInputStream extends InputStream {
+
+    /**
+     * Turns the raw bytes of one window into the stream returned to the reader.
+     */
+    @FunctionalInterface
+    public interface WindowDecoder {
+
+        /**
+         * Decodes a window.
+         *
+         * @param offset object offset of the first byte of {@code window}.
+         * @param window the raw window bytes.
+         * @return the decoded content of the window.
+         * @throws IOException if the window cannot be decoded.
+         */
+        InputStream decode(long offset, byte[] window) throws IOException;
+    }
+
+    private record PendingWindow(long offset, CompletableFuture<ResponseBytes<GetObjectResponse>> response) {
+    }
+
+    private final S3AsyncClient s3AsyncClient;
+
+    private final String bucket;
+
+    private final String key;
+
+    private final long end;
+
+    private final long windowSize;
+
+    private final int maxConcurrency;
+
+    private final WindowDecoder decoder;
+
+    private final Deque<PendingWindow> pending = new ArrayDeque<>();
+
+    private long nextOffset;
+
+    private InputStream current;
+
+    private boolean closed;
+
+    private boolean failed;
+
+    /**
+     * Creates the stream and starts fetching the first windows.
+     *
+     * @param s3AsyncClient  async S3 client.
+     * @param bucket         bucket of the object.
+     * @param key            object key.
+     * @param start          first object offset to read.
+     * @param end            last object offset to read (inclusive).
+     * @param windowSize     bytes per ranged GET.
+     * @param maxConcurrency maximum number of ranged GETs in flight.
+     * @param decoder        decoder applied to every window.
+     */
+    public ParallelRangeInputStream(S3AsyncClient s3AsyncClient, String bucket, String key, long start, long end,
+                                    long windowSize, int maxConcurrency, WindowDecoder decoder) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.bucket = bucket;
+        this.key = key;
+        this.end = end;
+        this.windowSize = windowSize;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.decoder = decoder;
+        this.nextOffset = start;
+        fetchAhead();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+        if (failed) {
+            throw new IOException("A window of " + key + " could not be read.");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        try {
+            while (true) {
+                if (current != null) {
+                    int n = current.read(b, off, len);
+                    if (n >= 0) {
+                        return n;
+                    }
+                    current.close();
+                    current = null;
+                }
+                PendingWindow window = pending.poll();
+                if (window == null) {
+                    return -1;
+                }
+                fetchAhead();
+                current = decoder.decode(window.offset(), await(window.response()).asByteArrayUnsafe());
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            cancelPending();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        cancelPending();
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    private void cancelPending() {
+        pending.forEach(window -> window.response().cancel(true));
+        pending.clear();
+    }
+
+    private void fetchAhead() {
+        while (pending.size() < maxConcurrency && nextOffset <= end) {
+            long windowEnd = Math.min(nextOffset + windowSize, end + 1) - 1;
+            CompletableFuture<ResponseBytes<GetObjectResponse>> response = s3AsyncClient.getObject(
+                    GetObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .range("bytes=" + nextOffset + "-" + windowEnd)
+                            .build(),
+                    AsyncResponseTransformer.toBytes());
+            pending.add(new PendingWindow(nextOffset, response));
+            nextOffset = windowEnd + 1;
+        }
+    }
+
+    private static ResponseBytes<GetObjectResponse> await(CompletableFuture<ResponseBytes<GetObjectResponse>> response)
+            throws IOException {
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a ranged GET.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Ranged GET failed.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.securefilestorage.storage;
+
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Shared pool of upload part buffers bounded by a global memory budget.
+ * <p>
+ * Full-size part buffers are recycled to avoid re-allocating large arrays; smaller buffers
+ * for objects that fit into a single request are allocated on demand. Every buffer counts
+ * against the budget while it is held, and callers block until enough budget is free.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class PartBufferPool {
+
+    /** Budget accounting granularity; a semaphore permit stands for this many bytes */
+    private static final int PERMIT_BYTES = 1024;
+
+    private final int partSize;
+
+    private final Semaphore budget;
+
+    private final Queue<byte[]> free = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates the pool.
+     *
+     * @param partSize          size of a full part buffer.
+     * @param memoryBudgetBytes total bytes of buffers that may be held at once; raised to one part if smaller.
+     */
+    public PartBufferPool(int partSize, long memoryBudgetBytes) {
+        this.partSize = partSize;
+        this.budget = new Semaphore((int) Math.min(Integer.MAX_VALUE, permits(Math.max(partSize, memoryBudgetBytes))));
+    }
+
+    /**
+     * Size of a full part buffer.
+     *
+     * @return the part size in bytes.
+     */
+    public int getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Bytes of budget currently not held by any buffer.
+     *
+     * @return available budget in bytes.
+     */
+    public long getAvailableBytes() {
+        return (long) budget.availablePermits() * PERMIT_BYTES;
+    }
+
+    /**
+     * Takes a buffer of the given capacity, blocking until the budget allows it.
+     *
+     * @param capacity buffer size, at most the part size.
+     * @return the buffer.
+     * @throws InterruptedIOException if interrupted while waiting for budget.
+     */
+    public byte[] acquire(int capacity) throws InterruptedIOException {
+        try {
+            budget.acquire(permits(capacity));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for upload buffer memory.");
+        }
+        if (capacity == partSize) {
+            byte[] recycled = free.poll();
+            if (recycled != null) {
+                return recycled;
+            }
+        }
+        return new byte[capacity];
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquire(int)}.
+     *
+     * @param buffer the buffer.
+     */
+    public void release(byte[] buffer) {
+        if (buffer.length == partSize) {
+            free.offer(buffer);
+        }
+        budget.release(permits(buffer.length));
+    }
+
+    private static int permits(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES);
+    }
+}
@@ -0,0 +1,85 @@
+package com.securefilestorage.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Input stream that reports the number of bytes read every {@code interval} bytes.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class ProgressInputStream extends FilterInputStream {
+
+    private final long interval;
+
+    private final LongConsumer listener;
+
+    private long bytesRead;
+
+    private long nextReport;
+
+    /**
+     * Creates the stream.
+     *
+     * @param in       the source stream.
+     * @param interval bytes between two reports.
+     * @param listener receives the total number of bytes read so far.
+     */
+    public ProgressInputStream(InputStream in, long interval, LongConsumer listener) {
+        super(in);
+        this.interval = interval;
+        this.listener = listener;
+        this.nextReport = interval;
+    }
+
+    /**
+     * Number of bytes read so far.
+     *
+     * @return byte count.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long n) {
+        bytesRead += n;
+        if (bytesRead >= nextReport) {
+            nextReport = bytesRead + interval;
+            listener.accept(bytesRead);
+        }
+    }
+}
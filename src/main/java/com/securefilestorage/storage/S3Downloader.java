@@ -0,0 +1,60 @@
+package com.securefilestorage.storage;
+
+import com.securefilestorage.config.AwsProperties;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+/**
+ * Download engine that reads large byte ranges of objects in the configured bucket
+ * as concurrent ranged GETs.
+ * <p>
+ * Window size and concurrency come from {@code aws.download.window-size} and
+ * {@code aws.download.max-concurrency}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class S3Downloader {
+
+    /** Async S3 client used for ranged GETs */
+    private final S3AsyncClient s3AsyncClient;
+
+    /** AWS configuration properties */
+    private final AwsProperties awsProperties;
+
+    public S3Downloader(final S3AsyncClient s3AsyncClient, final AwsProperties awsProperties) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.awsProperties = awsProperties;
+    }
+
+    /**
+     * Opens a parallel reader over {@code [start, end]} of an object.
+     *
+     * @param key       object key.
+     * @param start     first object offset to read.
+     * @param end       last object offset to read (inclusive).
+     * @param alignment window sizes are rounded down to a multiple of this many bytes (at least one unit).
+     * @param decoder   decoder applied to every window.
+     * @return the reassembled stream.
+     */
+    public ParallelRangeInputStream openRange(String key, long start, long end, long alignment,
+                                              ParallelRangeInputStream.WindowDecoder decoder) {
+        AwsProperties.Download download = awsProperties.getDownload();
+        long windowSize = Math.max(1, download.getWindowSize().toBytes() / alignment) * alignment;
+        return new ParallelRangeInputStream(s3AsyncClient, awsProperties.getS3().getBucketName(), key,
+                start, end, windowSize, download.getMaxConcurrency(), decoder);
+    }
+
+    /**
+     * Whether a range of the given size should be read in parallel.
+     *
+     * @param bytes size of the range.
+     * @return true if parallel downloads are enabled and the range reaches the threshold.
+     */
+    public boolean isParallel(long bytes) {
+        AwsProperties.Download download = awsProperties.getDownload();
+        return download.isParallelEnabled() && bytes >= download.getParallelThreshold().toBytes();
+    }
+}
@@ -0,0 +1,293 @@
+package com.securefilestorage.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Output stream that uploads everything written to it as one S3 object.
+ * <p>
+ * Objects that fit into one part are sent with a single {@code PutObject} on {@link #close()}.
+ * Larger objects are sent as a multipart upload whose parts are uploaded concurrently through
+ * the async client, with at most {@code maxInFlightParts} parts of this upload in flight. Part
+ * buffers come from a shared {@link PartBufferPool}, so heap use is bounded by the pool budget
+ * regardless of object size or the number of concurrent uploads. Retries are done by the client
+ * per part; once any part fails for good, further writes fail and the upload is aborted. If
+ * writing fails, {@link #abort()} must be called instead of {@code close()} so no partial object
+ * is left behind.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+public class S3MultipartOutputStream extends StorageOutputStream {
+
+    /** S3 minimum size of every part except the last one */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    /** S3 maximum number of parts per upload */
+    public static final int MAX_PARTS = 10_000;
+
+    private static final String CONTENT_TYPE = "application/octet-stream";
+
+    private final S3AsyncClient s3AsyncClient;
+
+    private final String bucket;
+
+    private final String key;
+
+    private final PartBufferPool bufferPool;
+
+    private final int partSize;
+
+    private final Semaphore inFlightParts;
+
+    private final List<CompletableFuture<CompletedPart>> partFutures = new ArrayList<>();
+
+    private volatile Throwable failure;
+
+    private byte[] buffer;
+
+    private int buffered;
+
+    private String uploadId;
+
+    private long bytesWritten;
+
+    private boolean closed;
+
+    /**
+     * Creates the stream; nothing is sent to S3 until the first part is full or the stream is closed.
+     *
+     * @param s3AsyncClient    async S3 client.
+     * @param bucket           target bucket.
+     * @param key              target object key.
+     * @param bufferPool       shared pool of part buffers; its part size must be at least {@link #MIN_PART_SIZE}.
+     * @param maxInFlightParts maximum number of parts of this upload sent concurrently.
+     * @param sizeHint         expected object size, used to size the first buffer.
+     * @throws InterruptedIOException if interrupted while waiting for buffer memory.
+     */
+    public S3MultipartOutputStream(S3AsyncClient s3AsyncClient, String bucket, String key, PartBufferPool bufferPool,
+                                   int maxInFlightParts, long sizeHint) throws InterruptedIOException {
+        if (bufferPool.getPartSize() < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes.");
+        }
+        this.s3AsyncClient = s3AsyncClient;
+        this.bucket = bucket;
+        this.key = key;
+        this.bufferPool = bufferPool;
+        this.partSize = bufferPool.getPartSize();
+        this.inFlightParts = new Semaphore(Math.max(1, maxInFlightParts));
+        this.buffer = bufferPool.acquire((int) Math.max(1024, Math.min(partSize, sizeHint)));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+        checkFailure();
+        while (len > 0) {
+            if (buffered == buffer.length) {
+                if (buffer.length < partSize) {
+                    growToPartSize();
+                } else {
+                    submitPart();
+                    buffer = bufferPool.acquire(partSize);
+                }
+            }
+            int n = Math.min(len, buffer.length - buffered);
+            System.arraycopy(b, off, buffer, buffered, n);
+            buffered += n;
+            off += n;
+            len -= n;
+            bytesWritten += n;
+        }
+    }
+
+    /**
+     * Total number of bytes written to the object.
+     *
+     * @return byte count.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Uploads the remaining data, waits for all parts and completes the object.
+     *
+     * @throws IOException if interrupted; S3 failures surface as runtime exceptions.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            checkFailure();
+            if (uploadId == null) {
+                byte[] data = buffer;
+                buffer = null;
+                try {
+                    s3AsyncClient.putObject(PutObjectRequest.builder().bucket(bucket).key(key).contentType(CONTENT_TYPE).build(),
+                            AsyncRequestBody.fromByteBufferUnsafe(ByteBuffer.wrap(data, 0, buffered))).join();
+                } finally {
+                    bufferPool.release(data);
+                }
+            } else {
+                submitPart();
+                CompletableFuture.allOf(partFutures.toArray(CompletableFuture[]::new)).join();
+                List<CompletedPart> parts = partFutures.stream().map(CompletableFuture::join).toList();
+                s3AsyncClient.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                        .build()).join();
+                log.debug("Completed multipart upload of {} in {} parts.", key, parts.size());
+            }
+        } catch (IOException | RuntimeException e) {
+            discard();
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw cause instanceof IOException ioException ? ioException : new IOException(cause);
+        }
+    }
+
+    /**
+     * Discards everything written so far and aborts a started multipart upload
+     * once its in-flight parts have settled.
+     */
+    @Override
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        discard();
+    }
+
+    private void submitPart() throws IOException {
+        if (uploadId == null) {
+            try {
+                uploadId = s3AsyncClient.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(CONTENT_TYPE)
+                        .build()).join().uploadId();
+            } catch (CompletionException e) {
+                if (unwrap(e) instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+        if (partFutures.size() == MAX_PARTS) {
+            throw new IOException("Object exceeds " + MAX_PARTS + " parts of " + partSize + " bytes.");
+        }
+        try {
+            inFlightParts.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a part upload slot.");
+        }
+        int partNumber = partFutures.size() + 1;
+        byte[] data = buffer;
+        buffer = null;
+        CompletableFuture<CompletedPart> part = s3AsyncClient.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) buffered)
+                                .build(),
+                        AsyncRequestBody.fromByteBufferUnsafe(ByteBuffer.wrap(data, 0, buffered)))
+                .thenApply(response -> CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build())
+                .whenComplete((completed, error) -> {
+                    bufferPool.release(data);
+                    inFlightParts.release();
+                    if (error != null && failure == null) {
+                        failure = error;
+                    }
+                });
+        partFutures.add(part);
+        buffered = 0;
+    }
+
+    private void growToPartSize() throws InterruptedIOException {
+        byte[] small = buffer;
+        // Give the small buffer's budget back first so growing uploads cannot starve each other.
+        bufferPool.release(small);
+        buffer = bufferPool.acquire(partSize);
+        System.arraycopy(small, 0, buffer, 0, buffered);
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable error = failure;
+        if (error != null) {
+            if (unwrap(error) instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Part upload failed for " + key, error);
+        }
+    }
+
+    private void discard() {
+        if (buffer != null) {
+            bufferPool.release(buffer);
+            buffer = null;
+        }
+        if (uploadId == null) {
+            return;
+        }
+        String abortedUploadId = uploadId;
+        CompletableFuture.allOf(partFutures.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(abortedUploadId)
+                        .build()))
+                .thenCompose(abort -> abort)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        log.warn("Failed to abort multipart upload {} of {}.", abortedUploadId, key, error);
+                    } else {
+                        log.debug("Aborted multipart upload of {}.", key);
+                    }
+                });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
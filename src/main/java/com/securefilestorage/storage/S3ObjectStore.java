@@ -0,0 +1,202 @@
+package com.securefilestorage.storage;
+
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.exception.FileNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object store backed by the S3 bucket configured under {@code aws.s3}; the default backend.
+ * <p>
+ * Uploads go through {@link S3Uploader} as parallel multipart uploads, large ranges are read by
+ * {@link S3Downloader} as concurrent ranged GETs. S3 errors other than a missing key are passed on
+ * as {@link S3Exception}.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+@Qualifier(ObjectStore.BACKEND)
+@ConditionalOnProperty(prefix = "storage", name = "backend", havingValue = "s3", matchIfMissing = true)
+public class S3ObjectStore implements ObjectStore {
+
+    /** Maximum number of keys of one S3 DeleteObjects request */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    /** AWS S3 client for reads and deletes */
+    private final S3Client s3Client;
+
+    /** Parallel multipart upload engine */
+    private final S3Uploader s3Uploader;
+
+    /** Parallel ranged download engine */
+    private final S3Downloader s3Downloader;
+
+    /** AWS configuration properties */
+    private final AwsProperties awsProperties;
+
+    public S3ObjectStore(final S3Client s3Client, final S3Uploader s3Uploader, final S3Downloader s3Downloader,
+                         final AwsProperties awsProperties) {
+        this.s3Client = s3Client;
+        this.s3Uploader = s3Uploader;
+        this.s3Downloader = s3Downloader;
+        this.awsProperties = awsProperties;
+    }
+
+    @Override
+    public String getLocation() {
+        return awsProperties.getS3().getBucketName();
+    }
+
+    @Override
+    public StorageOutputStream openUpload(String key, long sizeHint) throws InterruptedIOException {
+        return s3Uploader.openUpload(key, sizeHint);
+    }
+
+    @Override
+    public ObjectStream open(String key) {
+        return get(key, null);
+    }
+
+    @Override
+    public ObjectStream openRange(String key, long first, long last) {
+        return get(key, "bytes=" + first + "-" + last);
+    }
+
+    @Override
+    public String etag(String key) {
+        try {
+            return s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(awsProperties.getS3().getBucketName())
+                    .key(key)
+                    .build()).eTag();
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException("File not found: " + key, e);
+        }
+    }
+
+    @Override
+    public boolean isParallel(String key, long bytes) {
+        return s3Downloader.isParallel(bytes);
+    }
+
+    @Override
+    public InputStream openParallelRange(String key, long first, long last, long alignment,
+                                         ParallelRangeInputStream.WindowDecoder decoder) {
+        return s3Downloader.openRange(key, first, last, alignment, decoder);
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(awsProperties.getS3().getBucketName())
+                .key(key)
+                .build());
+        log.info("File deleted from S3 bucket: {}", awsProperties.getS3().getBucketName());
+    }
+
+    /**
+     * Deletes the keys with {@code DeleteObjects} requests of up to {@value #DELETE_BATCH_SIZE} keys.
+     */
+    @Override
+    public Map<String, String> deleteAll(List<String> keys) {
+        Map<String, String> errors = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            errors.putAll(deleteObjects(keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size()))));
+        }
+        return errors;
+    }
+
+    /**
+     * Deletes up to {@value #DELETE_BATCH_SIZE} objects with one {@code DeleteObjects} request.
+     *
+     * @param keys the object keys.
+     * @return failure reasons by key; keys not contained were deleted.
+     */
+    private Map<String, String> deleteObjects(List<String> keys) {
+        Map<String, String> errors = new HashMap<>();
+        try {
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(awsProperties.getS3().getBucketName())
+                    .delete(Delete.builder()
+                            .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                            .quiet(true)
+                            .build())
+                    .build());
+            for (S3Error error : response.errors()) {
+                log.warn("Failed to delete object {}: {} {}", error.key(), error.code(), error.message());
+                errors.put(error.key(), "Failed to delete file from S3: " + error.code());
+            }
+        } catch (S3Exception e) {
+            log.error("Failed to delete {} objects from S3.", keys.size(), e);
+            keys.forEach(key -> errors.put(key, "Failed to delete file from S3."));
+        }
+        return errors;
+    }
+
+    /**
+     * Opens an object, or a range of it, with one GET.
+     *
+     * @param key   the object key.
+     * @param range the {@code Range} header, or {@code null} for the whole object.
+     * @return the streamed response body.
+     */
+    private ObjectStream get(String key, String range) {
+        ResponseInputStream<GetObjectResponse> response;
+        try {
+            response = s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(awsProperties.getS3().getBucketName())
+                    .key(key)
+                    .range(range)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException("File not found: " + key, e);
+        }
+        long length = response.response().contentLength();
+        return new ObjectStream(response, length, objectLength(response.response(), length),
+                response.response().eTag()) {
+            @Override
+            public void abort() {
+                response.abort();
+            }
+        };
+    }
+
+    /**
+     * Total object length from the {@code Content-Range} of a ranged GET.
+     *
+     * @param response      the GET response.
+     * @param contentLength number of bytes returned.
+     * @return the total object length.
+     */
+    private static long objectLength(GetObjectResponse response, long contentLength) {
+        String contentRange = response.contentRange();
+        if (contentRange == null || contentRange.indexOf('/') < 0 || contentRange.endsWith("/*")) {
+            return contentLength;
+        }
+        return Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1).trim());
+    }
+}
@@ -0,0 +1,50 @@
+package com.securefilestorage.storage;
+
+import com.securefilestorage.config.AwsProperties;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Upload engine that opens parallel multipart uploads to the configured bucket.
+ * <p>
+ * All uploads share one {@link PartBufferPool}, sized by {@code aws.upload.memory-budget},
+ * and each upload keeps at most {@code aws.upload.max-in-flight-parts} parts in flight.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class S3Uploader {
+
+    /** Async S3 client used for part uploads */
+    private final S3AsyncClient s3AsyncClient;
+
+    /** AWS configuration properties */
+    private final AwsProperties awsProperties;
+
+    /** Part buffers shared by all uploads */
+    private final PartBufferPool partBufferPool;
+
+    public S3Uploader(final S3AsyncClient s3AsyncClient, final AwsProperties awsProperties) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.awsProperties = awsProperties;
+        this.partBufferPool = new PartBufferPool((int) awsProperties.getUpload().getPartSize().toBytes(),
+                awsProperties.getUpload().getMemoryBudget().toBytes());
+    }
+
+    /**
+     * Opens an upload of one object; see {@link S3MultipartOutputStream} for close/abort semantics.
+     *
+     * @param key      target object key.
+     * @param sizeHint expected object size in bytes.
+     * @return the upload stream.
+     * @throws InterruptedIOException if interrupted while waiting for buffer memory.
+     */
+    public S3MultipartOutputStream openUpload(String key, long sizeHint) throws InterruptedIOException {
+        return new S3MultipartOutputStream(s3AsyncClient, awsProperties.getS3().getBucketName(), key,
+                partBufferPool, awsProperties.getUpload().getMaxInFlightParts(), sizeHint);
+    }
+}
@@ -0,0 +1,109 @@
+package com.securefilestorage.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream over a byte range of an object that is read window by window with
+ * {@link ObjectStore#openRange}, each window handed to a {@link ParallelRangeInputStream.WindowDecoder}.
+ * <p>
+ * The sequential counterpart of {@link ParallelRangeInputStream} for stores without concurrent range
+ * reads: windows are aligned the same way, so decoders written for parallel reads work unchanged,
+ * and only one window is held in memory at a time.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public class SequentialRangeInputStream extends InputStream {
+
+    /** Alignment units per window: 16 encryption chunks, 1 MiB with the default chunk size */
+    static final int WINDOW_UNITS = 16;
+
+    private final ObjectStore objectStore;
+
+    private final String key;
+
+    private final long end;
+
+    private final long windowSize;
+
+    private final ParallelRangeInputStream.WindowDecoder decoder;
+
+    private long nextOffset;
+
+    private InputStream current;
+
+    private boolean closed;
+
+    /**
+     * Creates the stream; nothing is read before the first call to {@code read}.
+     *
+     * @param objectStore store of the object.
+     * @param key         object key.
+     * @param start       first object offset to read.
+     * @param end         last object offset to read (inclusive).
+     * @param alignment   window sizes are a multiple of this many bytes.
+     * @param decoder     decoder applied to every window.
+     */
+    public SequentialRangeInputStream(ObjectStore objectStore, String key, long start, long end, long alignment,
+                                      ParallelRangeInputStream.WindowDecoder decoder) {
+        this.objectStore = objectStore;
+        this.key = key;
+        this.end = end;
+        this.windowSize = Math.max(1, alignment) * WINDOW_UNITS;
+        this.decoder = decoder;
+        this.nextOffset = start;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (current != null) {
+                int n = current.read(b, off, len);
+                if (n >= 0) {
+                    return n;
+                }
+                current.close();
+                current = null;
+            }
+            if (nextOffset > end) {
+                return -1;
+            }
+            long offset = nextOffset;
+            long windowEnd = Math.min(offset + windowSize, end + 1) - 1;
+            byte[] window;
+            try (ObjectStream in = objectStore.openRange(key, offset, windowEnd)) {
+                window = in.readAllBytes();
+            }
+            // A range reaching past the end of the object is cut off, which ends the read.
+            nextOffset = window.length < windowEnd - offset + 1 ? end + 1 : windowEnd + 1;
+            current = decoder.decode(offset, window);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+}
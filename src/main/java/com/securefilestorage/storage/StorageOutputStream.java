@@ -0,0 +1,20 @@
+package com.securefilestorage.storage;
+
+import java.io.OutputStream;
+
+/**
+ * Output stream that stores everything written to it as one object of an {@link ObjectStore}.
+ * The object becomes visible when the stream is closed; if writing fails, {@link #abort()} must
+ * be called instead of {@code close()} so that no partial object is left behind.
+ *
+ * @author Dzmitry Ivaniuta
+ * @version 1.0
+ * @since 2025
+ */
+public abstract class StorageOutputStream extends OutputStream {
+
+    /**
+     * Discards everything written so far. Has no effect once the stream is closed.
+     */
+    public abstract void abort();
+}
@@ -0,0 +1,11 @@
+-- Older rows stored only the UUID part of the S3 key; restore the full "<uuid>_<file name>" key.
+UPDATE file_metadata
+SET s3_key = s3_key || '_' || file_name
+WHERE position('_' in s3_key) = 0;
+
+UPDATE file_metadata
+SET upload_date = CURRENT_TIMESTAMP
+WHERE upload_date IS NULL;
+
+-- Keyset pagination of the file listing: newest first, ties broken by id.
+CREATE INDEX IF NOT EXISTS idx_file_metadata_upload_date_id ON file_metadata (upload_date DESC, id DESC);
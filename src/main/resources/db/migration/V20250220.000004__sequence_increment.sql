@@ -0,0 +1,2 @@
+-- Hibernate hands out ids in blocks of 50 (pooled optimizer), so the sequence must advance by the same step.
+ALTER SEQUENCE AWS_STORAGE_UNIQUE_ID INCREMENT BY 50;
@@ -0,0 +1,16 @@
+CREATE TABLE upload_job
+(
+    id             uuid         not null primary key,
+    file_name      VARCHAR(255) NOT NULL,
+    spool_path     TEXT         NOT NULL,
+    file_size      BIGINT       NOT NULL,
+    bytes_uploaded BIGINT       NOT NULL DEFAULT 0,
+    status         VARCHAR(16)  NOT NULL,
+    s3_key         TEXT,
+    error          TEXT,
+    created_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Startup recovery looks up unfinished jobs.
+CREATE INDEX IF NOT EXISTS idx_upload_job_status ON upload_job (status);
@@ -0,0 +1,23 @@
+-- Encrypted objects shared by identical uploads of one owner, counted by the file_metadata rows pointing at them.
+CREATE TABLE file_blob
+(
+    id           bigint      not null primary key,
+    owner        TEXT        NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    blob_key     TEXT        NOT NULL,
+    blob_size    BIGINT      NOT NULL,
+    ref_count    INT         NOT NULL,
+    created_at   TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_file_blob_owner_hash UNIQUE (owner, content_hash)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_file_blob_blob_key ON file_blob (blob_key);
+
+-- Object holding the content of a file; NULL for files stored under their own s3_key.
+ALTER TABLE file_metadata ADD COLUMN blob_key TEXT;
+
+-- Downloads and deletes resolve the blob of a file by its key, which names exactly one file.
+CREATE UNIQUE INDEX IF NOT EXISTS idx_file_metadata_s3_key ON file_metadata (s3_key);
+
+-- Owner of an asynchronous upload, captured with the request since the job runs without it.
+ALTER TABLE upload_job ADD COLUMN uploaded_by TEXT;
@@ -0,0 +1,2 @@
+-- Attempts of an asynchronous upload; failed attempts are retried up to aws.upload.job-max-attempts.
+ALTER TABLE upload_job ADD COLUMN attempts INT NOT NULL DEFAULT 0;
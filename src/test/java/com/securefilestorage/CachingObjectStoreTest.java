@@ -0,0 +1,286 @@
+package com.securefilestorage;
+
+import com.securefilestorage.config.StorageProperties;
+import com.securefilestorage.exception.FileNotFoundException;
+import com.securefilestorage.storage.CachingObjectStore;
+import com.securefilestorage.storage.LocalObjectStore;
+import com.securefilestorage.storage.ObjectStream;
+import com.securefilestorage.storage.StorageOutputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CachingObjectStore} in front of a {@link LocalObjectStore} that counts its reads: admission after
+ * {@code min-reads}, the disk budget, ETag revalidation after {@code revalidate-after}, background and
+ * inline fills racing other readers, and the saved-bytes counter.
+ */
+class CachingObjectStoreTest {
+
+    private static final byte[] CONTENT = content(10_000);
+
+    @TempDir
+    Path directory;
+
+    private final StorageProperties storageProperties = new StorageProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService fillExecutor = Executors.newSingleThreadExecutor();
+
+    /** Reads that reached the backend */
+    private final AtomicInteger backendReads = new AtomicInteger();
+
+    private LocalObjectStore backend;
+
+    @BeforeEach
+    void setUp() {
+        storageProperties.getLocal().setDirectory(directory.resolve("objects").toString());
+        storageProperties.getCache().setDirectory(directory.resolve("cache").toString());
+        backend = new LocalObjectStore(storageProperties) {
+            @Override
+            public ObjectStream openRange(String key, long first, long last) throws IOException {
+                backendReads.incrementAndGet();
+                return super.openRange(key, first, last);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        fillExecutor.shutdownNow();
+    }
+
+    @Test
+    void objectIsCachedAfterMinReads() throws IOException {
+        CachingObjectStore cache = cache();
+        put("a", CONTENT);
+
+        assertArrayEquals(CONTENT, read(cache, "a"));
+        assertEquals(0, cachedFiles());
+        assertArrayEquals(CONTENT, read(cache, "a"));
+        assertEquals(1, cachedFiles());
+        assertEquals(2, backendReads.get());
+
+        assertArrayEquals(CONTENT, read(cache, "a"));
+        try (ObjectStream range = cache.openRange("a", 100, 199)) {
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 100, 200), range.readAllBytes());
+            assertEquals(CONTENT.length, range.objectLength());
+        }
+        assertEquals(2, backendReads.get());
+        assertEquals(2.0, gets("hit"));
+        assertEquals(CONTENT.length + 100.0, bytesSaved());
+    }
+
+    @Test
+    void savedBytesAreCountedAsTheyAreRead() throws IOException {
+        storageProperties.getCache().setMinReads(1);
+        CachingObjectStore cache = cache();
+        put("a", CONTENT);
+        read(cache, "a");
+
+        try (ObjectStream cached = cache.open("a")) {
+            assertEquals(0.0, bytesSaved());
+            cached.readNBytes(10);
+            cached.read();
+        }
+        assertEquals(11.0, bytesSaved());
+
+        Path copy = directory.resolve("copy.bin");
+        try (ObjectStream cached = cache.open("a"); OutputStream out = new FileOutputStream(copy.toFile())) {
+            cached.transferTo(out);
+        }
+        assertArrayEquals(CONTENT, Files.readAllBytes(copy));
+        assertEquals(11.0 + CONTENT.length, bytesSaved());
+    }
+
+    @Test
+    void cacheStaysWithinItsDiskBudget() throws Exception {
+        storageProperties.getCache().setMinReads(1);
+        storageProperties.getCache().setMaxSize(DataSize.ofKilobytes(16));
+        CachingObjectStore cache = cache();
+        byte[] object = content(6 * 1024);
+        for (int i = 0; i < 4; i++) {
+            put("object-" + i, object);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertArrayEquals(object, read(cache, "object-" + i));
+            }
+        }
+
+        await(() -> meterRegistry.get("ciphertext.cache.size").gauge().value() <= 16 * 1024 && cachedFiles() <= 2);
+        assertTrue(cachedFiles() > 0);
+    }
+
+    @Test
+    void changedObjectIsDroppedAfterRevalidateAfter() throws Exception {
+        storageProperties.getCache().setMinReads(1);
+        storageProperties.getCache().setRevalidateAfter(Duration.ZERO);
+        CachingObjectStore cache = cache();
+        put("a", CONTENT);
+        read(cache, "a");
+
+        byte[] replaced = content(CONTENT.length + 1);
+        put("a", replaced);
+
+        assertArrayEquals(replaced, read(cache, "a"));
+        assertEquals(1.0, gets("stale"));
+        // The read after the stale one cached the new content.
+        int reads = backendReads.get();
+        assertArrayEquals(replaced, read(cache, "a"));
+        assertEquals(reads, backendReads.get());
+        // The replaced copy is deleted by the removal listener.
+        await(() -> cachedFiles() == 1);
+    }
+
+    @Test
+    void cachedObjectIsServedWithoutRevalidationWithinRevalidateAfter() throws IOException {
+        storageProperties.getCache().setMinReads(1);
+        CachingObjectStore cache = cache();
+        put("a", CONTENT);
+        read(cache, "a");
+
+        put("a", content(CONTENT.length + 1));
+
+        assertArrayEquals(CONTENT, read(cache, "a"));
+        assertEquals(0.0, gets("stale"));
+    }
+
+    @Test
+    void rangedReadFillsInTheBackgroundWhileAnotherReaderUsesTheBackend() throws Exception {
+        storageProperties.getCache().setMinReads(1);
+        CachingObjectStore cache = cache();
+        put("a", CONTENT);
+        CountDownLatch busy = new CountDownLatch(1);
+        fillExecutor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try (ObjectStream range = cache.openRange("a", 0, 99)) {
+            assertArrayEquals(Arrays.copyOf(CONTENT, 100), range.readAllBytes());
+        }
+        // The copy waits for the fill executor; a whole read meanwhile is neither cached nor a second fill.
+        assertArrayEquals(CONTENT, read(cache, "a"));
+        assertEquals(0, cachedFiles());
+
+        busy.countDown();
+        // The fill executor has one thread, so this runs once the fill has published its entry.
+        fillExecutor.submit(() -> { }).get();
+        assertEquals(1, cachedFiles());
+        int reads = backendReads.get();
+        assertArrayEquals(CONTENT, read(cache, "a"));
+        assertEquals(reads, backendReads.get());
+    }
+
+    @Test
+    void concurrentWholeReadsFillTheCacheOnce() throws IOException {
+        storageProperties.getCache().setMinReads(1);
+        CachingObjectStore cache = cache();
+        put("a", CONTENT);
+
+        try (ObjectStream filling = cache.open("a"); ObjectStream other = cache.open("a")) {
+            byte[] head = filling.readNBytes(1000);
+            assertArrayEquals(CONTENT, other.readAllBytes());
+            byte[] tail = filling.readAllBytes();
+            assertArrayEquals(Arrays.copyOf(CONTENT, 1000), head);
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 1000, CONTENT.length), tail);
+        }
+
+        assertEquals(1, cachedFiles());
+        int reads = backendReads.get();
+        assertArrayEquals(CONTENT, read(cache, "a"));
+        assertEquals(reads, backendReads.get());
+    }
+
+    @Test
+    void objectDeletedWhileBeingCopiedIsNotCached() throws Exception {
+        storageProperties.getCache().setMinReads(1);
+        CachingObjectStore cache = cache();
+        put("a", CONTENT);
+
+        try (ObjectStream filling = cache.open("a")) {
+            filling.readNBytes(1000);
+            cache.delete("a");
+            filling.readAllBytes();
+        }
+
+        await(() -> cachedFiles() == 0);
+        assertThrows(FileNotFoundException.class, () -> cache.open("a"));
+    }
+
+    private CachingObjectStore cache() {
+        return new CachingObjectStore(backend, fillExecutor, storageProperties, meterRegistry);
+    }
+
+    private void put(String key, byte[] content) throws IOException {
+        StorageOutputStream out = backend.openUpload(key, content.length);
+        out.write(content);
+        out.close();
+    }
+
+    private static byte[] read(CachingObjectStore cache, String key) throws IOException {
+        try (ObjectStream object = cache.open(key)) {
+            return object.readAllBytes();
+        }
+    }
+
+    private long cachedFiles() {
+        try (Stream<Path> files = Files.list(directory.resolve("cache"))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".obj")).count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("ciphertext.cache.gets").tag("result", result).counter().count();
+    }
+
+    private double bytesSaved() {
+        return meterRegistry.get("ciphertext.cache.bytes.saved").counter().count();
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10 seconds.");
+            Thread.sleep(10);
+        }
+    }
+}
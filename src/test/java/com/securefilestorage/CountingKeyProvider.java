@@ -0,0 +1,49 @@
+package com.securefilestorage;
+
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.crypto.KeyProvider;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Key provider that counts its calls, standing in for the KMS GenerateDataKey and Decrypt requests.
+ * Data keys are "wrapped" by inverting their bits, which is enough to tell them apart.
+ */
+class CountingKeyProvider implements KeyProvider {
+
+    static final String KEY_ID = "master";
+
+    final AtomicInteger generated = new AtomicInteger();
+
+    final AtomicInteger decrypted = new AtomicInteger();
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Override
+    public String getKeyId() {
+        return KEY_ID;
+    }
+
+    @Override
+    public DataKey generateDataKey(String keyId) {
+        generated.incrementAndGet();
+        byte[] material = new byte[32];
+        random.nextBytes(material);
+        return new DataKey(material, invert(material));
+    }
+
+    @Override
+    public byte[] decrypt(byte[] ciphertext) {
+        decrypted.incrementAndGet();
+        return invert(ciphertext);
+    }
+
+    static byte[] invert(byte[] bytes) {
+        byte[] inverted = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            inverted[i] = (byte) ~bytes[i];
+        }
+        return inverted;
+    }
+}
@@ -0,0 +1,154 @@
+package com.securefilestorage;
+
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.service.DataKeyCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static com.securefilestorage.CountingKeyProvider.KEY_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link DataKeyCache} against a counting key provider: one GenerateDataKey per key until a limit
+ * retires it, bypass of files over the byte limit, and wiping of retired keys once their last lease closes.
+ */
+class DataKeyCacheTest {
+
+    private final CountingKeyProvider keyProvider = new CountingKeyProvider();
+
+    private final AwsProperties awsProperties = new AwsProperties();
+
+    private final AwsProperties.DataKeyCache limits = awsProperties.getEncryption().getDataKeyCache();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DataKeyCache cache = new DataKeyCache(keyProvider, awsProperties, meterRegistry);
+
+    @Test
+    void keyIsReusedWithinItsLimits() {
+        DataKey first = use(100);
+        DataKey second = use(100);
+        DataKey third = use(100);
+
+        assertEquals(1, keyProvider.generated.get());
+        assertSame(first, second);
+        assertSame(first, third);
+        assertFalse(first.isDestroyed());
+        assertEquals(2.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+    }
+
+    @Test
+    void keyIsRetiredAtMaxFiles() {
+        limits.setMaxFiles(2);
+
+        DataKey first = use(1);
+        assertSame(first, use(1));
+        DataKey second = use(1);
+
+        assertEquals(2, keyProvider.generated.get());
+        assertNotSame(first, second);
+        assertTrue(first.isDestroyed());
+        assertEquals(1.0, retirements("files"));
+    }
+
+    @Test
+    void keyIsRetiredAtMaxBytes() {
+        limits.setMaxBytes(DataSize.ofBytes(100));
+
+        DataKey first = use(60);
+        assertSame(first, use(40));
+        DataKey second = use(1);
+
+        assertEquals(2, keyProvider.generated.get());
+        assertNotSame(first, second);
+        assertTrue(first.isDestroyed());
+        assertEquals(1.0, retirements("bytes"));
+    }
+
+    @Test
+    void keyIsRetiredAtMaxAge() {
+        limits.setMaxAge(Duration.ZERO);
+
+        DataKey first = use(1);
+        DataKey second = use(1);
+
+        assertEquals(2, keyProvider.generated.get());
+        assertNotSame(first, second);
+        assertTrue(first.isDestroyed());
+        assertEquals(1.0, retirements("age"));
+    }
+
+    @Test
+    void filesOverTheByteLimitBypassTheCache() {
+        limits.setMaxBytes(DataSize.ofBytes(100));
+        DataKey cached = use(10);
+
+        DataKeyCache.DataKeyLease oversize = cache.acquire(KEY_ID, 101);
+        DataKey bypassed = oversize.getKey();
+        oversize.close();
+
+        assertNotSame(cached, bypassed);
+        assertTrue(bypassed.isDestroyed());
+        assertFalse(cached.isDestroyed());
+        assertSame(cached, use(10));
+        assertEquals(2, keyProvider.generated.get());
+        assertEquals(1.0, gets("bypass"));
+    }
+
+    @Test
+    void disabledCacheGeneratesAKeyPerFile() {
+        limits.setEnabled(false);
+
+        DataKey first = use(1);
+        DataKey second = use(1);
+
+        assertEquals(2, keyProvider.generated.get());
+        assertTrue(first.isDestroyed());
+        assertTrue(second.isDestroyed());
+    }
+
+    @Test
+    void retiredKeyIsWipedWhenItsLastLeaseCloses() {
+        limits.setMaxFiles(1);
+        DataKeyCache.DataKeyLease first = cache.acquire(KEY_ID, 1);
+
+        // The second upload retires the key of the first, which is still encrypting.
+        DataKeyCache.DataKeyLease second = cache.acquire(KEY_ID, 1);
+        assertEquals(2, keyProvider.generated.get());
+        assertFalse(first.getKey().isDestroyed());
+
+        first.close();
+        assertTrue(first.getKey().isDestroyed());
+        second.close();
+        assertFalse(second.getKey().isDestroyed());
+
+        cache.clear();
+        assertTrue(second.getKey().isDestroyed());
+    }
+
+    /**
+     * Encrypts one file of the given size: leases a key and closes the lease.
+     */
+    private DataKey use(long plaintextBytes) {
+        try (DataKeyCache.DataKeyLease lease = cache.acquire(KEY_ID, plaintextBytes)) {
+            return lease.getKey();
+        }
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("datakey.cache.gets").tag("result", result).counter().count();
+    }
+
+    private double retirements(String reason) {
+        return meterRegistry.get("datakey.cache.retirements").tag("reason", reason).counter().count();
+    }
+}
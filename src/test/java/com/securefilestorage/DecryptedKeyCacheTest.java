@@ -0,0 +1,107 @@
+package com.securefilestorage;
+
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.service.DecryptedKeyCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static com.securefilestorage.CountingKeyProvider.KEY_ID;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link DecryptedKeyCache} against a counting key provider: one Decrypt per wrapped key while it is
+ * cached, private copies that callers destroy without touching the cached key, and expiry.
+ */
+class DecryptedKeyCacheTest {
+
+    private final CountingKeyProvider keyProvider = new CountingKeyProvider();
+
+    private final AwsProperties awsProperties = new AwsProperties();
+
+    private final AwsProperties.DecryptedKeyCache settings = awsProperties.getEncryption().getDecryptedKeyCache();
+
+    private final DataKey dataKey = keyProvider.generateDataKey(KEY_ID);
+
+    @Test
+    void wrappedKeyIsUnwrappedOnce() {
+        DecryptedKeyCache cache = cache();
+
+        DataKey first = cache.decrypt(dataKey.getWrappedKey());
+        DataKey second = cache.decrypt(dataKey.getWrappedKey());
+
+        assertEquals(1, keyProvider.decrypted.get());
+        assertNotSame(first, second);
+        assertArrayEquals(dataKey.getEncoded(), first.getEncoded());
+        assertArrayEquals(dataKey.getEncoded(), second.getEncoded());
+        assertArrayEquals(dataKey.getWrappedKey(), second.getWrappedKey());
+
+        DataKey other = keyProvider.generateDataKey(KEY_ID);
+        assertArrayEquals(other.getEncoded(), cache.decrypt(other.getWrappedKey()).getEncoded());
+        cache.decrypt(other.getWrappedKey());
+        assertEquals(2, keyProvider.decrypted.get());
+    }
+
+    @Test
+    void destroyingTheCopyKeepsTheCachedKey() {
+        DecryptedKeyCache cache = cache();
+        byte[] wrappedKey = dataKey.getWrappedKey();
+
+        DataKey copy = cache.decrypt(wrappedKey);
+        copy.destroy();
+        // The cache keeps its own copy of the wrapped key, too.
+        wrappedKey[0] ^= 1;
+
+        DataKey again = cache.decrypt(dataKey.getWrappedKey());
+        assertTrue(copy.isDestroyed());
+        assertFalse(again.isDestroyed());
+        assertArrayEquals(dataKey.getEncoded(), again.getEncoded());
+        assertEquals(1, keyProvider.decrypted.get());
+    }
+
+    @Test
+    void disabledCacheUnwrapsEveryTime() {
+        settings.setEnabled(false);
+        DecryptedKeyCache cache = cache();
+
+        cache.decrypt(dataKey.getWrappedKey());
+        cache.decrypt(dataKey.getWrappedKey());
+
+        assertEquals(2, keyProvider.decrypted.get());
+    }
+
+    @Test
+    void expiredKeyIsUnwrappedAgain() throws InterruptedException {
+        settings.setTtl(Duration.ofMillis(50));
+        DecryptedKeyCache cache = cache();
+
+        cache.decrypt(dataKey.getWrappedKey());
+        Thread.sleep(150);
+        DataKey again = cache.decrypt(dataKey.getWrappedKey());
+
+        assertEquals(2, keyProvider.decrypted.get());
+        assertArrayEquals(dataKey.getEncoded(), again.getEncoded());
+    }
+
+    @Test
+    void clearForgetsTheCachedKeys() {
+        DecryptedKeyCache cache = cache();
+        cache.decrypt(dataKey.getWrappedKey());
+
+        cache.clear();
+        DataKey again = cache.decrypt(dataKey.getWrappedKey());
+
+        assertEquals(2, keyProvider.decrypted.get());
+        assertArrayEquals(dataKey.getEncoded(), again.getEncoded());
+    }
+
+    private DecryptedKeyCache cache() {
+        return new DecryptedKeyCache(keyProvider, awsProperties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,253 @@
+package com.securefilestorage;
+
+import com.securefilestorage.crypto.CompressionCodec;
+import com.securefilestorage.crypto.DataKey;
+import com.securefilestorage.crypto.DecryptingInputStream;
+import com.securefilestorage.crypto.EncryptingOutputStream;
+import com.securefilestorage.crypto.EnvelopeFormat;
+import com.securefilestorage.crypto.EnvelopeHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trips and tamper detection of the chunked AES-GCM envelope format.
+ */
+class EnvelopeEncryptionTest {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private static final int SEGMENT = CHUNK_SIZE + EnvelopeFormat.TAG_LENGTH;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final DataKey key = newKey();
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 3 * CHUNK_SIZE, 3 * CHUNK_SIZE + 1})
+    void roundTripsAtChunkBoundaries(int length) throws IOException {
+        byte[] plaintext = plaintext(length);
+        EnvelopeHeader header = EnvelopeHeader.create(CHUNK_SIZE, key.getWrappedKey(), random);
+
+        byte[] object = encrypt(plaintext, header);
+
+        assertEquals(EnvelopeFormat.ciphertextLength(length, header), object.length);
+        assertEquals(length, EnvelopeFormat.plaintextLength(object.length, header));
+        assertArrayEquals(plaintext, decrypt(object));
+    }
+
+    @Test
+    void emptyFileHasOneFinalChunk() throws IOException {
+        EnvelopeHeader header = EnvelopeHeader.create(CHUNK_SIZE, key.getWrappedKey(), random);
+
+        byte[] object = encrypt(new byte[0], header);
+
+        assertEquals(header.length() + EnvelopeFormat.TAG_LENGTH, object.length);
+        assertEquals(0, decrypt(object).length);
+    }
+
+    @Test
+    void rejectsMissingFinalChunk() throws IOException {
+        byte[] object = encrypt(plaintext(3 * CHUNK_SIZE + 10));
+        int headerLength = headerLength(object);
+
+        // Dropping the short final chunk leaves a stream that ends on a chunk not flagged as final.
+        byte[] truncated = Arrays.copyOf(object, headerLength + 3 * SEGMENT);
+
+        assertThrows(IOException.class, () -> decrypt(truncated));
+    }
+
+    @Test
+    void rejectsTruncatedChunk() throws IOException {
+        byte[] object = encrypt(plaintext(2 * CHUNK_SIZE + 10));
+
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(object, object.length - 1)));
+        assertThrows(IOException.class, () -> decrypt(Arrays.copyOf(object, headerLength(object) + 10)));
+    }
+
+    @Test
+    void rejectsReorderedChunks() throws IOException {
+        byte[] object = encrypt(plaintext(3 * CHUNK_SIZE));
+        int first = headerLength(object);
+
+        byte[] reordered = object.clone();
+        System.arraycopy(object, first + SEGMENT, reordered, first, SEGMENT);
+        System.arraycopy(object, first, reordered, first + SEGMENT, SEGMENT);
+
+        assertThrows(IOException.class, () -> decrypt(reordered));
+    }
+
+    @Test
+    void rejectsChunkMovedBetweenObjects() throws IOException {
+        byte[] plaintext = plaintext(2 * CHUNK_SIZE);
+        byte[] object = encrypt(plaintext);
+        byte[] other = encrypt(plaintext);
+        int first = headerLength(object);
+
+        byte[] mixed = object.clone();
+        System.arraycopy(other, first, mixed, first, SEGMENT);
+
+        assertThrows(IOException.class, () -> decrypt(mixed));
+    }
+
+    @Test
+    void rejectsFlippedBits() throws IOException {
+        byte[] object = encrypt(plaintext(2 * CHUNK_SIZE + 100));
+        int headerLength = headerLength(object);
+        // Base nonce, first ciphertext byte, first tag byte, last byte of the final chunk
+        int[] positions = {10, headerLength, headerLength + CHUNK_SIZE, object.length - 1};
+
+        for (int position : positions) {
+            byte[] tampered = object.clone();
+            tampered[position] ^= 0x01;
+            assertThrows(IOException.class, () -> decrypt(tampered), "bit flip at " + position);
+        }
+    }
+
+    @Test
+    void rejectsChunkFlaggedFinalTooEarly() throws IOException {
+        EnvelopeHeader header = EnvelopeHeader.create(CHUNK_SIZE, key.getWrappedKey(), random);
+        byte[] object = encrypt(plaintext(2 * CHUNK_SIZE), header);
+
+        // Decrypting the first chunk as if it were the only one must fail the final flag check.
+        InputStream firstChunk = new ByteArrayInputStream(object, header.length(), SEGMENT);
+        try (DecryptingInputStream in = new DecryptingInputStream(firstChunk, key, header, 0, -1, 1)) {
+            assertThrows(IOException.class, in::readAllBytes);
+        }
+    }
+
+    @Test
+    void readsVersion1HeaderLayout() throws IOException {
+        byte[] nonce = new byte[EnvelopeHeader.NONCE_LENGTH];
+        random.nextBytes(nonce);
+        byte[] wrappedKey = {1, 2, 3, 4, 5};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(EnvelopeHeader.MAGIC);
+            out.writeByte(EnvelopeHeader.VERSION_1);
+            out.writeInt(CHUNK_SIZE);
+            out.write(nonce);
+            out.writeShort(wrappedKey.length);
+            out.write(wrappedKey);
+        }
+        byte[] encoded = bytes.toByteArray();
+
+        EnvelopeHeader header = EnvelopeHeader.read(new ByteArrayInputStream(encoded));
+
+        assertEquals(EnvelopeHeader.VERSION_1, header.getVersion());
+        assertEquals(CompressionCodec.NONE, header.getCodec());
+        assertFalse(header.isCompressed());
+        assertEquals(CHUNK_SIZE, header.getChunkSize());
+        assertArrayEquals(nonce, header.getBaseNonce());
+        assertArrayEquals(wrappedKey, header.getWrappedKey());
+        assertArrayEquals(encoded, header.getEncoded());
+    }
+
+    @Test
+    void uncompressedObjectsKeepVersion1() throws IOException {
+        byte[] plaintext = plaintext(CHUNK_SIZE + 1);
+        byte[] object = encrypt(plaintext);
+
+        assertEquals(EnvelopeHeader.VERSION_1, object[EnvelopeHeader.MAGIC.length]);
+        assertEquals(EnvelopeHeader.VERSION_1, EnvelopeHeader.read(new ByteArrayInputStream(object)).getVersion());
+        assertArrayEquals(plaintext, decrypt(object));
+    }
+
+    @Test
+    void roundTripsVersion2Header() throws IOException {
+        EnvelopeHeader header = EnvelopeHeader.create(CHUNK_SIZE, key.getWrappedKey(), CompressionCodec.DEFLATE,
+                123_456L, random);
+
+        EnvelopeHeader read = EnvelopeHeader.read(new ByteArrayInputStream(header.getEncoded()));
+
+        assertEquals(EnvelopeHeader.VERSION_2, read.getVersion());
+        assertEquals(CompressionCodec.DEFLATE, read.getCodec());
+        assertTrue(read.isCompressed());
+        assertEquals(123_456L, read.getContentLength());
+        assertArrayEquals(header.getEncoded(), read.getEncoded());
+    }
+
+    @Test
+    void rejectsUnknownVersionAndCodec() throws IOException {
+        byte[] encoded = EnvelopeHeader.create(CHUNK_SIZE, key.getWrappedKey(), CompressionCodec.DEFLATE,
+                1L, random).getEncoded();
+
+        byte[] unknownVersion = encoded.clone();
+        unknownVersion[EnvelopeHeader.MAGIC.length] = 3;
+        assertThrows(IOException.class, () -> EnvelopeHeader.read(new ByteArrayInputStream(unknownVersion)));
+
+        byte[] unknownCodec = encoded.clone();
+        unknownCodec[EnvelopeHeader.MAGIC.length + 1] = 42;
+        assertThrows(IOException.class, () -> EnvelopeHeader.read(new ByteArrayInputStream(unknownCodec)));
+    }
+
+    @Test
+    void roundTripsCompressedContent() throws IOException {
+        byte[] plaintext = "{\"level\":\"INFO\",\"message\":\"request handled\"}\n".repeat(200).getBytes();
+        EnvelopeHeader header = EnvelopeHeader.create(CHUNK_SIZE, key.getWrappedKey(), CompressionCodec.DEFLATE,
+                plaintext.length, random);
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        try (EncryptingOutputStream encrypting = new EncryptingOutputStream(object, key, header);
+             var compressing = CompressionCodec.DEFLATE.compressingStream(encrypting, 1)) {
+            compressing.write(plaintext);
+        }
+        assertTrue(object.size() < plaintext.length / 4);
+
+        InputStream in = new ByteArrayInputStream(object.toByteArray());
+        EnvelopeHeader read = EnvelopeHeader.read(in);
+        try (InputStream decrypted = read.getCodec().decompressingStream(new DecryptingInputStream(in, key, read))) {
+            assertArrayEquals(plaintext, decrypted.readAllBytes());
+        }
+    }
+
+    private byte[] encrypt(byte[] plaintext) throws IOException {
+        return encrypt(plaintext, EnvelopeHeader.create(CHUNK_SIZE, key.getWrappedKey(), random));
+    }
+
+    private byte[] encrypt(byte[] plaintext, EnvelopeHeader header) throws IOException {
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        try (EncryptingOutputStream out = new EncryptingOutputStream(object, key, header)) {
+            out.write(plaintext);
+        }
+        return object.toByteArray();
+    }
+
+    private byte[] decrypt(byte[] object) throws IOException {
+        InputStream in = new ByteArrayInputStream(object);
+        EnvelopeHeader header = EnvelopeHeader.read(in);
+        try (DecryptingInputStream decrypting = new DecryptingInputStream(in, key, header)) {
+            return decrypting.readAllBytes();
+        }
+    }
+
+    private int headerLength(byte[] object) throws IOException {
+        return EnvelopeHeader.read(new ByteArrayInputStream(object)).length();
+    }
+
+    private byte[] plaintext(int length) {
+        byte[] plaintext = new byte[length];
+        new Random(length).nextBytes(plaintext);
+        return plaintext;
+    }
+
+    private DataKey newKey() {
+        byte[] material = new byte[32];
+        random.nextBytes(material);
+        return new DataKey(material, new byte[]{7, 7, 7});
+    }
+}
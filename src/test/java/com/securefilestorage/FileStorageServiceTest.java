@@ -1,4 +1,672 @@
 package com.securefilestorage;
 
-public class FileStorageServiceTest {
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.config.KeyProviderProperties;
+import com.securefilestorage.config.StorageProperties;
+import com.securefilestorage.controller.FileStorageController;
+import com.securefilestorage.crypto.CompressionCodec;
+import com.securefilestorage.crypto.EnvelopeFormat;
+import com.securefilestorage.crypto.EnvelopeHeader;
+import com.securefilestorage.crypto.LocalKeyProvider;
+import com.securefilestorage.dto.BatchDeleteResult;
+import com.securefilestorage.dto.FileBlobReference;
+import com.securefilestorage.exception.FileNotFoundException;
+import com.securefilestorage.exception.FileStorageException;
+import com.securefilestorage.exception.GlobalExceptionHandler;
+import com.securefilestorage.exception.RangeNotSatisfiableException;
+import com.securefilestorage.model.FileBlob;
+import com.securefilestorage.model.FileMetadata;
+import com.securefilestorage.repository.FileBlobRepository;
+import com.securefilestorage.repository.FileMetadataRepository;
+import com.securefilestorage.service.DataKeyCache;
+import com.securefilestorage.service.DecryptedKeyCache;
+import com.securefilestorage.service.EnvelopeEncryptionService;
+import com.securefilestorage.service.FileDownload;
+import com.securefilestorage.service.FileStorageService;
+import com.securefilestorage.service.StorageMetrics;
+import com.securefilestorage.service.UploadJobService;
+import com.securefilestorage.storage.LocalObjectStore;
+import com.securefilestorage.storage.ObjectStream;
+import com.securefilestorage.storage.ParallelRangeInputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@link FileStorageService} on a local object store with in-memory repositories that enforce the unique
+ * (owner, content hash) constraint of {@code file_blob}: deduplication with reference-counted shared objects,
+ * ranged downloads, including the {@code Range} handling of {@link FileStorageController}, and compression.
+ */
+class FileStorageServiceTest {
+
+    private static final byte[] CONTENT = randomBytes(300_000);
+
+    /** Small chunks, so that a few KiB span several of them and the header probe holds whole chunks */
+    private static final int CHUNK_SIZE = 1024;
+
+    /** Five full chunks and a short final one */
+    private static final byte[] RANGED = randomBytes(5 * CHUNK_SIZE + 17);
+
+    /** Log lines of the length of {@link #RANGED}, which DEFLATE shrinks several times */
+    private static final byte[] COMPRESSIBLE = Arrays.copyOf(
+            "{\"level\":\"INFO\",\"message\":\"request handled\"}\n".repeat(200).getBytes(StandardCharsets.UTF_8),
+            RANGED.length);
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, FileMetadata> files = new ConcurrentHashMap<>();
+
+    /** Shared objects by blob key */
+    private final Map<String, FileBlob> blobs = new ConcurrentHashMap<>();
+
+    private final AtomicInteger blobIds = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService batchUploadExecutor = Executors.newFixedThreadPool(2);
+
+    private AwsProperties awsProperties;
+
+    private StorageProperties storageProperties;
+
+    private LocalObjectStore objectStore;
+
+    /** Whether {@link #objectStore} asks for parallel range reads, which it serves with the sequential fallback */
+    private boolean parallel;
+
+    /** Chunks per window of parallel range reads served by a {@link ParallelRangeInputStream} over {@link #s3} */
+    private int parallelWindowChunks;
+
+    private final RecordingS3AsyncClient s3 = new RecordingS3AsyncClient();
+
+    private EnvelopeEncryptionService encryptionService;
+
+    private FileBlobRepository fileBlobRepository;
+
+    private FileStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        KeyProviderProperties keyProviderProperties = new KeyProviderProperties();
+        keyProviderProperties.getLocal().setKeyFile(directory.resolve("master.key").toString());
+        keyProviderProperties.getLocal().setCreateIfMissing(true);
+        LocalKeyProvider keyProvider = new LocalKeyProvider(keyProviderProperties);
+        awsProperties = new AwsProperties();
+        awsProperties.getEncryption().setChunkSize(CHUNK_SIZE);
+        StorageMetrics storageMetrics = new StorageMetrics(meterRegistry);
+        encryptionService = new EnvelopeEncryptionService(keyProvider,
+                new DataKeyCache(keyProvider, awsProperties, meterRegistry),
+                new DecryptedKeyCache(keyProvider, awsProperties, meterRegistry), awsProperties, storageMetrics);
+
+        storageProperties = new StorageProperties();
+        storageProperties.getLocal().setDirectory(directory.resolve("objects").toString());
+        storageProperties.getDedup().setEnabled(true);
+        objectStore = new LocalObjectStore(storageProperties) {
+            @Override
+            public boolean isParallel(String key, long bytes) {
+                return parallel;
+            }
+
+            @Override
+            public InputStream openParallelRange(String key, long first, long last, long alignment,
+                                                 ParallelRangeInputStream.WindowDecoder decoder) {
+                if (parallelWindowChunks == 0) {
+                    return super.openParallelRange(key, first, last, alignment, decoder);
+                }
+                return new ParallelRangeInputStream(s3, "bucket", key, first, last,
+                        alignment * parallelWindowChunks, 2, decoder);
+            }
+        };
+        fileBlobRepository = fileBlobRepository();
+
+        service = new FileStorageService(objectStore, encryptionService, keyProvider, awsProperties,
+                fileMetadataRepository(), fileBlobRepository, storageProperties, batchUploadExecutor, storageMetrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchUploadExecutor.shutdownNow();
+    }
+
+    @Test
+    void dedupIsDisabledByDefault() {
+        assertFalse(new StorageProperties().getDedup().isEnabled());
+    }
+
+    @Test
+    void sameContentOfSameUserIsStoredOnce() throws Exception {
+        String first = upload("alice", "a.bin");
+        String second = upload("alice", "b.bin");
+
+        assertEquals(1, blobs.size());
+        assertEquals(2, blobs.get(first).getRefCount());
+        assertEquals(first, files.get(first).getBlobKey());
+        assertEquals(first, files.get(second).getBlobKey());
+        assertThrows(FileNotFoundException.class, () -> objectStore.open(second));
+        assertEquals(1.0, meterRegistry.get("storage.dedup.uploads").counter().count());
+        assertArrayEquals(CONTENT, service.downloadFileAsBytes(first));
+        assertArrayEquals(CONTENT, service.downloadFileAsBytes(second));
+    }
+
+    @Test
+    void contentIsNotSharedBetweenUsers() {
+        String alice = upload("alice", "a.bin");
+        String bob = upload("bob", "a.bin");
+        String anonymous = upload(null, "a.bin");
+
+        assertEquals(2, blobs.size());
+        assertEquals(1, blobs.get(alice).getRefCount());
+        assertEquals(1, blobs.get(bob).getRefCount());
+        assertNull(files.get(anonymous).getBlobKey());
+    }
+
+    @Test
+    void sameContentIsStoredTwiceWhenDisabled() throws Exception {
+        storageProperties.getDedup().setEnabled(false);
+
+        String first = upload("alice", "a.bin");
+        String second = upload("alice", "b.bin");
+
+        assertTrue(blobs.isEmpty());
+        assertNull(files.get(second).getBlobKey());
+        objectStore.open(first).close();
+        objectStore.open(second).close();
+    }
+
+    @Test
+    void deletingOneReferenceKeepsTheObject() throws Exception {
+        String first = upload("alice", "a.bin");
+        String second = upload("alice", "b.bin");
+
+        service.deleteFile(first);
+
+        assertFalse(files.containsKey(first));
+        assertEquals(1, blobs.get(first).getRefCount());
+        objectStore.open(first).close();
+        assertArrayEquals(CONTENT, service.downloadFileAsBytes(second));
+
+        // The key of the shared object no longer has metadata, but still holds the content of the second file.
+        service.deleteFile(first);
+        assertArrayEquals(CONTENT, service.downloadFileAsBytes(second));
+    }
+
+    @Test
+    void deletingTheLastReferenceRemovesTheObject() {
+        String first = upload("alice", "a.bin");
+        String second = upload("alice", "b.bin");
+
+        service.deleteFile(first);
+        service.deleteFile(second);
+
+        assertTrue(files.isEmpty());
+        assertTrue(blobs.isEmpty());
+        assertThrows(FileNotFoundException.class, () -> objectStore.open(first));
+
+        String again = upload("alice", "c.bin");
+        assertEquals(again, files.get(again).getBlobKey());
+        assertEquals(1, blobs.get(again).getRefCount());
+    }
+
+    @Test
+    void bulkDeleteReleasesAllReferences() {
+        String first = upload("alice", "a.bin");
+        String second = upload("alice", "b.bin");
+        String third = upload("alice", "c.bin");
+
+        List<BatchDeleteResult> results = service.deleteFiles(List.of(first, second));
+
+        assertTrue(results.stream().allMatch(BatchDeleteResult::isSuccess));
+        assertEquals(1, blobs.get(first).getRefCount());
+        assertTrue(service.deleteFiles(List.of(third)).getFirst().isSuccess());
+        assertTrue(blobs.isEmpty());
+        assertThrows(FileNotFoundException.class, () -> objectStore.open(first));
+    }
+
+    @Test
+    void concurrentDuplicateUploadStaysUnshared() throws Exception {
+        // Both uploads look up the content before either registers it, so the second insert
+        // violates the unique constraint.
+        CyclicBarrier lookups = new CyclicBarrier(2);
+        when(fileBlobRepository.findByOwnerAndContentHash(any(), any())).thenAnswer(invocation -> {
+            lookups.await(10, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        List<String> keys = new ArrayList<>();
+        try {
+            Future<String> first = clients.submit(() -> upload("alice", "a.bin"));
+            Future<String> second = clients.submit(() -> upload("alice", "b.bin"));
+            keys.add(first.get(30, TimeUnit.SECONDS));
+            keys.add(second.get(30, TimeUnit.SECONDS));
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertEquals(1, blobs.size());
+        String shared = blobs.keySet().iterator().next();
+        String unshared = keys.stream().filter(key -> !key.equals(shared)).findFirst().orElseThrow();
+        assertEquals(1, blobs.get(shared).getRefCount());
+        assertEquals(shared, files.get(shared).getBlobKey());
+        assertNull(files.get(unshared).getBlobKey());
+        assertArrayEquals(CONTENT, service.downloadFileAsBytes(shared));
+        assertArrayEquals(CONTENT, service.downloadFileAsBytes(unshared));
+
+        service.deleteFile(unshared);
+        assertThrows(FileNotFoundException.class, () -> objectStore.open(unshared));
+        assertEquals(1, blobs.get(shared).getRefCount());
+        assertArrayEquals(CONTENT, service.downloadFileAsBytes(shared));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Within the first chunk, and whole chunks at and around the chunk boundaries
+            "bytes=0-0", "bytes=0-1023", "bytes=1023-1024", "bytes=1024-2047", "bytes=1025-3077",
+            // Served from the header probe, and crossing its end
+            "bytes=2000-2100", "bytes=3000-4200",
+            // The short final chunk, and ranges clipped to the end of the file
+            "bytes=5120-5136", "bytes=5119-5120", "bytes=5136-5136", "bytes=5000-9999",
+            // Open-ended and suffix ranges
+            "bytes=4096-", "bytes=-1", "bytes=-17", "bytes=-2000", "bytes=-99999"})
+    void rangedDownloadReturnsTheRequestedBytes(String header) throws Exception {
+        String key = upload(null, "ranged.bin", RANGED);
+        HttpRange range = HttpRange.parseRanges(header).getFirst();
+        long start = range.getRangeStart(RANGED.length);
+        long end = range.getRangeEnd(RANGED.length);
+
+        try (FileDownload download = service.openDownload(key, range)) {
+            assertTrue(download.partial());
+            assertEquals(start, download.rangeStart());
+            assertEquals(end, download.rangeEnd());
+            assertEquals(end - start + 1, download.contentLength());
+            assertEquals(RANGED.length, download.totalLength());
+            assertArrayEquals(Arrays.copyOfRange(RANGED, (int) start, (int) end + 1), download.content().readAllBytes());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 5 * CHUNK_SIZE + 17})
+    void wholeDownloadReturnsTheFile(int length) throws Exception {
+        byte[] content = randomBytes(length);
+        String key = upload(null, "whole.bin", content);
+
+        try (FileDownload download = service.openDownload(key)) {
+            assertFalse(download.partial());
+            assertEquals(length, download.contentLength());
+            assertEquals(length, download.totalLength());
+            assertArrayEquals(content, download.content().readAllBytes());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("windowRanges")
+    void parallelRangeReadsFallBackToSequentialWindows(String header) throws Exception {
+        // 41 chunks span three windows of 16 chunks, the last one ending on the short final chunk.
+        byte[] content = randomBytes(40 * CHUNK_SIZE + 17);
+        String key = upload(null, "windows.bin", content);
+        parallel = true;
+        HttpRange range = HttpRange.parseRanges(header).getFirst();
+        long start = range.getRangeStart(content.length);
+        long end = range.getRangeEnd(content.length);
+
+        try (FileDownload download = service.openDownload(key, range)) {
+            assertArrayEquals(Arrays.copyOfRange(content, (int) start, (int) end + 1), download.content().readAllBytes());
+        }
+        try (FileDownload download = service.openDownload(key)) {
+            assertEquals(content.length, download.contentLength());
+            assertArrayEquals(content, download.content().readAllBytes());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("windowRanges")
+    void parallelRangeReadsDecryptChunkAlignedWindows(String header) throws Exception {
+        // 41 chunks in windows of three: the last window holds two, ending on the short final chunk.
+        byte[] content = randomBytes(40 * CHUNK_SIZE + 17);
+        String key = upload(null, "windows.bin", content);
+        try (ObjectStream object = objectStore.open(key)) {
+            s3.objects.put(key, object.readAllBytes());
+        }
+        parallel = true;
+        parallelWindowChunks = 3;
+        HttpRange range = HttpRange.parseRanges(header).getFirst();
+        long start = range.getRangeStart(content.length);
+        long end = range.getRangeEnd(content.length);
+
+        try (FileDownload download = service.openDownload(key, range)) {
+            assertArrayEquals(Arrays.copyOfRange(content, (int) start, (int) end + 1), download.content().readAllBytes());
+        }
+        try (FileDownload download = service.openDownload(key)) {
+            assertArrayEquals(content, download.content().readAllBytes());
+        }
+
+        int headerLength = envelopeHeader(key).length();
+        long segmentSize = CHUNK_SIZE + EnvelopeFormat.TAG_LENGTH;
+        List<GetObjectRequest> windows = s3.requests(GetObjectRequest.class);
+        assertFalse(windows.isEmpty());
+        for (GetObjectRequest window : windows) {
+            long first = Long.parseLong(window.range().substring("bytes=".length(), window.range().indexOf('-')));
+            assertEquals(0, (first - headerLength) % segmentSize, window.range());
+        }
+    }
+
+    @Test
+    void rangeOutsideTheFileIsNotSatisfiable() {
+        String key = upload(null, "ranged.bin", RANGED);
+        String empty = upload(null, "empty.bin", new byte[0]);
+
+        RangeNotSatisfiableException pastEnd = assertThrows(RangeNotSatisfiableException.class,
+                () -> service.openDownload(key, HttpRange.createByteRange(RANGED.length)));
+        assertEquals(RANGED.length, pastEnd.getTotalLength());
+        RangeNotSatisfiableException onEmpty = assertThrows(RangeNotSatisfiableException.class,
+                () -> service.openDownload(empty, HttpRange.createByteRange(0, 0)));
+        assertEquals(0, onEmpty.getTotalLength());
+    }
+
+    @Test
+    void controllerAnswersRangesWithPartialContent() throws Exception {
+        String key = upload(null, "ranged.bin", RANGED);
+        MockMvc mockMvc = mockMvc();
+
+        MvcResult started = mockMvc.perform(get("/api/files/download/{filename}", key)
+                        .header(HttpHeaders.RANGE, "bytes=1020-1030"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1020-1030/" + RANGED.length))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 11))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(Arrays.copyOfRange(RANGED, 1020, 1031)));
+
+        MvcResult whole = mockMvc.perform(get("/api/files/download/{filename}", key)
+                        .header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(whole))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(RANGED));
+    }
+
+    @Test
+    void controllerAnswersUnsatisfiableRangesWithTotalLength() throws Exception {
+        String key = upload(null, "ranged.bin", RANGED);
+        String empty = upload(null, "empty.bin", new byte[0]);
+        MockMvc mockMvc = mockMvc();
+
+        mockMvc.perform(get("/api/files/download/{filename}", key)
+                        .header(HttpHeaders.RANGE, "bytes=" + RANGED.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + RANGED.length));
+        mockMvc.perform(get("/api/files/download/{filename}", empty)
+                        .header(HttpHeaders.RANGE, "bytes=-10"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */0"));
+    }
+
+    @Test
+    void selectCodecCompressesOnlyCompressibleSamples() {
+        assertEquals(CompressionCodec.DEFLATE, encryptionService.selectCodec(COMPRESSIBLE));
+        assertEquals(CompressionCodec.NONE, encryptionService.selectCodec(RANGED));
+        assertEquals(CompressionCodec.NONE, encryptionService.selectCodec(new byte[0]));
+
+        // Text shrinks to well under half, so a stricter ratio still compresses it and a ratio of zero never does.
+        awsProperties.getEncryption().getCompression().setMaxRatio(0.5);
+        assertEquals(CompressionCodec.DEFLATE, encryptionService.selectCodec(COMPRESSIBLE));
+        awsProperties.getEncryption().getCompression().setMaxRatio(0);
+        assertEquals(CompressionCodec.NONE, encryptionService.selectCodec(COMPRESSIBLE));
+    }
+
+    @Test
+    void compressionIsLimitedToFilesBetweenMinSizeAndParallelThreshold() throws Exception {
+        AwsProperties.Compression compression = awsProperties.getEncryption().getCompression();
+        compression.setEnabled(true);
+        compression.setMinSize(DataSize.ofBytes(CHUNK_SIZE));
+        awsProperties.getDownload().setParallelThreshold(DataSize.ofBytes(COMPRESSIBLE.length));
+
+        assertFalse(encryptionService.isCompressible(CHUNK_SIZE - 1));
+        assertTrue(encryptionService.isCompressible(CHUNK_SIZE));
+        assertTrue(encryptionService.isCompressible(COMPRESSIBLE.length - 1));
+        assertFalse(encryptionService.isCompressible(COMPRESSIBLE.length));
+
+        byte[] belowThreshold = Arrays.copyOf(COMPRESSIBLE, COMPRESSIBLE.length - 1);
+        assertTrue(envelopeHeader(upload(null, "below.log", belowThreshold)).isCompressed());
+        assertFalse(envelopeHeader(upload(null, "at.log", COMPRESSIBLE)).isCompressed());
+
+        compression.setEnabled(false);
+        assertFalse(encryptionService.isCompressible(CHUNK_SIZE));
+        assertFalse(envelopeHeader(upload(null, "disabled.log", belowThreshold)).isCompressed());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 1})
+    void compressedUploadRejectsContentNotOfTheDeclaredSize(int difference) throws Exception {
+        awsProperties.getEncryption().getCompression().setEnabled(true);
+
+        assertThrows(FileStorageException.class, () -> service.storeFile(null, "declared.log",
+                COMPRESSIBLE.length + difference, () -> new ByteArrayInputStream(COMPRESSIBLE)));
+
+        assertTrue(files.isEmpty());
+        try (Stream<Path> objects = Files.walk(directory.resolve("objects"))) {
+            assertTrue(objects.allMatch(Files::isDirectory));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bytes=0-0", "bytes=1023-1024", "bytes=3000-4200", "bytes=5120-5136", "bytes=5000-9999",
+            "bytes=4096-", "bytes=-17"})
+    void rangedDownloadOfCompressedFileReturnsTheRequestedBytes(String header) throws Exception {
+        awsProperties.getEncryption().getCompression().setEnabled(true);
+        String key = upload(null, "ranged.log", COMPRESSIBLE);
+        assertTrue(envelopeHeader(key).isCompressed());
+        HttpRange range = HttpRange.parseRanges(header).getFirst();
+        long start = range.getRangeStart(COMPRESSIBLE.length);
+        long end = range.getRangeEnd(COMPRESSIBLE.length);
+
+        try (FileDownload download = service.openDownload(key, range)) {
+            assertEquals(end - start + 1, download.contentLength());
+            assertEquals(COMPRESSIBLE.length, download.totalLength());
+            assertArrayEquals(Arrays.copyOfRange(COMPRESSIBLE, (int) start, (int) end + 1),
+                    download.content().readAllBytes());
+        }
+        try (FileDownload download = service.openDownload(key)) {
+            assertEquals(COMPRESSIBLE.length, download.contentLength());
+            assertArrayEquals(COMPRESSIBLE, download.content().readAllBytes());
+        }
+        assertThrows(RangeNotSatisfiableException.class,
+                () -> service.openDownload(key, HttpRange.createByteRange(COMPRESSIBLE.length)));
+    }
+
+    private static Stream<String> windowRanges() {
+        return Stream.of("bytes=0-", "bytes=0-0", "bytes=5000-40000", "bytes=16639-16640", "bytes=33270-33290",
+                "bytes=-17", "bytes=-20000");
+    }
+
+    private EnvelopeHeader envelopeHeader(String key) throws IOException {
+        try (ObjectStream object = objectStore.open(key)) {
+            return EnvelopeHeader.read(object);
+        }
+    }
+
+    private MockMvc mockMvc() {
+        FileStorageController controller = new FileStorageController(service, mock(UploadJobService.class),
+                new ObjectMapper());
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private String upload(String owner, String fileName, byte[] content) {
+        return service.storeFile(owner, fileName, content.length, () -> new ByteArrayInputStream(content));
+    }
+
+    private String upload(String owner, String fileName) {
+        return service.storeFile(owner, fileName, CONTENT.length, () -> new ByteArrayInputStream(CONTENT));
+    }
+
+    private FileMetadataRepository fileMetadataRepository() {
+        FileMetadataRepository repository = mock(FileMetadataRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            FileMetadata metadata = invocation.getArgument(0);
+            files.put(metadata.getS3Key(), metadata);
+            return metadata;
+        });
+        when(repository.findBlobKeyByS3Key(any())).thenAnswer(invocation ->
+                Optional.ofNullable(files.get((String) invocation.getArgument(0))).map(FileMetadata::getBlobKey));
+        when(repository.deleteShared(any(), any())).thenAnswer(invocation -> {
+            FileMetadata metadata = files.get((String) invocation.getArgument(0));
+            if (metadata == null || !invocation.getArgument(1).equals(metadata.getBlobKey())) {
+                return 0;
+            }
+            files.remove(metadata.getS3Key());
+            return 1;
+        });
+        when(repository.deleteByS3KeyIn(any())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(0);
+            return (int) keys.stream().filter(key -> files.remove(key) != null).count();
+        });
+        when(repository.findBlobReferences(any())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(0);
+            return keys.stream()
+                    .map(files::get)
+                    .filter(metadata -> metadata != null && metadata.getBlobKey() != null)
+                    .map(FileStorageServiceTest::reference)
+                    .toList();
+        });
+        return repository;
+    }
+
+    private FileBlobRepository fileBlobRepository() {
+        FileBlobRepository repository = mock(FileBlobRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            FileBlob blob = invocation.getArgument(0);
+            synchronized (blobs) {
+                if (find(blob.getOwner(), blob.getContentHash()).isPresent()) {
+                    throw new DataIntegrityViolationException("uq_file_blob_owner_hash");
+                }
+                blob.setId((long) blobIds.incrementAndGet());
+                blobs.put(blob.getBlobKey(), blob);
+            }
+            return blob;
+        });
+        when(repository.findByOwnerAndContentHash(any(), any())).thenAnswer(invocation ->
+                find(invocation.getArgument(0), invocation.getArgument(1)));
+        when(repository.acquire(anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            synchronized (blobs) {
+                Optional<FileBlob> blob = blobs.values().stream()
+                        .filter(candidate -> candidate.getId() == id && candidate.getRefCount() > 0)
+                        .findFirst();
+                blob.ifPresent(candidate -> candidate.setRefCount(candidate.getRefCount() + 1));
+                return blob.isPresent() ? 1 : 0;
+            }
+        });
+        when(repository.release(any(), anyInt())).thenAnswer(invocation -> {
+            synchronized (blobs) {
+                FileBlob blob = blobs.get((String) invocation.getArgument(0));
+                if (blob == null) {
+                    return 0;
+                }
+                blob.setRefCount(blob.getRefCount() - (int) invocation.getArgument(1));
+                return 1;
+            }
+        });
+        when(repository.deleteUnreferenced(any())).thenAnswer(invocation -> {
+            synchronized (blobs) {
+                FileBlob blob = blobs.get((String) invocation.getArgument(0));
+                if (blob == null || blob.getRefCount() > 0) {
+                    return 0;
+                }
+                blobs.remove(blob.getBlobKey());
+                return 1;
+            }
+        });
+        when(repository.findBlobKeysIn(any())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(0);
+            return keys.stream().filter(blobs::containsKey).toList();
+        });
+        return repository;
+    }
+
+    private Optional<FileBlob> find(String owner, String contentHash) {
+        return blobs.values().stream()
+                .filter(blob -> blob.getOwner().equals(owner) && blob.getContentHash().equals(contentHash))
+                .findFirst();
+    }
+
+    private static FileBlobReference reference(FileMetadata metadata) {
+        return new FileBlobReference() {
+            @Override
+            public String getS3Key() {
+                return metadata.getS3Key();
+            }
+
+            @Override
+            public String getBlobKey() {
+                return metadata.getBlobKey();
+            }
+        };
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
 }
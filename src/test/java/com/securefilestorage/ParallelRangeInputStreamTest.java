@@ -0,0 +1,144 @@
+package com.securefilestorage;
+
+import com.securefilestorage.storage.ParallelRangeInputStream;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ParallelRangeInputStream} with small windows over a recording S3 client: windows aligned to the
+ * start of the range and cut off at its end, in-order reassembly of windows completing out of order,
+ * the bound on windows in flight, and cancellation of the fetches in flight on close and on failure.
+ */
+class ParallelRangeInputStreamTest {
+
+    private static final int WINDOW_SIZE = 1000;
+
+    private static final byte[] OBJECT = content(10_000);
+
+    private final RecordingS3AsyncClient client = new RecordingS3AsyncClient();
+
+    /** Held GetObject answers by range */
+    private final Map<String, CompletableFuture<Void>> gates = new ConcurrentHashMap<>();
+
+    /** Offset and length of every window handed to the decoder, in decoding order */
+    private final List<String> decoded = new ArrayList<>();
+
+    ParallelRangeInputStreamTest() {
+        client.objects.put("key", OBJECT);
+        client.getGates = request -> gates.computeIfAbsent(request.range(), range -> new CompletableFuture<>());
+    }
+
+    @Test
+    void windowsCompletingOutOfOrderAreReassembledInOrder() throws IOException {
+        try (ParallelRangeInputStream in = open(100, 9049, 3)) {
+            assertEquals(List.of("bytes=100-1099", "bytes=1100-2099", "bytes=2100-3099"), ranges());
+            client.getGates = request -> CompletableFuture.completedFuture(null);
+            gates.get("bytes=2100-3099").complete(null);
+            gates.get("bytes=1100-2099").complete(null);
+            gates.get("bytes=100-1099").complete(null);
+
+            assertArrayEquals(Arrays.copyOfRange(OBJECT, 100, 9050), in.readAllBytes());
+            assertEquals(-1, in.read());
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int offset = 100; offset < 8100; offset += WINDOW_SIZE) {
+            expected.add(offset + "+" + WINDOW_SIZE);
+        }
+        // The last window ends with the range, short of a full window.
+        expected.add("8100+950");
+        assertEquals(expected, decoded);
+        assertEquals("bytes=8100-9049", ranges().getLast());
+    }
+
+    @Test
+    void noMoreThanMaxConcurrencyWindowsAreFetchedAhead() throws IOException {
+        try (ParallelRangeInputStream in = open(0, OBJECT.length - 1, 2)) {
+            assertEquals(2, ranges().size());
+            gates.get("bytes=0-999").complete(null);
+
+            assertEquals(OBJECT[0] & 0xFF, in.read());
+
+            // Taking the first window started the third one.
+            assertEquals(List.of("bytes=0-999", "bytes=1000-1999", "bytes=2000-2999"), ranges());
+        }
+    }
+
+    @Test
+    void closeCancelsTheFetchesInFlight() throws IOException {
+        ParallelRangeInputStream in = open(0, OBJECT.length - 1, 3);
+        assertEquals(3, client.getResponses.size());
+
+        in.close();
+
+        assertTrue(client.getResponses.stream().allMatch(CompletableFuture::isCancelled));
+        assertThrows(IOException.class, in::read);
+    }
+
+    @Test
+    void failedFetchCancelsTheOtherWindowsAndFailsLaterReads() throws IOException {
+        gates.put("bytes=0-999", CompletableFuture.failedFuture(
+                S3Exception.builder().message("window failed").statusCode(500).build()));
+
+        try (ParallelRangeInputStream in = open(0, OBJECT.length - 1, 3)) {
+            assertThrows(S3Exception.class, in::read);
+
+            assertEquals(4, client.getResponses.size());
+            assertFalse(client.getResponses.getFirst().isCancelled());
+            assertTrue(client.getResponses.stream().skip(1).allMatch(CompletableFuture::isCancelled));
+            assertThrows(IOException.class, in::read);
+            assertEquals(4, client.getResponses.size());
+        }
+    }
+
+    @Test
+    void decoderFailureCancelsTheOtherWindows() throws IOException {
+        client.getGates = request -> request.range().equals("bytes=0-999")
+                ? CompletableFuture.completedFuture(null)
+                : new CompletableFuture<>();
+
+        try (ParallelRangeInputStream in = new ParallelRangeInputStream(client, "bucket", "key", 0, OBJECT.length - 1,
+                WINDOW_SIZE, 3, (offset, window) -> {
+                    throw new IOException("Chunk authentication failed.");
+                })) {
+            assertThrows(IOException.class, in::read);
+
+            assertTrue(client.getResponses.stream().skip(1).allMatch(CompletableFuture::isCancelled));
+        }
+    }
+
+    private ParallelRangeInputStream open(long start, long end, int maxConcurrency) {
+        return new ParallelRangeInputStream(client, "bucket", "key", start, end, WINDOW_SIZE, maxConcurrency,
+                (offset, window) -> {
+                    decoded.add(offset + "+" + window.length);
+                    return new ByteArrayInputStream(window);
+                });
+    }
+
+    private List<String> ranges() {
+        return client.requests(GetObjectRequest.class).stream().map(GetObjectRequest::range).toList();
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+}
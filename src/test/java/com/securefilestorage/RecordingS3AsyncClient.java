@@ -0,0 +1,174 @@
+package com.securefilestorage;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Request;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Asynchronous S3 client that records the requests it receives and the bodies it was sent, in the
+ * manner of the {@code FakeS3AsyncClient} of the load harness, and serves ranged GETs of the objects
+ * in {@link #objects}. Responses complete at once unless a test replaces {@link #partResponses} or
+ * {@link #getGates} to hold or fail them; all other operations fail with {@link UnsupportedOperationException}.
+ */
+class RecordingS3AsyncClient implements S3AsyncClient {
+
+    static final String UPLOAD_ID = "upload-1";
+
+    /** Every request, in the order received */
+    final List<S3Request> requests = new CopyOnWriteArrayList<>();
+
+    /** Bodies of the uploaded parts by part number, copied when the part is sent */
+    final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+
+    /** Body of the last PutObject */
+    volatile byte[] putContent;
+
+    /** Answers UploadPart requests */
+    volatile Function<UploadPartRequest, CompletableFuture<UploadPartResponse>> partResponses =
+            request -> CompletableFuture.completedFuture(
+                    UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build());
+
+    /** Content served by GetObject, by key */
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    /** Futures returned by GetObject, in request order */
+    final List<CompletableFuture<?>> getResponses = new CopyOnWriteArrayList<>();
+
+    /** Decides when a GetObject is answered; a failed gate fails the request */
+    volatile Function<GetObjectRequest, CompletableFuture<Void>> getGates =
+            request -> CompletableFuture.completedFuture(null);
+
+    @Override
+    public CompletableFuture<PutObjectResponse> putObject(PutObjectRequest putObjectRequest,
+                                                          AsyncRequestBody requestBody) {
+        requests.add(putObjectRequest);
+        putContent = read(requestBody);
+        return CompletableFuture.completedFuture(PutObjectResponse.builder().eTag("etag").build());
+    }
+
+    @Override
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUpload(
+            CreateMultipartUploadRequest createMultipartUploadRequest) {
+        requests.add(createMultipartUploadRequest);
+        return CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().uploadId(UPLOAD_ID).build());
+    }
+
+    @Override
+    public CompletableFuture<UploadPartResponse> uploadPart(UploadPartRequest uploadPartRequest,
+                                                            AsyncRequestBody requestBody) {
+        requests.add(uploadPartRequest);
+        parts.put(uploadPartRequest.partNumber(), read(requestBody));
+        return partResponses.apply(uploadPartRequest);
+    }
+
+    @Override
+    public CompletableFuture<CompleteMultipartUploadResponse> completeMultipartUpload(
+            CompleteMultipartUploadRequest completeMultipartUploadRequest) {
+        requests.add(completeMultipartUploadRequest);
+        return CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().eTag("etag").build());
+    }
+
+    @Override
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUpload(
+            AbortMultipartUploadRequest abortMultipartUploadRequest) {
+        requests.add(abortMultipartUploadRequest);
+        return CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build());
+    }
+
+    /**
+     * Answers with the bytes of {@code range} ({@code bytes=first-last}), cut off at the end of the object.
+     */
+    @Override
+    public <ReturnT> CompletableFuture<ReturnT> getObject(GetObjectRequest getObjectRequest,
+                                                          AsyncResponseTransformer<GetObjectResponse, ReturnT> asyncResponseTransformer) {
+        requests.add(getObjectRequest);
+        byte[] object = objects.get(getObjectRequest.key());
+        String[] range = getObjectRequest.range().substring("bytes=".length()).split("-");
+        int first = Integer.parseInt(range[0]);
+        int last = Math.min(Integer.parseInt(range[1]), object.length - 1);
+        byte[] content = Arrays.copyOfRange(object, first, last + 1);
+        CompletableFuture<ReturnT> response = getGates.apply(getObjectRequest).thenCompose(ignored -> {
+            CompletableFuture<ReturnT> result = asyncResponseTransformer.prepare();
+            asyncResponseTransformer.onResponse(GetObjectResponse.builder().contentLength((long) content.length).build());
+            asyncResponseTransformer.onStream(AsyncRequestBody.fromBytes(content));
+            return result;
+        });
+        getResponses.add(response);
+        return response;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Requests of one type, in the order received.
+     *
+     * @param type request class.
+     * @return the requests.
+     */
+    <T extends S3Request> List<T> requests(Class<T> type) {
+        return requests.stream().filter(type::isInstance).map(type::cast).toList();
+    }
+
+    private static byte[] read(AsyncRequestBody body) {
+        CompletableFuture<byte[]> content = new CompletableFuture<>();
+        body.subscribe(new Subscriber<>() {
+
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer buffer) {
+                byte[] chunk = new byte[buffer.remaining()];
+                buffer.get(chunk);
+                bytes.write(chunk, 0, chunk.length);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                content.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                content.complete(bytes.toByteArray());
+            }
+        });
+        return content.join();
+    }
+}
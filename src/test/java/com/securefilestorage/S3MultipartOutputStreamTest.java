@@ -0,0 +1,217 @@
+package com.securefilestorage;
+
+import com.securefilestorage.storage.PartBufferPool;
+import com.securefilestorage.storage.S3MultipartOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link S3MultipartOutputStream} and its {@link PartBufferPool} against a recording S3 client: single
+ * PutObject for small objects, concurrent part uploads bounded per upload, aborting on part and caller
+ * failures without completing, and the buffer budget returned in every case.
+ */
+class S3MultipartOutputStreamTest {
+
+    private static final int PART_SIZE = S3MultipartOutputStream.MIN_PART_SIZE;
+
+    private static final long BUDGET = 8L * PART_SIZE;
+
+    private final RecordingS3AsyncClient client = new RecordingS3AsyncClient();
+
+    private final PartBufferPool pool = new PartBufferPool(PART_SIZE, BUDGET);
+
+    private final ExecutorService writers = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        writers.shutdownNow();
+    }
+
+    @Test
+    void smallObjectIsSentWithOnePut() throws IOException {
+        byte[] content = content(1000);
+
+        try (S3MultipartOutputStream out = open(2, content.length)) {
+            out.write(content);
+        }
+
+        assertEquals(1, client.requests.size());
+        assertEquals("key", client.requests(PutObjectRequest.class).getFirst().key());
+        assertArrayEquals(content, client.putContent);
+        assertEquals(BUDGET, pool.getAvailableBytes());
+    }
+
+    @Test
+    void partsAreUploadedConcurrentlyUpToTheLimitAndCompletedInOrder() throws Exception {
+        Map<Integer, CompletableFuture<UploadPartResponse>> held = new ConcurrentHashMap<>();
+        client.partResponses = request -> held.computeIfAbsent(request.partNumber(), part -> new CompletableFuture<>());
+        byte[] content = content(4 * PART_SIZE + 10);
+
+        Future<?> writer = writers.submit(() -> {
+            try (S3MultipartOutputStream out = open(2, content.length)) {
+                out.write(content);
+            }
+            return null;
+        });
+
+        await(() -> held.size() == 2);
+        // The third part waits for a slot while the first two are in flight.
+        Thread.sleep(200);
+        assertEquals(2, held.size());
+        assertFalse(writer.isDone());
+
+        held.get(1).complete(response(1));
+        await(() -> held.size() == 3);
+        assertEquals(2, held.values().stream().filter(part -> !part.isDone()).count());
+
+        while (!writer.isDone()) {
+            held.forEach((part, future) -> future.complete(response(part)));
+            Thread.sleep(10);
+        }
+        writer.get();
+
+        assertEquals(1, client.requests(CreateMultipartUploadRequest.class).size());
+        assertEquals(5, client.requests(UploadPartRequest.class).size());
+        assertTrue(client.requests(AbortMultipartUploadRequest.class).isEmpty());
+        CompleteMultipartUploadRequest complete = client.requests(CompleteMultipartUploadRequest.class).getFirst();
+        assertEquals(RecordingS3AsyncClient.UPLOAD_ID, complete.uploadId());
+        assertEquals(List.of(1, 2, 3, 4, 5),
+                complete.multipartUpload().parts().stream().map(CompletedPart::partNumber).toList());
+        assertEquals("etag-5", complete.multipartUpload().parts().getLast().eTag());
+        assertArrayEquals(content, uploadedParts());
+        assertEquals(BUDGET, pool.getAvailableBytes());
+    }
+
+    @Test
+    void failedPartAbortsTheUploadWithoutCompleting() throws Exception {
+        client.partResponses = request -> request.partNumber() == 2
+                ? CompletableFuture.failedFuture(S3Exception.builder().message("part failed").statusCode(500).build())
+                : CompletableFuture.completedFuture(response(request.partNumber()));
+        S3MultipartOutputStream out = open(2, 3L * PART_SIZE);
+
+        out.write(content(2 * PART_SIZE + 1));
+
+        assertThrows(S3Exception.class, () -> out.write(1));
+        assertThrows(S3Exception.class, out::close);
+        assertThrows(IOException.class, () -> out.write(1));
+        await(() -> !client.requests(AbortMultipartUploadRequest.class).isEmpty());
+        assertEquals(RecordingS3AsyncClient.UPLOAD_ID,
+                client.requests(AbortMultipartUploadRequest.class).getFirst().uploadId());
+        assertTrue(client.requests(CompleteMultipartUploadRequest.class).isEmpty());
+        assertEquals(BUDGET, pool.getAvailableBytes());
+    }
+
+    @Test
+    void callerAbortWaitsForPartsInFlightBeforeAborting() throws Exception {
+        CompletableFuture<UploadPartResponse> first = new CompletableFuture<>();
+        client.partResponses = request -> first;
+        S3MultipartOutputStream out = open(2, 2L * PART_SIZE);
+        out.write(content(PART_SIZE + 1));
+
+        // The caller failed to read the rest of the file.
+        out.abort();
+
+        assertTrue(client.requests(AbortMultipartUploadRequest.class).isEmpty());
+        assertEquals(BUDGET - PART_SIZE, pool.getAvailableBytes());
+        first.complete(response(1));
+        await(() -> !client.requests(AbortMultipartUploadRequest.class).isEmpty());
+        assertTrue(client.requests(CompleteMultipartUploadRequest.class).isEmpty());
+        assertEquals(BUDGET, pool.getAvailableBytes());
+        out.close();
+        assertTrue(client.requests(CompleteMultipartUploadRequest.class).isEmpty());
+    }
+
+    @Test
+    void partSizeBelowTheS3MinimumIsRejected() {
+        PartBufferPool smallParts = new PartBufferPool(PART_SIZE - 1, BUDGET);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new S3MultipartOutputStream(client, "bucket", "key", smallParts, 2, 1));
+    }
+
+    @Test
+    void poolBlocksUntilBudgetIsReleasedAndRecyclesPartBuffers() throws Exception {
+        PartBufferPool twoParts = new PartBufferPool(PART_SIZE, 2L * PART_SIZE);
+        byte[] first = twoParts.acquire(PART_SIZE);
+        byte[] second = twoParts.acquire(PART_SIZE);
+        assertEquals(0, twoParts.getAvailableBytes());
+
+        Future<byte[]> third = writers.submit(() -> twoParts.acquire(PART_SIZE));
+        assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+
+        twoParts.release(first);
+        assertSame(first, third.get(10, TimeUnit.SECONDS));
+        twoParts.release(second);
+        twoParts.release(first);
+        assertEquals(2L * PART_SIZE, twoParts.getAvailableBytes());
+    }
+
+    @Test
+    void poolCountsSmallBuffersAndHoldsAtLeastOnePart() throws Exception {
+        byte[] small = pool.acquire(1000);
+        assertEquals(BUDGET - 1024, pool.getAvailableBytes());
+        pool.release(small);
+        assertEquals(BUDGET, pool.getAvailableBytes());
+
+        assertEquals(PART_SIZE, new PartBufferPool(PART_SIZE, 1).getAvailableBytes());
+    }
+
+    private S3MultipartOutputStream open(int maxInFlightParts, long sizeHint) throws IOException {
+        return new S3MultipartOutputStream(client, "bucket", "key", pool, maxInFlightParts, sizeHint);
+    }
+
+    private byte[] uploadedParts() {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (int part = 1; part <= client.parts.size(); part++) {
+            content.writeBytes(client.parts.get(part));
+        }
+        return content.toByteArray();
+    }
+
+    private static UploadPartResponse response(int partNumber) {
+        return UploadPartResponse.builder().eTag("etag-" + partNumber).build();
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10 seconds.");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.securefilestorage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securefilestorage.config.AwsProperties;
+import com.securefilestorage.controller.FileStorageController;
+import com.securefilestorage.exception.AwsServiceException;
+import com.securefilestorage.exception.GlobalExceptionHandler;
+import com.securefilestorage.model.UploadJob;
+import com.securefilestorage.model.UploadJobStatus;
+import com.securefilestorage.repository.UploadJobRepository;
+import com.securefilestorage.service.FileStorageService;
+import com.securefilestorage.service.UploadJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lifecycle of asynchronous uploads through the controller, over an in-memory job table and a job
+ * queue the test drains: acceptance, owner-scoped lookup, rejection by a full queue, bounded retries
+ * that keep the spool until the job completes or fails for good, and resumption after a restart.
+ */
+class UploadJobServiceTest {
+
+    private static final byte[] CONTENT = content(5_000);
+
+    @TempDir
+    Path spoolDirectory;
+
+    /** Job rows by id */
+    private final Map<UUID, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    /** Jobs handed to the worker pool, not yet run */
+    private final List<Runnable> queued = new ArrayList<>();
+
+    /** Content uploaded by every successful storeFile call */
+    private final List<byte[]> uploaded = new ArrayList<>();
+
+    /** storeFile calls that fail before one succeeds */
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    private final UploadJobRepository uploadJobRepository = mock(UploadJobRepository.class);
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+
+    private final ExecutorService uploadJobExecutor = mock(ExecutorService.class);
+
+    private final AwsProperties awsProperties = new AwsProperties();
+
+    private UploadJobService uploadJobService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        awsProperties.getUpload().setSpoolDirectory(spoolDirectory.toString());
+        awsProperties.getUpload().setJobMaxAttempts(3);
+        stubRepository();
+        doAnswer(invocation -> queued.add(invocation.getArgument(0))).when(uploadJobExecutor).execute(any());
+        when(fileStorageService.storeFile(any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            FileStorageService.ContentSource source = invocation.getArgument(3);
+            try (InputStream in = source.openForUpload()) {
+                byte[] content = in.readAllBytes();
+                if (failuresLeft.getAndDecrement() > 0) {
+                    throw new AwsServiceException("S3 is unavailable.");
+                }
+                uploaded.add(content);
+            }
+            return "stored-" + invocation.getArgument(1);
+        });
+
+        uploadJobService = new UploadJobService(fileStorageService, uploadJobRepository, uploadJobExecutor,
+                awsProperties);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new FileStorageController(fileStorageService, uploadJobService, new ObjectMapper()))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        signIn("alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void asyncUploadIsAcceptedAndCompletedInTheBackground() throws Exception {
+        UUID jobId = submit();
+
+        UploadJob job = jobs.get(jobId);
+        assertEquals(UploadJobStatus.PENDING, job.getStatus());
+        assertEquals("alice", job.getUploadedBy());
+        assertArrayEquals(CONTENT, Files.readAllBytes(Path.of(job.getSpoolPath())));
+        assertEquals(1, queued.size());
+
+        drain();
+
+        assertEquals(UploadJobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertEquals((long) CONTENT.length, job.getBytesUploaded());
+        assertArrayEquals(CONTENT, uploaded.getFirst());
+        assertEquals(0, spoolFiles());
+        mockMvc.perform(get("/api/files/upload/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.storedFileName").value("stored-report.bin"));
+    }
+
+    @Test
+    void jobIsVisibleToItsOwnerOnly() throws Exception {
+        UUID jobId = submit();
+
+        mockMvc.perform(get("/api/files/upload/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PENDING"));
+        mockMvc.perform(get("/api/files/upload/jobs/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+
+        signIn("bob");
+        mockMvc.perform(get("/api/files/upload/jobs/" + jobId))
+                .andExpect(status().isNotFound());
+
+        SecurityContextHolder.clearContext();
+        mockMvc.perform(get("/api/files/upload/jobs/" + jobId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void fullQueueRejectsTheUploadAndRemovesItsJobAndSpool() throws Exception {
+        doThrow(new RejectedExecutionException("full")).when(uploadJobExecutor).execute(any());
+
+        mockMvc.perform(multipart("/api/files/upload/async").file(file()))
+                .andExpect(status().isServiceUnavailable());
+
+        assertTrue(jobs.isEmpty());
+        assertEquals(0, spoolFiles());
+    }
+
+    @Test
+    void failedAttemptIsRetriedFromTheKeptSpool() throws Exception {
+        failuresLeft.set(2);
+        UUID jobId = submit();
+
+        queued.removeFirst().run();
+        UploadJob job = jobs.get(jobId);
+        assertEquals(UploadJobStatus.PENDING, job.getStatus());
+        assertEquals("S3 is unavailable.", job.getError());
+        assertEquals(1, spoolFiles());
+        assertEquals(1, queued.size());
+
+        drain();
+
+        assertEquals(UploadJobStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getAttempts());
+        assertNull(job.getError());
+        assertArrayEquals(CONTENT, uploaded.getFirst());
+        assertEquals(0, spoolFiles());
+    }
+
+    @Test
+    void jobFailsAndDropsItsSpoolAfterTheLastAttempt() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        UUID jobId = submit();
+
+        drain();
+
+        UploadJob job = jobs.get(jobId);
+        assertEquals(UploadJobStatus.FAILED, job.getStatus());
+        assertEquals(3, job.getAttempts());
+        assertEquals("S3 is unavailable.", job.getError());
+        assertTrue(uploaded.isEmpty());
+        assertEquals(0, spoolFiles());
+    }
+
+    @Test
+    void retryThatFindsTheQueueFullStaysPendingWithItsSpool() throws Exception {
+        failuresLeft.set(1);
+        UUID jobId = submit();
+        doThrow(new RejectedExecutionException("full")).when(uploadJobExecutor).execute(any());
+
+        drain();
+
+        assertEquals(UploadJobStatus.PENDING, jobs.get(jobId).getStatus());
+        assertEquals(1, spoolFiles());
+    }
+
+    @Test
+    void jobWhoseRowCannotBeLoadedIsHandedBack() throws Exception {
+        UUID jobId = submit();
+        when(uploadJobRepository.findById(jobId)).thenThrow(new IllegalStateException("connection lost"));
+
+        drain();
+
+        assertEquals(UploadJobStatus.PENDING, jobs.get(jobId).getStatus());
+        assertEquals(1, spoolFiles());
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void restartResumesPendingAndRunningJobsWithASpool() throws IOException {
+        UploadJob pending = spooledJob(UploadJobStatus.PENDING, 0);
+        UploadJob running = spooledJob(UploadJobStatus.RUNNING, 1);
+        UploadJob lost = spooledJob(UploadJobStatus.RUNNING, 1);
+        Files.delete(Path.of(lost.getSpoolPath()));
+        UploadJob completed = spooledJob(UploadJobStatus.COMPLETED, 1);
+
+        uploadJobService.resumePendingJobs();
+        assertEquals(2, queued.size());
+        assertEquals(UploadJobStatus.PENDING, running.getStatus());
+        drain();
+
+        assertEquals(UploadJobStatus.COMPLETED, pending.getStatus());
+        assertEquals(1, pending.getAttempts());
+        assertEquals(UploadJobStatus.COMPLETED, running.getStatus());
+        assertEquals(2, running.getAttempts());
+        assertEquals(UploadJobStatus.RUNNING, lost.getStatus());
+        assertEquals(UploadJobStatus.COMPLETED, completed.getStatus());
+        assertEquals(2, uploaded.size());
+        assertFalse(Files.exists(Path.of(pending.getSpoolPath())));
+        assertFalse(Files.exists(Path.of(running.getSpoolPath())));
+        // The completed job's spool is none of the resume's business.
+        assertTrue(Files.exists(Path.of(completed.getSpoolPath())));
+    }
+
+    /**
+     * Backs the repository with {@link #jobs}, claiming and moving jobs the way the queries do.
+     */
+    private void stubRepository() {
+        when(uploadJobRepository.save(any())).thenAnswer(invocation -> {
+            UploadJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        doAnswer(invocation -> jobs.remove(invocation.<UploadJob>getArgument(0).getId()))
+                .when(uploadJobRepository).delete(any());
+        when(uploadJobRepository.findById(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<UUID>getArgument(0))));
+        when(uploadJobRepository.findByIdAndUploadedBy(any(), any())).thenAnswer(invocation ->
+                Optional.ofNullable(jobs.get(invocation.<UUID>getArgument(0)))
+                        .filter(job -> job.getUploadedBy().equals(invocation.getArgument(1))));
+        when(uploadJobRepository.findByStatusIn(any())).thenAnswer(invocation -> {
+            Collection<UploadJobStatus> statuses = invocation.getArgument(0);
+            return jobs.values().stream().filter(job -> statuses.contains(job.getStatus())).toList();
+        });
+        when(uploadJobRepository.claim(any(), any())).thenAnswer(invocation -> {
+            UploadJob job = jobs.get(invocation.<UUID>getArgument(0));
+            if (job == null || job.getStatus() != UploadJobStatus.PENDING) {
+                return 0;
+            }
+            job.setStatus(UploadJobStatus.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            return 1;
+        });
+        when(uploadJobRepository.transition(any(), any(), any(), any())).thenAnswer(invocation -> {
+            UploadJob job = jobs.get(invocation.<UUID>getArgument(0));
+            if (job == null || job.getStatus() != invocation.getArgument(1)) {
+                return 0;
+            }
+            job.setStatus(invocation.getArgument(2));
+            return 1;
+        });
+    }
+
+    private UUID submit() throws Exception {
+        MvcResult result = mockMvc.perform(multipart("/api/files/upload/async").file(file()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.fileSize").value(CONTENT.length))
+                .andReturn();
+        String location = result.getResponse().getHeader("Location");
+        return UUID.fromString(location.substring(location.lastIndexOf('/') + 1));
+    }
+
+    private UploadJob spooledJob(UploadJobStatus status, int attempts) throws IOException {
+        UUID jobId = UUID.randomUUID();
+        Path spool = spoolDirectory.resolve(jobId + ".spool");
+        Files.write(spool, CONTENT);
+        LocalDateTime now = LocalDateTime.now();
+        UploadJob job = UploadJob.builder()
+                .id(jobId)
+                .fileName(jobId + ".bin")
+                .uploadedBy("alice")
+                .spoolPath(spool.toString())
+                .fileSize((long) CONTENT.length)
+                .bytesUploaded(0L)
+                .status(status)
+                .attempts(attempts)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        jobs.put(jobId, job);
+        return job;
+    }
+
+    /**
+     * Runs queued jobs, and the jobs they queue, until the queue is empty.
+     */
+    private void drain() {
+        while (!queued.isEmpty()) {
+            queued.removeFirst().run();
+        }
+    }
+
+    private long spoolFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            return files.count();
+        }
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "report.bin", "application/octet-stream", CONTENT);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+}